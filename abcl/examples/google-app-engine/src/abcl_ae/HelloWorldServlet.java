@@ -8,8 +8,6 @@ import org.armedbear.lisp.Interpreter;
 import org.armedbear.lisp.LispThread;
 import org.armedbear.lisp.Lisp;
 import org.armedbear.lisp.Symbol;
-import org.armedbear.lisp.SpecialBinding;
-import org.armedbear.lisp.SpecialBindingsMark;
 import org.armedbear.lisp.Load;
 import org.armedbear.lisp.Stream;
 
@@ -28,7 +26,7 @@ public class HelloWorldServlet extends HttpServlet {
 
 		LispThread currentThread = LispThread.currentThread();
 
-		SpecialBindingsMark mark = currentThread.markSpecialBindings();
+		int mark = currentThread.markSpecialBindings();
 		currentThread.bindSpecial(
 			Symbol.STANDARD_OUTPUT, 
 			new Stream(Symbol.SYSTEM_STREAM, resp.getOutputStream(), 
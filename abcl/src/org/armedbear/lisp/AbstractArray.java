@@ -260,7 +260,7 @@ public abstract class AbstractArray extends LispObject implements java.io.Serial
                 _CURRENT_PRINT_LEVEL_.symbolValue(thread);
             int currentLevel = Fixnum.getValue(currentPrintLevel);
             if (currentLevel < maxLevel) {
-                final SpecialBindingsMark mark = thread.markSpecialBindings();
+                final int mark = thread.markSpecialBindings();
                 thread.bindSpecial(_CURRENT_PRINT_LEVEL_, currentPrintLevel.incr());
                 try {
                     sb.append('(');
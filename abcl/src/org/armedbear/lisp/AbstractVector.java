@@ -240,7 +240,7 @@ public abstract class AbstractVector extends AbstractArray
               maxLength = ((Fixnum)printLength).value;
             final int length = length();
             final int limit = Math.min(length, maxLength);
-            final SpecialBindingsMark mark = thread.markSpecialBindings();
+            final int mark = thread.markSpecialBindings();
             thread.bindSpecial(_CURRENT_PRINT_LEVEL_, currentPrintLevel.incr());
             try
               {
@@ -88,6 +88,11 @@ public class ArgumentListProcessor {
   /** Holds the value 'true' if the matcher needs an evaluation environment to
    * evaluate the initforms of variales in the &optional, &key or &aux categories */
   private boolean matcherNeedsEnv;
+
+  /** Holds the value 'true' if the lambda list consists of required and
+   * &optional parameters with constant initforms only: calls can then be
+   * bound with 'bindArgument' without collecting the arguments in arrays */
+  private boolean positionalOnly;
   
   /** Used when generating errors during function call argument matching */
   private Operator function;
@@ -446,6 +451,9 @@ public class ArgumentListProcessor {
             }
     
     
+    positionalOnly = envParam == null && restParam == null && !andKey
+        && auxVars.length == 0 && !matcherNeedsEnv;
+
     if (keywordParameters.length == 0) {
       matcher = new FastMatcher();
     } else {
@@ -504,6 +512,33 @@ public class ArgumentListProcessor {
       }
   }
   
+  /** Returns 'true' if a call with 'argCount' arguments can be bound
+   * directly with 'bindArgument' and 'bindMissingArguments', instead of
+   * going through 'match' and 'bindVars'.
+   */
+  public boolean matchesDirectly(int argCount) {
+      return positionalOnly
+          && argCount >= minArgs && argCount <= positionalParameters.length;
+  }
+
+  /** Binds the function call argument at 'position' to its variable(s)
+   * in the environment 'env'. Arguments must be bound in order.
+   * Only valid if 'matchesDirectly' returned 'true' for the call.
+   */
+  public void bindArgument(int position, LispObject value,
+                           Environment env, LispThread thread) {
+      positionalParameters[position].bind(value, env, thread);
+  }
+
+  /** Binds the &optional parameters from 'argCount' onwards, for which
+   * no arguments were passed, to the values of their initforms.
+   */
+  public void bindMissingArguments(int argCount,
+                                   Environment env, LispThread thread) {
+      for (int i = argCount; i < positionalParameters.length; i++)
+          positionalParameters[i].bind(null, env, thread);
+  }
+
   public Symbol[] freeSpecials(LispObject specials) {
       ArrayList<Symbol> list = new ArrayList<Symbol>();
       
@@ -643,7 +678,7 @@ public class ArgumentListProcessor {
         if (thread == null)
             return _match(args, _environment, env, thread);
           
-        final SpecialBindingsMark mark = thread.markSpecialBindings();
+        final int mark = thread.markSpecialBindings();
         try {
             return _match(args, _environment, env, thread);
         }
@@ -830,6 +865,12 @@ public class ArgumentListProcessor {
       /** Adds the variables to be bound to 'vars' in the same order as they
        * will be assigned to the output array by the 'assign' method. */
       abstract void addVars(List vars);
+
+      /** Binds 'value' - 'null' for an absent &optional argument - directly
+       * in 'env'. Only required and &optional parameters support this. */
+      void bind(LispObject value, Environment env, LispThread thread) {
+          Debug.assertTrue(false);
+      }
   }
 
   
@@ -920,6 +961,11 @@ public class ArgumentListProcessor {
           array[index++] = value;
           return index;
       }
+
+      @Override
+      void bind(LispObject value, Environment env, LispThread thread) {
+          bindArg(special || var.isSpecialVariable(), var, value, env, thread);
+      }
       
       void addVars(List vars) {
           vars.add(var);
@@ -981,6 +1027,19 @@ public class ArgumentListProcessor {
       }
       
       
+      @Override
+      void bind(LispObject value, Environment env, LispThread thread) {
+          LispObject supplied = T;
+          if (value == null) {
+              value = initForm.getValue(env, thread);
+              supplied = NIL;
+          }
+          bindArg(special || var.isSpecialVariable(), var, value, env, thread);
+          if (suppliedVar != null)
+              bindArg(suppliedSpecial || suppliedVar.isSpecialVariable(),
+                      suppliedVar, supplied, env, thread);
+      }
+
       @Override
       boolean needsEnvironment() {
           return initForm.needsEnvironment();
@@ -135,7 +135,7 @@ public class Autoload extends Function
     public void load()
     {
         final LispThread thread = LispThread.currentThread();
-        final SpecialBindingsMark mark = thread.markSpecialBindings();
+        final int mark = thread.markSpecialBindings();
         int loadDepth = Fixnum.getValue(_LOAD_DEPTH_.symbolValue());
         thread.bindSpecial(_LOAD_DEPTH_, Fixnum.getInstance(++loadDepth));
         try {
@@ -532,6 +532,29 @@ public class Autoload extends Function
         autoload(PACKAGE_EXT, "weak-reference-value", "WeakReference", true);
         autoload(PACKAGE_EXT, "finalize", "Primitives", true);
         autoload(PACKAGE_EXT, "cancel-finalization", "Primitives", true);
+        autoload(PACKAGE_THREADS, "make-mailbox", "Mailbox", true);
+        autoload(PACKAGE_THREADS, "mailbox-p", "Mailbox", true);
+        autoload(PACKAGE_THREADS, "mailbox-send", "Mailbox", true);
+        autoload(PACKAGE_THREADS, "mailbox-send-all", "Mailbox", true);
+        autoload(PACKAGE_THREADS, "mailbox-read", "Mailbox", true);
+        autoload(PACKAGE_THREADS, "mailbox-drain", "Mailbox", true);
+        autoload(PACKAGE_THREADS, "mailbox-empty-p", "Mailbox", true);
+        autoload(PACKAGE_THREADS, "mailbox-count", "Mailbox", true);
+        autoload(PACKAGE_THREADS, "mailbox-peek", "Mailbox", true);
+        autoload(PACKAGE_THREADS, "make-mutex", "Mutex", true);
+        autoload(PACKAGE_THREADS, "mutex-p", "Mutex", true);
+        autoload(PACKAGE_THREADS, "get-mutex", "Mutex", true);
+        autoload(PACKAGE_THREADS, "release-mutex", "Mutex", true);
+        autoload(PACKAGE_THREADS, "make-thread-pool", "ThreadPool", true);
+        autoload(PACKAGE_THREADS, "thread-pool-p", "ThreadPool", true);
+        autoload(PACKAGE_THREADS, "thread-pool-size", "ThreadPool", true);
+        autoload(PACKAGE_THREADS, "thread-pool-shutdown", "ThreadPool", true);
+        autoload(PACKAGE_THREADS, "default-thread-pool", "ThreadPool", true);
+        autoload(PACKAGE_THREADS, "submit", "ThreadPool", true);
+        autoload(PACKAGE_THREADS, "future-p", "Future", true);
+        autoload(PACKAGE_THREADS, "future-value", "Future", true);
+        autoload(PACKAGE_THREADS, "future-done-p", "Future", true);
+        autoload(PACKAGE_THREADS, "future-cancel", "Future", true);
         autoload(PACKAGE_JAVA, "%jnew-proxy", "JProxy");
         autoload(PACKAGE_JAVA, "%find-java-class", "JavaObject");
         autoload(PACKAGE_JAVA, "%register-java-class", "JavaObject");
@@ -560,11 +583,17 @@ public class Autoload extends Function
         autoload(PACKAGE_SYS, "%make-byte-array-output-stream", "ByteArrayOutputStream"); //AS 20090325
         autoload(PACKAGE_SYS, "%make-condition", "make_condition", true);
         autoload(PACKAGE_SYS, "%make-emf-cache", "EMFCache", true);
+        autoload(PACKAGE_SYS, "%make-emf-dispatcher", "EMFCache", true);
         autoload(PACKAGE_SYS, "%make-hash-table", "HashTableFunctions");
         autoload(PACKAGE_SYS, "%make-hash-table", "HashTableFunctions");
         autoload(PACKAGE_SYS, "%make-logical-pathname", "LogicalPathname", true);
+        autoload(PACKAGE_SYS, "%make-slot-reader", "SlotLocationCache", true);
+        autoload(PACKAGE_SYS, "%make-slot-writer", "SlotLocationCache", true);
         autoload(PACKAGE_SYS, "%make-server-socket", "make_server_socket");
+        autoload(PACKAGE_SYS, "%make-server-socket-channel", "SocketChannels");
         autoload(PACKAGE_SYS, "%make-socket", "make_socket");
+        autoload(PACKAGE_SYS, "%make-socket-channel", "SocketChannels");
+        autoload(PACKAGE_SYS, "%make-socket-selector", "SocketChannels");
         autoload(PACKAGE_SYS, "%make-string", "StringFunctions");
         autoload(PACKAGE_SYS, "%make-string-output-stream", "StringOutputStream");
         autoload(PACKAGE_SYS, "%nstring-capitalize", "StringFunctions");
@@ -591,7 +620,18 @@ public class Autoload extends Function
         autoload(PACKAGE_SYS, "%simple-bit-vector-bit-orc2", "SimpleBitVector");
         autoload(PACKAGE_SYS, "%simple-bit-vector-bit-xor", "SimpleBitVector");
         autoload(PACKAGE_SYS, "%socket-accept", "socket_accept");
+        autoload(PACKAGE_SYS, "%socket-channel-accept", "SocketChannels");
+        autoload(PACKAGE_SYS, "%socket-channel-close", "SocketChannels");
+        autoload(PACKAGE_SYS, "%socket-channel-local-port", "SocketChannels");
+        autoload(PACKAGE_SYS, "%socket-channel-read", "SocketChannels");
+        autoload(PACKAGE_SYS, "%socket-channel-write", "SocketChannels");
         autoload(PACKAGE_SYS, "%socket-close", "socket_close");
+        autoload(PACKAGE_SYS, "%socket-selector-close", "SocketChannels");
+        autoload(PACKAGE_SYS, "%socket-selector-count", "SocketChannels");
+        autoload(PACKAGE_SYS, "%socket-selector-poll", "SocketChannels");
+        autoload(PACKAGE_SYS, "%socket-selector-register", "SocketChannels");
+        autoload(PACKAGE_SYS, "%socket-selector-unregister", "SocketChannels");
+        autoload(PACKAGE_SYS, "%socket-selector-wakeup", "SocketChannels");
         autoload(PACKAGE_SYS, "%socket-stream", "socket_stream");
         autoload(PACKAGE_SYS, "%string-capitalize", "StringFunctions");
         autoload(PACKAGE_SYS, "%string-downcase", "StringFunctions");
@@ -639,6 +679,7 @@ public class Autoload extends Function
         autoload(PACKAGE_SYS, "make-fill-pointer-output-stream", "FillPointerOutputStream");
         autoload(PACKAGE_SYS, "make-layout", "Layout", true);
         autoload(PACKAGE_SYS, "make-single-float", "FloatFunctions", true);
+        autoload(PACKAGE_SYS, "make-slot-location-cache", "SlotLocationCache", true);
         autoload(PACKAGE_SYS, "%make-slot-definition", "SlotDefinition", true);
         autoload(PACKAGE_SYS, "make-structure-class", "StructureClass");
         autoload(PACKAGE_SYS, "make-symbol-macro", "Primitives");
@@ -667,6 +708,8 @@ public class Autoload extends Function
 
 	autoload(PACKAGE_SYS, "make-fasl-class-loader", "FaslClassLoader", false);
 	autoload(PACKAGE_SYS, "get-fasl-function", "FaslClassLoader", false);
+	autoload(PACKAGE_SYS, "get-lazy-fasl-function", "FaslClassLoader", false);
+	autoload(PACKAGE_SYS, "write-boot-snapshot", "BootSnapshot", true);
 
 	autoload(PACKAGE_SYS, "make-memory-class-loader", "MemoryClassLoader", false);
 	autoload(PACKAGE_SYS, "put-memory-function", "MemoryClassLoader", false);
@@ -49,7 +49,7 @@ public final class AutoloadGeneralizedReference extends Autoload
     Load.loadSystemFile(getFileName(), true);
   }
 
-  static final Symbol SETF_EXPANDER  = PACKAGE_SYS.intern("SETF-EXPANDER");
+  static final Symbol SETF_EXPANDER  = Symbol.SETF_EXPANDER;
   public static final Primitive AUTOLOAD_SETF_EXPANDER = new pf_autoload_setf_expander();
   @DocString(
     name="autoload-setf-expander",
@@ -0,0 +1,308 @@
+/*
+ * BasicVector_DoubleFloat.java
+ *
+ * Copyright (C) 2026 The ABCL Development Team
+ * $Id$
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+
+package org.armedbear.lisp;
+
+import static org.armedbear.lisp.Lisp.*;
+
+// A basic vector is a specialized vector that is not displaced to another
+// array, has no fill pointer, and is not expressly adjustable.
+public final class BasicVector_DoubleFloat extends AbstractVector
+{
+  private int capacity;
+
+  private double[] elements;
+
+  public BasicVector_DoubleFloat(int capacity)
+  {
+    elements = new double[capacity];
+    this.capacity = capacity;
+  }
+
+  public BasicVector_DoubleFloat(LispObject[] array)
+
+  {
+    capacity = array.length;
+    elements = new double[capacity];
+    for (int i = array.length; i-- > 0;)
+      elements[i] = checkDoubleFloat(array[i]).value;
+  }
+
+  public BasicVector_DoubleFloat(double[] array)
+  {
+    capacity = array.length;
+    elements = array;
+  }
+
+  @Override
+  public LispObject typeOf()
+  {
+    return list(Symbol.SIMPLE_ARRAY, Symbol.DOUBLE_FLOAT,
+                 new Cons(Fixnum.getInstance(capacity)));
+  }
+
+  @Override
+  public LispObject classOf()
+  {
+    return BuiltInClass.VECTOR;
+  }
+
+  @Override
+  public LispObject typep(LispObject type)
+  {
+    if (type == Symbol.SIMPLE_ARRAY)
+      return T;
+    if (type == BuiltInClass.SIMPLE_ARRAY)
+      return T;
+    return super.typep(type);
+  }
+
+  @Override
+  public LispObject getElementType()
+  {
+    return Symbol.DOUBLE_FLOAT;
+  }
+
+  @Override
+  public boolean isSimpleVector()
+  {
+    return false;
+  }
+
+  @Override
+  public boolean hasFillPointer()
+  {
+    return false;
+  }
+
+  @Override
+  public boolean isAdjustable()
+  {
+    return false;
+  }
+
+  @Override
+  public int capacity()
+  {
+    return capacity;
+  }
+
+  @Override
+  public int length()
+  {
+    return capacity;
+  }
+
+  @Override
+  public LispObject elt(int index)
+  {
+    try
+      {
+        return DoubleFloat.getInstance(elements[index]);
+      }
+    catch (ArrayIndexOutOfBoundsException e)
+      {
+        badIndex(index, capacity);
+        return NIL; // Not reached.
+      }
+  }
+
+  @Override
+  public double aref_double(int index)
+  {
+    try
+      {
+        return elements[index];
+      }
+    catch (ArrayIndexOutOfBoundsException e)
+      {
+        badIndex(index, elements.length);
+        return 0; // Not reached.
+      }
+  }
+
+  @Override
+  public LispObject AREF(int index)
+  {
+    try
+      {
+        return DoubleFloat.getInstance(elements[index]);
+      }
+    catch (ArrayIndexOutOfBoundsException e)
+      {
+        badIndex(index, elements.length);
+        return NIL; // Not reached.
+      }
+  }
+
+  @Override
+  public void aset(int index, LispObject newValue)
+  {
+    try
+      {
+        elements[index] = checkDoubleFloat(newValue).value;
+      }
+    catch (ArrayIndexOutOfBoundsException e)
+      {
+        badIndex(index, capacity);
+      }
+  }
+
+  @Override
+  public void aset(int index, double newValue)
+  {
+    try
+      {
+        elements[index] = newValue;
+      }
+    catch (ArrayIndexOutOfBoundsException e)
+      {
+        badIndex(index, capacity);
+      }
+  }
+
+  @Override
+  public LispObject subseq(int start, int end)
+  {
+    BasicVector_DoubleFloat v = new BasicVector_DoubleFloat(end - start);
+    try
+      {
+        System.arraycopy(elements, start, v.elements, 0, end - start);
+        return v;
+      }
+    catch (ArrayIndexOutOfBoundsException e)
+      {
+        return error(new TypeError("Array index out of bounds: " + end + "."));
+      }
+  }
+
+  @Override
+  public void fill(LispObject obj)
+  {
+    java.util.Arrays.fill(elements, checkDoubleFloat(obj).value);
+  }
+
+  @Override
+  public void shrink(int n)
+  {
+    if (n < capacity)
+      {
+        double[] newArray = new double[n];
+        System.arraycopy(elements, 0, newArray, 0, n);
+        elements = newArray;
+        capacity = n;
+        return;
+      }
+    if (n == capacity)
+      return;
+    error(new LispError());
+  }
+
+  @Override
+  public LispObject reverse()
+  {
+    BasicVector_DoubleFloat result = new BasicVector_DoubleFloat(capacity);
+    int i, j;
+    for (i = 0, j = capacity - 1; i < capacity; i++, j--)
+      result.elements[i] = elements[j];
+    return result;
+  }
+
+  @Override
+  public LispObject nreverse()
+  {
+    int i = 0;
+    int j = capacity - 1;
+    while (i < j)
+      {
+        double temp = elements[i];
+        elements[i] = elements[j];
+        elements[j] = temp;
+        ++i;
+        --j;
+      }
+    return this;
+  }
+
+  @Override
+  public AbstractVector adjustArray(int newCapacity,
+                                     LispObject initialElement,
+                                     LispObject initialContents)
+
+  {
+    if (initialContents != null)
+      {
+        double[] newElements = new double[newCapacity];
+        if (initialContents.listp())
+          {
+            LispObject list = initialContents;
+            for (int i = 0; i < newCapacity; i++)
+              {
+                newElements[i] = checkDoubleFloat(list.car()).value;
+                list = list.cdr();
+              }
+          }
+        else if (initialContents.vectorp())
+          {
+            for (int i = 0; i < newCapacity; i++)
+              newElements[i] = checkDoubleFloat(initialContents.elt(i)).value;
+          }
+        else
+          type_error(initialContents, Symbol.SEQUENCE);
+        return new BasicVector_DoubleFloat(newElements);
+      }
+    if (capacity != newCapacity)
+      {
+        double[] newElements = new double[newCapacity];
+        System.arraycopy(elements, 0, newElements, 0,
+                         Math.min(capacity, newCapacity));
+        if (initialElement != null)
+          {
+            double d = checkDoubleFloat(initialElement).value;
+            for (int i = capacity; i < newCapacity; i++)
+              newElements[i] = d;
+          }
+        return new BasicVector_DoubleFloat(newElements);
+      }
+    // No change.
+    return this;
+  }
+
+  @Override
+  public AbstractVector adjustArray(int newCapacity,
+                                     AbstractArray displacedTo,
+                                     int displacement)
+  {
+    return new ComplexVector_DoubleFloat(newCapacity, displacedTo, displacement);
+  }
+}
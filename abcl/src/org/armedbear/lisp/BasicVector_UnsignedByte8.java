@@ -64,6 +64,12 @@ public final class BasicVector_UnsignedByte8 extends AbstractVector
       elements[i] = coerceLispObjectToJavaByte(array[i]);
   }
 
+  /** Returns the elements themselves, for bulk I/O. */
+  byte[] elements()
+  {
+    return elements;
+  }
+
   @Override
   public LispObject typeOf()
   {
@@ -0,0 +1,338 @@
+/*
+ * BootSnapshot.java
+ *
+ * Copyright (C) 2026 The ABCL Development Team
+ * $Id$
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.armedbear.lisp;
+
+import static org.armedbear.lisp.Lisp.*;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A boot snapshot records the system files loaded while the
+ * interpreter boots, together with the bytes of every compiled
+ * function class defined from them.
+ *
+ * Restoring a snapshot, by naming it in the system property
+ * "abcl.boot.snapshot", lets the next boot read all of those files
+ * from one stream instead of resolving, probing and unpacking each
+ * FASL.  Every entry carries the modification stamp of the file it
+ * was taken from; if any of them no longer matches, or the snapshot
+ * was written by another version of ABCL, the snapshot is ignored
+ * and the system boots normally.
+ */
+public final class BootSnapshot
+{
+    static final String PROPERTY = "abcl.boot.snapshot";
+
+    private static final int MAGIC = 0xABC1B007;
+    private static final int FORMAT_VERSION = 1;
+
+    static final class Entry
+    {
+        final String filename;
+        final Pathname truename;
+        final Pathname container;
+        final long lastModified;
+        private byte[] loader;
+        private final Map<String,byte[]> classes
+            = new LinkedHashMap<String,byte[]>();
+
+        Entry(String filename, Pathname truename, Pathname container,
+              long lastModified)
+        {
+            this.filename = filename;
+            this.truename = truename;
+            this.container = container;
+            this.lastModified = lastModified;
+        }
+
+        InputStream openLoader()
+        {
+            return new ByteArrayInputStream(loader);
+        }
+
+        synchronized byte[] getClassBytes(String name)
+        {
+            return classes.get(name);
+        }
+
+        synchronized void noteClass(String name, byte[] bytes)
+        {
+            classes.put(name, bytes);
+        }
+    }
+
+    // ### *boot-snapshot*
+    // The pathname of the snapshot this image booted from, or NIL.
+    static final Symbol _BOOT_SNAPSHOT_ =
+        internSpecial("*BOOT-SNAPSHOT*", PACKAGE_SYS, NIL);
+
+    private static boolean recording;
+    private static Entry current;
+    private static final List<Entry> recorded = new ArrayList<Entry>();
+    private static Map<String,Entry> restored;
+
+    /** Starts recording the system files loaded while booting,
+     *  restoring the snapshot named by the "abcl.boot.snapshot"
+     *  property if it is still valid.
+     */
+    static synchronized void begin()
+    {
+        recording = true;
+        String file = System.getProperty(PROPERTY);
+        if (file != null && file.length() > 0) {
+            restored = read(new File(file));
+            if (restored != null)
+                _BOOT_SNAPSHOT_.setSymbolValue(new Pathname(file));
+        }
+    }
+
+    /** Ends the boot: later system files are neither recorded nor
+     *  taken from the snapshot. */
+    static synchronized void end()
+    {
+        recording = false;
+        restored = null;
+        current = null;
+    }
+
+    /** Returns the snapshot entry to load FILENAME from, or null. */
+    static synchronized Entry lookup(String filename)
+    {
+        return restored == null ? null : restored.get(filename);
+    }
+
+    /** Returns a new entry recording the load of FILENAME from
+     *  TRUENAME, or null if nothing is being recorded. */
+    static synchronized Entry record(String filename, Pathname truename,
+                                     Pathname container)
+    {
+        if (!recording || truename == null || container == null)
+            return null;
+        long lastModified = container.getLastModified();
+        if (lastModified == 0)
+            return null;
+        return new Entry(filename, truename, container, lastModified);
+    }
+
+    /** Makes ENTRY the file whose classes are being loaded, returning
+     *  the previous one for leave(). */
+    static synchronized Entry enter(Entry entry)
+    {
+        Entry previous = current;
+        current = recording ? entry : null;
+        if (current != null && !recorded.contains(current))
+            recorded.add(current);
+        return previous;
+    }
+
+    static synchronized void leave(Entry previous)
+    {
+        current = recording ? previous : null;
+    }
+
+    /** The entry of the system file currently being loaded, if any. */
+    static synchronized Entry current()
+    {
+        return current;
+    }
+
+    private static Map<String,Entry> read(File file)
+    {
+        if (!file.isFile())
+            return null;
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if (in.readInt() != MAGIC
+                || in.readInt() != FORMAT_VERSION
+                || !in.readUTF().equals(Version.getVersion())
+                || in.readInt() != Load._FASL_VERSION_.getSymbolValue().intValue()
+                || !in.readUTF().equals(lispHome()))
+                return null;
+            int count = in.readInt();
+            Map<String,Entry> result = new HashMap<String,Entry>(count * 2);
+            for (int i = 0; i < count; i++) {
+                String filename = in.readUTF();
+                Pathname truename = new Pathname(in.readUTF());
+                Pathname container = new Pathname(in.readUTF());
+                long lastModified = in.readLong();
+                if (lastModified == 0
+                    || container.getLastModified() != lastModified)
+                    return null;
+                Entry entry = new Entry(filename, truename, container,
+                                        lastModified);
+                entry.loader = readBytes(in);
+                int classCount = in.readInt();
+                for (int j = 0; j < classCount; j++) {
+                    String name = in.readUTF();
+                    entry.classes.put(name, readBytes(in));
+                }
+                result.put(filename, entry);
+            }
+            return result;
+        } catch (Throwable t) {
+            // Unreadable or truncated: boot without it.
+            return null;
+        } finally {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                }
+            }
+        }
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException
+    {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes)
+        throws IOException
+    {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String lispHome()
+    {
+        LispObject home = Site.getLispHome();
+        return home instanceof Pathname ? ((Pathname)home).getNamestring() : "";
+    }
+
+    private static byte[] loaderBytes(Entry entry) throws IOException
+    {
+        if (entry.loader != null)
+            return entry.loader;
+        InputStream in = entry.truename.getInputStream();
+        if (in == null)
+            throw new IOException("Failed to read " + entry.truename.getNamestring());
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int n;
+            while ((n = in.read(buffer)) >= 0)
+                bytes.write(buffer, 0, n);
+            return bytes.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+
+    static synchronized void write(File file) throws IOException
+    {
+        DataOutputStream out
+            = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(Version.getVersion());
+            out.writeInt(Load._FASL_VERSION_.getSymbolValue().intValue());
+            out.writeUTF(lispHome());
+            out.writeInt(recorded.size());
+            for (Entry entry : recorded) {
+                if (entry.container.getLastModified() != entry.lastModified)
+                    throw new IOException("System file changed since boot: "
+                                          + entry.container.getNamestring());
+                out.writeUTF(entry.filename);
+                out.writeUTF(entry.truename.getNamestring());
+                out.writeUTF(entry.container.getNamestring());
+                out.writeLong(entry.lastModified);
+                writeBytes(out, loaderBytes(entry));
+                synchronized (entry) {
+                    out.writeInt(entry.classes.size());
+                    for (Map.Entry<String,byte[]> c : entry.classes.entrySet()) {
+                        out.writeUTF(c.getKey());
+                        writeBytes(out, c.getValue());
+                    }
+                }
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    private static final Primitive WRITE_BOOT_SNAPSHOT = new pf_write_boot_snapshot();
+    @DocString(name="write-boot-snapshot",
+               args="pathname",
+               returns="pathname",
+               doc="Write the system files loaded while this image booted to PATHNAME.\n"
+               + "Starting ABCL with -Dabcl.boot.snapshot=PATHNAME then boots from the\n"
+               + "snapshot, falling back to a normal boot if any of the recorded files\n"
+               + "has changed since.")
+    private static final class pf_write_boot_snapshot extends Primitive {
+        pf_write_boot_snapshot() {
+            super("write-boot-snapshot", PACKAGE_SYS, true, "pathname");
+        }
+
+        @Override
+        public LispObject execute(LispObject arg) {
+            Pathname pathname
+                = Pathname.mergePathnames(coerceToPathname(arg),
+                                          coerceToPathname(Symbol.DEFAULT_PATHNAME_DEFAULTS.symbolValue()),
+                                          NIL);
+            if (pathname.isURL() || pathname.isJar()) {
+                return error(new FileError("Cannot write a boot snapshot to a "
+                                           + (pathname.isURL() ? "URL" : "jar")
+                                           + " Pathname.",
+                                           pathname));
+            }
+            try {
+                write(pathname.getFile());
+            } catch (IOException e) {
+                return error(new FileError("Failed to write boot snapshot: "
+                                           + e.getMessage(),
+                                           pathname));
+            }
+            return pathname;
+        }
+    }
+}
@@ -103,6 +103,7 @@ public class BuiltInClass extends LispClass
   public static final BuiltInClass FIXNUM               = addClass(Symbol.FIXNUM);
   public static final BuiltInClass FLOAT                = addClass(Symbol.FLOAT);
   public static final BuiltInClass FUNCTION             = addClass(Symbol.FUNCTION);
+  public static final BuiltInClass FUTURE               = addClass(Symbol.FUTURE);
   public static final BuiltInClass HASH_TABLE           = addClass(Symbol.HASH_TABLE);
   public static final BuiltInClass INTEGER              = addClass(Symbol.INTEGER);
   public static final BuiltInClass JAVA_OBJECT          = addClass(Symbol.JAVA_OBJECT);
@@ -133,6 +134,7 @@ public class BuiltInClass extends LispClass
   public static final BuiltInClass STRING               = addClass(Symbol.STRING);
   public static final BuiltInClass SYMBOL               = addClass(Symbol.SYMBOL);
   public static final BuiltInClass THREAD               = addClass(Symbol.THREAD);
+  public static final BuiltInClass THREAD_POOL          = addClass(Symbol.THREAD_POOL);
   public static final BuiltInClass VECTOR               = addClass(Symbol.VECTOR);
   public static final BuiltInClass STACK_FRAME          = addClass(Symbol.STACK_FRAME);
   public static final BuiltInClass LISP_STACK_FRAME     = addClass(Symbol.LISP_STACK_FRAME);
@@ -249,6 +251,8 @@ public class BuiltInClass extends LispClass
     FLOAT.setCPL(FLOAT, REAL, NUMBER, CLASS_T);
     FUNCTION.setDirectSuperclass(CLASS_T);
     FUNCTION.setCPL(FUNCTION, CLASS_T);
+    FUTURE.setDirectSuperclass(CLASS_T);
+    FUTURE.setCPL(FUTURE, CLASS_T);
     HASH_TABLE.setDirectSuperclass(CLASS_T);
     HASH_TABLE.setCPL(HASH_TABLE, CLASS_T);
     INTEGER.setDirectSuperclass(RATIONAL);
@@ -331,6 +335,8 @@ public class BuiltInClass extends LispClass
     SYSTEM_STREAM.setCPL(SYSTEM_STREAM, STREAM, STRUCTURE_OBJECT, CLASS_T);
     THREAD.setDirectSuperclass(CLASS_T);
     THREAD.setCPL(THREAD, CLASS_T);
+    THREAD_POOL.setDirectSuperclass(CLASS_T);
+    THREAD_POOL.setCPL(THREAD_POOL, CLASS_T);
     TWO_WAY_STREAM.setCPL(TWO_WAY_STREAM, SYSTEM_STREAM, STREAM,
                           STRUCTURE_OBJECT, CLASS_T);
     VECTOR.setDirectSuperclasses(list(ARRAY, SEQUENCE));
@@ -51,6 +51,7 @@ public class Closure extends Function
 
   private final Symbol[] freeSpecials;
   private final ArgumentListProcessor arglist;
+  private final boolean sharesEnvironment;
 
     /** Construct a closure object with a lambda-list described
      * by these parameters.
@@ -70,6 +71,7 @@ public class Closure extends Function
       environment = null;
       this.arglist = arglist;
       freeSpecials = new Symbol[0];
+      sharesEnvironment = false;
   }
 
 
@@ -106,6 +108,8 @@ public class Closure extends Function
             ArgumentListProcessor.LambdaListType.MACRO
             : ArgumentListProcessor.LambdaListType.ORDINARY);
     freeSpecials = arglist.freeSpecials(specials);
+    sharesEnvironment = env != null && freeSpecials.length == 0
+      && arglist.getVariables().length == 0;
   }
 
   @Override
@@ -139,33 +143,83 @@ public class Closure extends Function
   @Override
   public LispObject execute()
   {
-      return execute(new LispObject[0]);
+    if (arglist.matchesDirectly(0))
+      {
+        final LispThread thread = LispThread.currentThread();
+        final int mark = thread.markSpecialBindings();
+        final Environment ext = newEnvironment();
+        arglist.bindMissingArguments(0, ext, thread);
+        return executeBody(ext, thread, mark);
+      }
+    return execute(new LispObject[0]);
   }
-    
+
   @Override
   public LispObject execute(LispObject arg)
   {
-        return execute(new LispObject[] {arg});
+    if (arglist.matchesDirectly(1))
+      {
+        final LispThread thread = LispThread.currentThread();
+        final int mark = thread.markSpecialBindings();
+        final Environment ext = newEnvironment();
+        arglist.bindArgument(0, arg, ext, thread);
+        arglist.bindMissingArguments(1, ext, thread);
+        return executeBody(ext, thread, mark);
+      }
+    return execute(new LispObject[] {arg});
   }
 
   @Override
   public LispObject execute(LispObject first, LispObject second)
   {
-        return execute(new LispObject[] {first, second});
+    if (arglist.matchesDirectly(2))
+      {
+        final LispThread thread = LispThread.currentThread();
+        final int mark = thread.markSpecialBindings();
+        final Environment ext = newEnvironment();
+        arglist.bindArgument(0, first, ext, thread);
+        arglist.bindArgument(1, second, ext, thread);
+        arglist.bindMissingArguments(2, ext, thread);
+        return executeBody(ext, thread, mark);
+      }
+    return execute(new LispObject[] {first, second});
   }
 
   @Override
   public LispObject execute(LispObject first, LispObject second,
                             LispObject third)
   {
-        return execute(new LispObject[] {first, second, third});
+    if (arglist.matchesDirectly(3))
+      {
+        final LispThread thread = LispThread.currentThread();
+        final int mark = thread.markSpecialBindings();
+        final Environment ext = newEnvironment();
+        arglist.bindArgument(0, first, ext, thread);
+        arglist.bindArgument(1, second, ext, thread);
+        arglist.bindArgument(2, third, ext, thread);
+        arglist.bindMissingArguments(3, ext, thread);
+        return executeBody(ext, thread, mark);
+      }
+    return execute(new LispObject[] {first, second, third});
   }
 
   @Override
   public LispObject execute(LispObject first, LispObject second,
                             LispObject third, LispObject fourth)
   {
-        return execute(new LispObject[] {first, second, third, fourth});
+    if (arglist.matchesDirectly(4))
+      {
+        final LispThread thread = LispThread.currentThread();
+        final int mark = thread.markSpecialBindings();
+        final Environment ext = newEnvironment();
+        arglist.bindArgument(0, first, ext, thread);
+        arglist.bindArgument(1, second, ext, thread);
+        arglist.bindArgument(2, third, ext, thread);
+        arglist.bindArgument(3, fourth, ext, thread);
+        arglist.bindMissingArguments(4, ext, thread);
+        return executeBody(ext, thread, mark);
+      }
+    return execute(new LispObject[] {first, second, third, fourth});
   }
 
   @Override
@@ -173,7 +227,20 @@ public class Closure extends Function
                             LispObject third, LispObject fourth,
                             LispObject fifth)
   {
-        return execute(new LispObject[] {first, second, third, fourth, fifth});
+    if (arglist.matchesDirectly(5))
+      {
+        final LispThread thread = LispThread.currentThread();
+        final int mark = thread.markSpecialBindings();
+        final Environment ext = newEnvironment();
+        arglist.bindArgument(0, first, ext, thread);
+        arglist.bindArgument(1, second, ext, thread);
+        arglist.bindArgument(2, third, ext, thread);
+        arglist.bindArgument(3, fourth, ext, thread);
+        arglist.bindArgument(4, fifth, ext, thread);
+        arglist.bindMissingArguments(5, ext, thread);
+        return executeBody(ext, thread, mark);
+      }
+    return execute(new LispObject[] {first, second, third, fourth, fifth});
   }
 
   @Override
@@ -181,8 +248,22 @@ public class Closure extends Function
                             LispObject third, LispObject fourth,
                             LispObject fifth, LispObject sixth)
   {
-        return execute(new LispObject[] {first, second, third, fourth, fifth,
-                                  sixth});
+    if (arglist.matchesDirectly(6))
+      {
+        final LispThread thread = LispThread.currentThread();
+        final int mark = thread.markSpecialBindings();
+        final Environment ext = newEnvironment();
+        arglist.bindArgument(0, first, ext, thread);
+        arglist.bindArgument(1, second, ext, thread);
+        arglist.bindArgument(2, third, ext, thread);
+        arglist.bindArgument(3, fourth, ext, thread);
+        arglist.bindArgument(4, fifth, ext, thread);
+        arglist.bindArgument(5, sixth, ext, thread);
+        arglist.bindMissingArguments(6, ext, thread);
+        return executeBody(ext, thread, mark);
+      }
+    return execute(new LispObject[] {first, second, third, fourth, fifth,
+                                    sixth});
   }
 
   @Override
@@ -191,8 +272,23 @@ public class Closure extends Function
                             LispObject fifth, LispObject sixth,
                             LispObject seventh)
   {
-        return execute(new LispObject[] {first, second, third, fourth, fifth,
-                                  sixth, seventh});
+    if (arglist.matchesDirectly(7))
+      {
+        final LispThread thread = LispThread.currentThread();
+        final int mark = thread.markSpecialBindings();
+        final Environment ext = newEnvironment();
+        arglist.bindArgument(0, first, ext, thread);
+        arglist.bindArgument(1, second, ext, thread);
+        arglist.bindArgument(2, third, ext, thread);
+        arglist.bindArgument(3, fourth, ext, thread);
+        arglist.bindArgument(4, fifth, ext, thread);
+        arglist.bindArgument(5, sixth, ext, thread);
+        arglist.bindArgument(6, seventh, ext, thread);
+        arglist.bindMissingArguments(7, ext, thread);
+        return executeBody(ext, thread, mark);
+      }
+    return execute(new LispObject[] {first, second, third, fourth, fifth,
+                                    sixth, seventh});
   }
 
   @Override
@@ -201,18 +297,51 @@ public class Closure extends Function
                             LispObject fifth, LispObject sixth,
                             LispObject seventh, LispObject eighth)
   {
-        return execute(new LispObject[] {first, second, third, fourth, fifth,
-                                  sixth, seventh, eighth});
+    if (arglist.matchesDirectly(8))
+      {
+        final LispThread thread = LispThread.currentThread();
+        final int mark = thread.markSpecialBindings();
+        final Environment ext = newEnvironment();
+        arglist.bindArgument(0, first, ext, thread);
+        arglist.bindArgument(1, second, ext, thread);
+        arglist.bindArgument(2, third, ext, thread);
+        arglist.bindArgument(3, fourth, ext, thread);
+        arglist.bindArgument(4, fifth, ext, thread);
+        arglist.bindArgument(5, sixth, ext, thread);
+        arglist.bindArgument(6, seventh, ext, thread);
+        arglist.bindArgument(7, eighth, ext, thread);
+        arglist.bindMissingArguments(8, ext, thread);
+        return executeBody(ext, thread, mark);
+      }
+    return execute(new LispObject[] {first, second, third, fourth, fifth,
+                                    sixth, seventh, eighth});
   }
 
   @Override
   public LispObject execute(LispObject[] args)
   {
     final LispThread thread = LispThread.currentThread();
-    final SpecialBindingsMark mark = thread.markSpecialBindings();
+    final int mark = thread.markSpecialBindings();
     Environment ext = new Environment(environment);
     args = arglist.match(args, environment, ext, thread);
     arglist.bindVars(args, ext, thread);
+    return executeBody(ext, thread, mark);
+  }
+
+  /** Returns the environment to bind the variables of a call in.
+   *
+   * A closure without any variables or free specials doesn't bind
+   * anything, so its body is evaluated in the closure's own environment.
+   */
+  private Environment newEnvironment()
+  {
+    if (sharesEnvironment)
+      return environment;
+    return new Environment(environment);
+  }
+
+  private LispObject executeBody(Environment ext, LispThread thread, int mark)
+  {
     for (Symbol special : freeSpecials)
       ext.declareSpecial(special);
     try
@@ -0,0 +1,341 @@
+/*
+ * ConcurrentHashTable.java
+ *
+ * Copyright (C) 2026 The ABCL Development Team
+ * $Id$
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+
+package org.armedbear.lisp;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import static org.armedbear.lisp.Lisp.*;
+
+/** A hash table for use by many threads at once, as created by
+ * (MAKE-HASH-TABLE :SYNCHRONIZED :CONCURRENT).
+ *
+ * The table is split into independently locked segments, each of which
+ * owns its own bucket array.  Readers never take a lock: buckets are
+ * published through an AtomicReferenceArray and the 'next' field of a
+ * published HashEntry is never modified, so a reader always sees a
+ * consistent chain.  Writers only lock the segment the key hashes to,
+ * and a resize rehashes only that segment, while readers continue to
+ * use the old bucket array until the new one is published.
+ */
+public final class ConcurrentHashTable extends HashTable
+{
+    private static final int MAX_SEGMENTS = 1 << 8;
+
+    private final Segment[] segments;
+    private final int segmentShift;
+    private final int segmentMask;
+
+    private ConcurrentHashTable(Comparator c, int size, LispObject rehashSize,
+                                LispObject rehashThreshold) {
+        super(c, 0, rehashSize, rehashThreshold);
+        int nsegments = calculateInitialCapacity(
+            Math.max(16, 2 * Runtime.getRuntime().availableProcessors()));
+        if (nsegments > MAX_SEGMENTS) {
+            nsegments = MAX_SEGMENTS;
+        }
+        int shift = 0;
+        while ((1 << shift) < nsegments) {
+            ++shift;
+        }
+        segmentShift = 32 - shift;
+        segmentMask = nsegments - 1;
+        int segmentSize = calculateInitialCapacity(
+            Math.max(2, (size + nsegments - 1) / nsegments));
+        segments = new Segment[nsegments];
+        for (int i = 0; i < nsegments; i++) {
+            segments[i] = new Segment(segmentSize);
+        }
+    }
+
+    public static HashTable newEqHashTable(int size, LispObject rehashSize,
+            LispObject rehashThreshold) {
+        return new ConcurrentHashTable(new Comparator(), size, rehashSize,
+                                       rehashThreshold);
+    }
+
+    public static HashTable newEqlHashTable(int size, LispObject rehashSize,
+            LispObject rehashThreshold) {
+        return new ConcurrentHashTable(new EqlComparator(), size, rehashSize,
+                                       rehashThreshold);
+    }
+
+    public static HashTable newEqualHashTable(int size, LispObject rehashSize,
+            LispObject rehashThreshold) {
+        return new ConcurrentHashTable(new EqualComparator(), size, rehashSize,
+                                       rehashThreshold);
+    }
+
+    public static HashTable newEqualpHashTable(int size, LispObject rehashSize,
+            LispObject rehashThreshold) {
+        return new ConcurrentHashTable(new EqualpComparator(), size, rehashSize,
+                                       rehashThreshold);
+    }
+
+    // Spread the bits of the Lisp hash code, which is only 30 bits wide
+    // for many objects, so that both the segment index (taken from the
+    // high bits) and the bucket index (taken from the low bits) vary.
+    private static int spread(int h) {
+        h += (h << 15) ^ 0xffffcd7d;
+        h ^= (h >>> 10);
+        h += (h << 3);
+        h ^= (h >>> 6);
+        h += (h << 2) + (h << 14);
+        return h ^ (h >>> 16);
+    }
+
+    private Segment segmentFor(int hash) {
+        return segments[(hash >>> segmentShift) & segmentMask];
+    }
+
+    @Override
+    public int getSize() {
+        int size = 0;
+        for (Segment s : segments) {
+            size += s.table.length();
+        }
+        return size;
+    }
+
+    @Override
+    public int getCount() {
+        int n = 0;
+        for (Segment s : segments) {
+            n += s.count;
+        }
+        return n;
+    }
+
+    @Override
+    public void clear() {
+        for (Segment s : segments) {
+            s.clear();
+        }
+    }
+
+    @Override
+    protected HashEntry getEntry(LispObject key) {
+        int hash = spread(comparator.hash(key));
+        return segmentFor(hash).getEntry(key, hash);
+    }
+
+    @Override
+    public LispObject get(LispObject key) {
+        HashEntry e = getEntry(key);
+        return (e == null) ? null : e.value;
+    }
+
+    @Override
+    public void put(LispObject key, LispObject value) {
+        int hash = spread(comparator.hash(key));
+        segmentFor(hash).put(key, hash, value);
+    }
+
+    @Override
+    public LispObject remove(LispObject key) {
+        int hash = spread(comparator.hash(key));
+        return segmentFor(hash).remove(key, hash);
+    }
+
+    @Override
+    protected void rehash() {
+        for (Segment s : segments) {
+            s.lock();
+            try {
+                s.rehash();
+            } finally {
+                s.unlock();
+            }
+        }
+    }
+
+    // As for the other hash tables, iteration doesn't lock: entries
+    // added or removed by FUNCTION (or by other threads) during the
+    // iteration may or may not be seen, but every entry present for
+    // the whole iteration is visited exactly once.
+    @Override
+    public LispObject getEntries() {
+        LispObject list = NIL;
+        for (int i = segments.length; i-- > 0;) {
+            AtomicReferenceArray<HashEntry> tab = segments[i].table;
+            for (int j = tab.length(); j-- > 0;) {
+                HashEntry e = tab.get(j);
+                while (e != null) {
+                    list = new Cons(new Cons(e.key, e.value), list);
+                    e = e.next;
+                }
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public LispObject MAPHASH(LispObject function) {
+        for (int i = segments.length; i-- > 0;) {
+            AtomicReferenceArray<HashEntry> tab = segments[i].table;
+            for (int j = tab.length(); j-- > 0;) {
+                HashEntry e = tab.get(j);
+                while (e != null) {
+                    function.execute(e.key, e.value);
+                    e = e.next;
+                }
+            }
+        }
+        return NIL;
+    }
+
+    @Override
+    public LispObject getParts() {
+        LispObject parts = NIL;
+        for (int i = 0; i < segments.length; i++) {
+            AtomicReferenceArray<HashEntry> tab = segments[i].table;
+            for (int j = 0; j < tab.length(); j++) {
+                HashEntry e = tab.get(j);
+                while (e != null) {
+                    parts = parts.push(new Cons("KEY [segment " + i
+                                                + ", bucket " + j + "]",
+                                                e.key));
+                    parts = parts.push(new Cons("VALUE", e.value));
+                    e = e.next;
+                }
+            }
+        }
+        return parts.nreverse();
+    }
+
+    private final class Segment extends ReentrantLock {
+
+        volatile AtomicReferenceArray<HashEntry> table;
+        volatile int count;
+        int threshold;
+
+        Segment(int capacity) {
+            table = new AtomicReferenceArray<HashEntry>(capacity);
+            threshold = (int) (capacity * loadFactor);
+        }
+
+        HashEntry getEntry(LispObject key, int hash) {
+            AtomicReferenceArray<HashEntry> tab = table;
+            HashEntry e = tab.get(hash & (tab.length() - 1));
+            while (e != null) {
+                if (hash == e.hash &&
+                        (key == e.key || comparator.keysEqual(key, e.key))) {
+                    return e;
+                }
+                e = e.next;
+            }
+            return null;
+        }
+
+        void put(LispObject key, int hash, LispObject value) {
+            lock();
+            try {
+                HashEntry e = getEntry(key, hash);
+                if (e != null) {
+                    e.value = value;
+                    return;
+                }
+                if (count + 1 > threshold) {
+                    rehash();
+                }
+                AtomicReferenceArray<HashEntry> tab = table;
+                int index = hash & (tab.length() - 1);
+                tab.set(index, new HashEntry(key, hash, value, tab.get(index)));
+                ++count;
+            } finally {
+                unlock();
+            }
+        }
+
+        LispObject remove(LispObject key, int hash) {
+            lock();
+            try {
+                AtomicReferenceArray<HashEntry> tab = table;
+                int index = hash & (tab.length() - 1);
+                HashEntry first = tab.get(index);
+                HashEntry e = first;
+                while (e != null) {
+                    if (hash == e.hash &&
+                            (key == e.key || comparator.keysEqual(key, e.key))) {
+                        break;
+                    }
+                    e = e.next;
+                }
+                if (e == null) {
+                    return null;
+                }
+                // Readers may be walking this chain, so copy the entries
+                // in front of the removed one instead of unlinking it.
+                HashEntry newFirst = e.next;
+                for (HashEntry p = first; p != e; p = p.next) {
+                    newFirst = new HashEntry(p.key, p.hash, p.value, newFirst);
+                }
+                tab.set(index, newFirst);
+                --count;
+                return e.value;
+            } finally {
+                unlock();
+            }
+        }
+
+        // Must be called with the segment lock held.
+        void rehash() {
+            AtomicReferenceArray<HashEntry> oldTable = table;
+            final int newCapacity = oldTable.length() * 2;
+            final int mask = newCapacity - 1;
+            AtomicReferenceArray<HashEntry> newTable
+                = new AtomicReferenceArray<HashEntry>(newCapacity);
+            for (int i = oldTable.length(); i-- > 0;) {
+                HashEntry e = oldTable.get(i);
+                while (e != null) {
+                    final int index = e.hash & mask;
+                    newTable.set(index, new HashEntry(e.key, e.hash, e.value,
+                                                      newTable.get(index)));
+                    e = e.next;
+                }
+            }
+            threshold = (int) (newCapacity * loadFactor);
+            table = newTable;
+        }
+
+        void clear() {
+            lock();
+            try {
+                table = new AtomicReferenceArray<HashEntry>(table.length());
+                count = 0;
+            } finally {
+                unlock();
+            }
+        }
+    }
+}
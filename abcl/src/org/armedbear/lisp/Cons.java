@@ -545,7 +545,7 @@ public final class Cons extends LispObject implements java.io.Serializable
     int currentLevel = Fixnum.getValue(currentPrintLevel);
     if (currentLevel < maxLevel)
       {
-        final SpecialBindingsMark mark = thread.markSpecialBindings();
+        final int mark = thread.markSpecialBindings();
         thread.bindSpecial(_CURRENT_PRINT_LEVEL_, currentPrintLevel.incr());
         try
           {
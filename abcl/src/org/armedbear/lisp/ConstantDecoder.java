@@ -0,0 +1,294 @@
+/*
+ * ConstantDecoder.java
+ *
+ * Copyright (C) 2026 The ABCL Development Team
+ * $Id$
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+
+package org.armedbear.lisp;
+
+import static org.armedbear.lisp.Lisp.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+
+/** Restores constants of compiled classes from the binary encoding
+ * written by DUMP-CONSTANT (see dump-form.lisp), which must agree with
+ * the tags below.
+ *
+ * Small constants are stored as a string constant with one octet per
+ * character; larger ones in a resource of the compiled class.
+ */
+public final class ConstantDecoder
+{
+  static final int NIL_TAG = 0;
+  static final int LIST = 1;
+  static final int LABEL = 2;
+  static final int REFERENCE = 3;
+  static final int FIXNUM = 4;
+  static final int BIGNUM = 5;
+  static final int RATIO = 6;
+  static final int SINGLE_FLOAT = 7;
+  static final int DOUBLE_FLOAT = 8;
+  static final int COMPLEX = 9;
+  static final int CHARACTER = 10;
+  static final int STRING = 11;
+  static final int SYMBOL = 12;
+  static final int KEYWORD = 13;
+  static final int UNINTERNED_SYMBOL = 14;
+  static final int VECTOR = 15;
+  static final int BIT_VECTOR = 16;
+  static final int PACKAGE = 17;
+  static final int EVAL = 18;
+
+  private final String string;
+  private final byte[] bytes;
+  private int pos;
+  private LispObject[] labels = new LispObject[0];
+  private int pendingLabel = -1;
+
+  private ConstantDecoder(String string, byte[] bytes)
+  {
+    this.string = string;
+    this.bytes = bytes;
+  }
+
+  // Used by the compiler.
+  public static LispObject decode(String s)
+  {
+    return new ConstantDecoder(s, null).readObject();
+  }
+
+  // Used by the compiler.
+  public static LispObject decode(InputStream in)
+  {
+    try {
+      try {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) > 0)
+          out.write(buffer, 0, n);
+        return new ConstantDecoder(null, out.toByteArray()).readObject();
+      } finally {
+        in.close();
+      }
+    } catch (IOException e) {
+      return error(new LispError("Unable to read compiled constant: "
+                                 + e.getMessage()));
+    }
+  }
+
+  private int readOctet()
+  {
+    final int i = pos++;
+    return (string != null ? string.charAt(i) : bytes[i]) & 0xFF;
+  }
+
+  private int readVarint()
+  {
+    int result = 0;
+    int shift = 0;
+    int octet;
+    do {
+      octet = readOctet();
+      result |= (octet & 0x7F) << shift;
+      shift += 7;
+    } while ((octet & 0x80) != 0);
+    return result;
+  }
+
+  private int readInt32()
+  {
+    int result = 0;
+    for (int i = 0; i < 4; i++)
+      result = (result << 8) | readOctet();
+    return result;
+  }
+
+  private String readString()
+  {
+    final int length = readVarint();
+    final char[] chars = new char[length];
+    for (int i = 0; i < length; i++)
+      chars[i] = (char) readVarint();
+    return new String(chars);
+  }
+
+  private BigInteger readBigInteger()
+  {
+    final int tag = readOctet();
+    if (tag == FIXNUM)
+      return BigInteger.valueOf(readZigzag());
+    if (tag != BIGNUM)
+      error(new LispError("Invalid compiled constant (integer tag " + tag
+                          + ")."));
+    final byte[] b = new byte[readVarint()];
+    for (int i = 0; i < b.length; i++)
+      b[i] = (byte) readOctet();
+    return new BigInteger(b);
+  }
+
+  private int readZigzag()
+  {
+    final int v = readVarint();
+    return (v >>> 1) ^ -(v & 1);
+  }
+
+  /** Records OBJ under the label read just before it, if any. */
+  private LispObject define(LispObject obj)
+  {
+    if (pendingLabel >= 0)
+      {
+        if (pendingLabel >= labels.length)
+          {
+            LispObject[] newLabels = new LispObject[pendingLabel * 2 + 1];
+            System.arraycopy(labels, 0, newLabels, 0, labels.length);
+            labels = newLabels;
+          }
+        labels[pendingLabel] = obj;
+        pendingLabel = -1;
+      }
+    return obj;
+  }
+
+  private LispObject readObject()
+  {
+    final int tag = readOctet();
+    switch (tag)
+      {
+      case NIL_TAG:
+        return NIL;
+      case LIST:
+        {
+          // Allocate the conses first, so that circular references
+          // to the list from its elements can be resolved.
+          final int count = readVarint();
+          final Cons first = new Cons(NIL);
+          define(first);
+          Cons last = first;
+          for (int i = 1; i < count; i++)
+            {
+              Cons next = new Cons(NIL);
+              last.cdr = next;
+              last = next;
+            }
+          LispObject rest = first;
+          for (int i = 0; i < count; i++)
+            {
+              ((Cons)rest).car = readObject();
+              rest = rest.cdr();
+            }
+          last.cdr = readObject();
+          return first;
+        }
+      case LABEL:
+        pendingLabel = readVarint();
+        return readObject();
+      case REFERENCE:
+        return labels[readVarint()];
+      case FIXNUM:
+        return Fixnum.getInstance(readZigzag());
+      case BIGNUM:
+        pos--;
+        return number(readBigInteger());
+      case RATIO:
+        {
+          BigInteger numerator = readBigInteger();
+          return number(numerator, readBigInteger());
+        }
+      case SINGLE_FLOAT:
+        return new SingleFloat(Float.intBitsToFloat(readInt32()));
+      case DOUBLE_FLOAT:
+        {
+          long high = readInt32() & 0xFFFFFFFFL;
+          long low = readInt32() & 0xFFFFFFFFL;
+          return new DoubleFloat(Double.longBitsToDouble((high << 32) | low));
+        }
+      case COMPLEX:
+        {
+          LispObject realpart = readObject();
+          return Complex.getInstance(realpart, readObject());
+        }
+      case CHARACTER:
+        return LispCharacter.getInstance((char) readVarint());
+      case STRING:
+        return define(new SimpleString(readString()));
+      case SYMBOL:
+        {
+          String packageName = readString();
+          return internInPackage(readString(), packageName);
+        }
+      case KEYWORD:
+        return internKeyword(readString());
+      case UNINTERNED_SYMBOL:
+        return Load.getUninternedSymbol(readVarint());
+      case VECTOR:
+        {
+          final SimpleVector vector = new SimpleVector(readVarint());
+          define(vector);
+          for (int i = 0; i < vector.capacity; i++)
+            vector.data[i] = readObject();
+          return vector;
+        }
+      case BIT_VECTOR:
+        {
+          final int length = readVarint();
+          final SimpleBitVector vector = new SimpleBitVector(length);
+          for (int start = 0; start < length; start += 8)
+            {
+              final int octet = readOctet();
+              for (int i = start; i < length && i < start + 8; i++)
+                if ((octet & (1 << (i - start))) != 0)
+                  vector.setBit(i);
+            }
+          return define(vector);
+        }
+      case PACKAGE:
+        {
+          LispObject pkg = getCurrentPackage().findPackage(readString());
+          return pkg != null ? pkg : NIL;
+        }
+      case EVAL:
+        {
+          // Like #. in a FASL: the creation form of an instance.
+          final int label = pendingLabel;
+          pendingLabel = -1;
+          LispObject form = readObject();
+          pendingLabel = label;
+          return define(eval(form));
+        }
+      default:
+        return error(new LispError("Invalid compiled constant (tag "
+                                   + tag + ")."));
+      }
+  }
+}
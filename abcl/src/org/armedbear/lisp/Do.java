@@ -96,7 +96,7 @@ public final class Do {
             varlist = varlist.cdr();
         }
         final LispThread thread = LispThread.currentThread();
-        final SpecialBindingsMark mark = thread.markSpecialBindings();
+        final int mark = thread.markSpecialBindings();
         // Process declarations.
 
         final LispObject bodyAndDecls = parseBody(body, false);
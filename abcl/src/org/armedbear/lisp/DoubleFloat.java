@@ -212,7 +212,7 @@ public final class DoubleFloat extends LispObject
     {
         if (obj instanceof DoubleFloat) 
             return ((DoubleFloat)obj).value;
-            type_error(obj, Symbol.FLOAT);
+            type_error(obj, Symbol.DOUBLE_FLOAT);
             // Not reached.
             return 0;
     }
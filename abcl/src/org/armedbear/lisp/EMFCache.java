@@ -34,17 +34,26 @@ package org.armedbear.lisp;
 
 import static org.armedbear.lisp.Lisp.*;
 
-import java.util.concurrent.ConcurrentHashMap;
-
 public final class EMFCache extends LispObject
 {
-  ConcurrentHashMap<CacheEntry,LispObject> cache
-    = new ConcurrentHashMap<CacheEntry,LispObject>();;
+  /** The number of argument specialization tuples kept in insertion
+   * order and scanned linearly before switching to a hash table.
+   * Most generic function call sites see only this many.
+   */
+  static final int INLINE_ENTRIES = 4;
+
+  /** The cached effective method functions, replaced as a whole
+   * (copy on write) when an entry is added, so that lookups need
+   * neither locking nor allocation.  Null when the cache is empty.
+   */
+  private volatile Entries entries;
   EqlSpecialization eqlSpecializations[] = new EqlSpecialization[0];
 
-  void clearCache()
+  // Synchronized with put(), which would otherwise republish the entries
+  // it read before the cache was cleared.
+  synchronized void clearCache()
   {
-    cache = new ConcurrentHashMap<CacheEntry,LispObject>();
+    entries = null;
   }
 
   @Override
@@ -71,38 +80,243 @@ public final class EMFCache extends LispObject
     }
   }
 
-  private static class CacheEntry
+  /** An immutable set of cache entries.  Entry i has the specializations
+   * keys[i * width] up to keys[(i + 1) * width - 1].
+   *
+   * Up to INLINE_ENTRIES entries are stored in the first slots in
+   * insertion order.  Beyond that the slots form an open addressing
+   * table with linear probing, kept at most half full.
+   */
+  private static final class Entries
   {
-    final LispObject[] array;
+    final int width;
+    final int count;
+    final boolean hashed;
+    final LispObject[] keys;
+    final LispObject[] emfs;
+    final LispObject[] fastFunctions;
 
-    CacheEntry(LispObject[] array)
+    Entries(int width, int count, int capacity, boolean hashed)
     {
-      this.array = array;
+      this.width = width;
+      this.count = count;
+      this.hashed = hashed;
+      keys = new LispObject[capacity * width];
+      emfs = new LispObject[capacity];
+      fastFunctions = new LispObject[capacity];
     }
 
-    @Override
-    public int hashCode()
+    private static int hash(int h, LispObject specialization)
     {
-      int result = 0;
-      for (int i = array.length; i-- > 0;)
-        result ^= array[i].hashCode();
-      return result;
+      return h * 31 + System.identityHashCode(specialization);
     }
 
-    @Override
-    public boolean equals(Object object)
+    private int firstSlot(int h)
+    {
+      h ^= (h >>> 16);
+      return (h * 0x9E3779B9) & (emfs.length - 1);
+    }
+
+    int find(LispObject s0)
+    {
+      final LispObject[] k = keys;
+      if (!hashed) {
+        for (int i = 0; i < count; i++)
+          if (k[i] == s0)
+            return i;
+        return -1;
+      }
+      final int mask = emfs.length - 1;
+      for (int i = firstSlot(hash(0, s0)); emfs[i] != null; i = (i + 1) & mask)
+        if (k[i] == s0)
+          return i;
+      return -1;
+    }
+
+    int find(LispObject s0, LispObject s1)
+    {
+      final LispObject[] k = keys;
+      if (!hashed) {
+        for (int i = 0; i < count; i++)
+          if (k[2 * i] == s0 && k[2 * i + 1] == s1)
+            return i;
+        return -1;
+      }
+      final int mask = emfs.length - 1;
+      for (int i = firstSlot(hash(hash(0, s0), s1)); emfs[i] != null;
+           i = (i + 1) & mask)
+        if (k[2 * i] == s0 && k[2 * i + 1] == s1)
+          return i;
+      return -1;
+    }
+
+    int find(LispObject[] specializations)
+    {
+      if (!hashed) {
+        for (int i = 0; i < count; i++)
+          if (matches(i, specializations))
+            return i;
+        return -1;
+      }
+      final int mask = emfs.length - 1;
+      for (int i = firstSlot(hash(specializations)); emfs[i] != null;
+           i = (i + 1) & mask)
+        if (matches(i, specializations))
+          return i;
+      return -1;
+    }
+
+    private boolean matches(int slot, LispObject[] specializations)
     {
-      if (!(object instanceof CacheEntry))
-        return false;
-      final CacheEntry otherEntry = (CacheEntry) object;
-      if (otherEntry.array.length != array.length)
-        return false;
-      final LispObject[] otherArray = otherEntry.array;
-      for (int i = array.length; i-- > 0;)
-        if (array[i] != otherArray[i])
+      final int base = slot * width;
+      for (int j = width; j-- > 0;)
+        if (keys[base + j] != specializations[j])
           return false;
       return true;
     }
+
+    private static int hash(LispObject[] specializations)
+    {
+      int h = 0;
+      for (int j = 0; j < specializations.length; j++)
+        h = hash(h, specializations[j]);
+      return h;
+    }
+
+    private void store(int slot, LispObject[] specializations,
+                       LispObject emf, LispObject fastFunction)
+    {
+      System.arraycopy(specializations, 0, keys, slot * width, width);
+      emfs[slot] = emf;
+      fastFunctions[slot] = fastFunction;
+    }
+
+    private void insert(LispObject[] specializations,
+                        LispObject emf, LispObject fastFunction)
+    {
+      final int mask = emfs.length - 1;
+      int i = firstSlot(hash(specializations));
+      while (emfs[i] != null)
+        i = (i + 1) & mask;
+      store(i, specializations, emf, fastFunction);
+    }
+
+    /** Returns a copy of these entries with one more (or, if the
+     * specializations are already present, one replaced) entry.
+     */
+    Entries with(LispObject[] specializations,
+                 LispObject emf, LispObject fastFunction)
+    {
+      final int existing = find(specializations);
+      final int newCount = existing < 0 ? count + 1 : count;
+      final Entries result;
+      if (newCount <= INLINE_ENTRIES) {
+        result = new Entries(width, newCount, INLINE_ENTRIES, false);
+        System.arraycopy(keys, 0, result.keys, 0, count * width);
+        System.arraycopy(emfs, 0, result.emfs, 0, count);
+        System.arraycopy(fastFunctions, 0, result.fastFunctions, 0, count);
+        result.store(existing < 0 ? count : existing,
+                     specializations, emf, fastFunction);
+        return result;
+      }
+      int capacity = 16;
+      while (capacity < newCount * 2)
+        capacity <<= 1;
+      result = new Entries(width, newCount, capacity, true);
+      final LispObject[] entry = new LispObject[width];
+      for (int i = 0; i < emfs.length; i++) {
+        if (emfs[i] == null || i == existing)
+          continue;
+        System.arraycopy(keys, i * width, entry, 0, width);
+        result.insert(entry, emfs[i], fastFunctions[i]);
+      }
+      result.insert(specializations, emf, fastFunction);
+      return result;
+    }
+  }
+
+  private LispObject[] getArgSpecializations(LispObject args, int count)
+  {
+    LispObject[] array = new LispObject[count];
+    for (int i = 0; i < count; i++)
+      {
+        array[i] = getArgSpecialization(args.car());
+        args = args.cdr();
+      }
+    return array;
+  }
+
+  synchronized void put(LispObject[] specializations,
+                        LispObject emf, LispObject fastFunction)
+  {
+    Entries e = entries;
+    if (e == null || e.width != specializations.length)
+      e = new Entries(specializations.length, 0, 0, false);
+    entries = e.with(specializations, emf, fastFunction);
+  }
+
+  private static final Symbol SLOW_METHOD_LOOKUP
+    = PACKAGE_MOP.intern("SLOW-METHOD-LOOKUP");
+
+  /** The discriminating function of a standard generic function with
+   * one required and no other parameters.  A call which hits the cache
+   * allocates nothing when the effective method is a method's fast
+   * function.
+   */
+  private static final class Dispatcher1 extends Function
+  {
+    final FuncallableStandardObject gf;
+
+    Dispatcher1(FuncallableStandardObject gf)
+    {
+      this.gf = gf;
+    }
+
+    @Override
+    public LispObject execute(LispObject arg)
+    {
+      final EMFCache cache = gf.cache;
+      final Entries e = cache.entries;
+      if (e != null && e.width == 1) {
+        final int i = e.find(cache.getArgSpecialization(arg));
+        if (i >= 0) {
+          final LispObject fastFunction = e.fastFunctions[i];
+          if (fastFunction != null)
+            return fastFunction.execute(arg);
+          return e.emfs[i].execute(new Cons(arg));
+        }
+      }
+      return SLOW_METHOD_LOOKUP.execute(gf, new Cons(arg));
+    }
+  }
+
+  /** Like Dispatcher1, for two required parameters. */
+  private static final class Dispatcher2 extends Function
+  {
+    final FuncallableStandardObject gf;
+
+    Dispatcher2(FuncallableStandardObject gf)
+    {
+      this.gf = gf;
+    }
+
+    @Override
+    public LispObject execute(LispObject first, LispObject second)
+    {
+      final EMFCache cache = gf.cache;
+      final Entries e = cache.entries;
+      if (e != null && e.width == 2) {
+        final int i = e.find(cache.getArgSpecialization(first),
+                             cache.getArgSpecialization(second));
+        if (i >= 0) {
+          final LispObject fastFunction = e.fastFunctions[i];
+          if (fastFunction != null)
+            return fastFunction.execute(first, second);
+          return e.emfs[i].execute(list(first, second));
+        }
+      }
+      return SLOW_METHOD_LOOKUP.execute(gf, list(first, second));
+    }
   }
 
   private static final Primitive _MAKE_EMF_CACHE
@@ -150,31 +364,33 @@ public final class EMFCache extends LispObject
   private static final Primitive CACHE_EMF
     = new pf_cache_emf();
   @DocString(name="cache-emf",
-             args="generic-function args emf")
+             args="generic-function args emf &optional fast-function",
+             doc="Caches EMF as the effective method function of GENERIC-FUNCTION\n"
+               + "for arguments specialized like ARGS.  FAST-FUNCTION, if given, is a\n"
+               + "function of the required arguments themselves equivalent to EMF.")
   private static final class pf_cache_emf extends Primitive
   {
     pf_cache_emf()
     {
-      super("cache-emf", PACKAGE_SYS, true, "generic-function args emf");
+      super("cache-emf", PACKAGE_SYS, true,
+            "generic-function args emf &optional fast-function");
     }
     @Override
     public LispObject execute(LispObject first, LispObject second,
                               LispObject third)
+    {
+      return execute(first, second, third, NIL);
+    }
+    @Override
+    public LispObject execute(LispObject first, LispObject second,
+                              LispObject third, LispObject fourth)
     {
       final FuncallableStandardObject gf = checkStandardGenericFunction(first);
       EMFCache cache = gf.cache;
-      LispObject args = second;
       int numberOfRequiredArgs
         = gf.getInstanceSlotValue(Symbol.REQUIRED_ARGS).length();
-      LispObject[] array = new LispObject[numberOfRequiredArgs];
-      for (int i = numberOfRequiredArgs; i-- > 0;)
-        {
-          array[i] = cache.getArgSpecialization(args.car());
-          args = args.cdr();
-        }
-      CacheEntry specializations = new CacheEntry(array);
-      ConcurrentHashMap<CacheEntry,LispObject> ht = cache.cache;
-      ht.put(specializations, third);
+      cache.put(cache.getArgSpecializations(second, numberOfRequiredArgs),
+                third, fourth == NIL ? null : fourth);
       return third;
     }
   };
@@ -193,25 +409,47 @@ public final class EMFCache extends LispObject
     {
       final FuncallableStandardObject gf = checkStandardGenericFunction(first);
       EMFCache cache = gf.cache;
-      LispObject args = second;
-      int numberOfRequiredArgs
-        = gf.getInstanceSlotValue(Symbol.REQUIRED_ARGS).length();
-      LispObject[] array = new LispObject[numberOfRequiredArgs];
-      for (int i = numberOfRequiredArgs; i-- > 0;)
-        {
-          array[i] = cache.getArgSpecialization(args.car());
-          args = args.cdr();
-        }
-      CacheEntry specializations = new CacheEntry(array);
-      ConcurrentHashMap<CacheEntry,LispObject> ht = cache.cache;
-      LispObject emf = (LispObject) ht.get(specializations);
-      return emf != null ? emf : NIL;
+      final Entries e = cache.entries;
+      if (e == null)
+        return NIL;
+      final int i
+        = e.find(cache.getArgSpecializations(second, e.width));
+      return i >= 0 ? e.emfs[i] : NIL;
+    }
+  };
+
+  private static final Primitive _MAKE_EMF_DISPATCHER
+    = new pf__make_emf_dispatcher();
+  @DocString(name="%make-emf-dispatcher",
+             args="generic-function number-required",
+             doc="Returns a discriminating function for GENERIC-FUNCTION, which\n"
+               + "must have exactly NUMBER-REQUIRED parameters, all of them\n"
+               + "required, or NIL if there is none for that number.")
+  private static final class pf__make_emf_dispatcher extends Primitive
+  {
+    pf__make_emf_dispatcher()
+    {
+      super("%make-emf-dispatcher", PACKAGE_SYS, true,
+            "generic-function number-required");
+    }
+    @Override
+    public LispObject execute(LispObject first, LispObject second)
+    {
+      final FuncallableStandardObject gf = checkStandardGenericFunction(first);
+      switch (Fixnum.getValue(second)) {
+        case 1:
+          return new Dispatcher1(gf);
+        case 2:
+          return new Dispatcher2(gf);
+        default:
+          return NIL;
+      }
     }
   };
 
   /**
    * Returns an object representing generic function
-   * argument <tt>arg</tt> in a <tt>CacheEntry</tt>
+   * argument <tt>arg</tt> in a cache key
    *
    * <p>In the simplest case, when this generic function
    * does not have EQL specialized methods, and therefore
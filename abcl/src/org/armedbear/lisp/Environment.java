@@ -99,6 +99,23 @@ public final class Environment extends LispObject
     return true;
   }
 
+  /** Returns true if a macro expanded in this environment may see one
+   * of its bindings through its &environment argument: a local function
+   * or macro, a symbol macro, or a variable shadowing a global symbol
+   * macro.
+   */
+  boolean hasMacroBindings()
+  {
+    if (lastFunctionBinding != null)
+      return true;
+    for (Binding binding = vars; binding != null; binding = binding.next)
+      if (binding.value instanceof SymbolMacro
+          || (binding.symbol instanceof Symbol
+              && get(binding.symbol, Symbol.SYMBOL_MACRO, null) != null))
+        return true;
+    return false;
+  }
+
   public void bind(Symbol symbol, LispObject value)
   {
     vars = new Binding(symbol, value, vars);
@@ -244,7 +261,7 @@ public final class Environment extends LispObject
   {
     Binding binding = getBinding(var);
     return (binding != null) ? binding.specialp :
-        (LispThread.currentThread().getSpecialBinding(var) != null);
+        LispThread.currentThread().hasSpecialBinding(var);
   }
 
   @Override
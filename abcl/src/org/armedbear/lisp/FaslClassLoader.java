@@ -41,11 +41,51 @@ public class FaslClassLoader extends JavaClassLoader {
 
     private final String baseName;
     private final JavaObject boxedThis = new JavaObject(this);
+    private final BootSnapshot.Entry bootEntry = BootSnapshot.current();
+    private final boolean systemFasl = isSystemFasl();
+
+    /** True when the classes of the system FASLs were also packed as
+     *  ordinary class files (see the 'abcl.cds.jar' Ant target), so
+     *  that the application class loader, and with it the JVM's class
+     *  data sharing archive, can provide them. */
+    static final boolean systemClassesArchived
+        = Lisp.class.getResource("system-classes") != null;
 
     public FaslClassLoader(String baseName) {
         this.baseName = baseName;
     }
 
+    private static boolean isSystemFasl() {
+        LispObject home = Site.getLispHome();
+        LispObject truename = Symbol.LOAD_TRUENAME.symbolValue();
+        if (!(home instanceof Pathname) || !(truename instanceof Pathname)) {
+            return false;
+        }
+        String homeNamestring = ((Pathname)home).getNamestring();
+        String namestring = ((Pathname)truename).getNamestring();
+        return homeNamestring != null && namestring != null
+            && namestring.startsWith(homeNamestring);
+    }
+
+    /** Whether to look for NAME among the precompiled classes.
+     *
+     *  With an archived system class jar, a user FASL which happens
+     *  to share its base name with a system file must not pick up
+     *  the system's classes, so only system FASLs look there.
+     *  Classes restored from a boot snapshot were defined from FASL
+     *  bytes when the snapshot was written, so they are not looked
+     *  for at all. */
+    private boolean probePrecompiled(String name) {
+        return checkPreCompiledClassLoader
+            && (systemFasl || !systemClassesArchived)
+            && !inBootSnapshot(name);
+    }
+
+    @Override
+    public Class<?> loadClass(String name) throws ClassNotFoundException {
+        return loadClass(name, false);
+    }
+
     @Override
     protected Class<?> loadClass(String name, boolean resolve)
             throws ClassNotFoundException {
@@ -63,7 +103,7 @@ public class FaslClassLoader extends JavaClassLoader {
             if (!internalName.contains("/")) internalName = "org/armedbear/lisp/" + internalName;
             Class<?> c = this.findLoadedClass(internalName);
 
-            if (c == null && checkPreCompiledClassLoader) {
+            if (c == null && probePrecompiled(name)) {
             	c = findPrecompiledClassOrNull(name);
             	// Oh, we have to return here so we don't become the owning class loader?
             	if (c != null)
@@ -87,12 +127,15 @@ public class FaslClassLoader extends JavaClassLoader {
     @Override
     protected Class<?> findClass(String name) throws ClassNotFoundException {
         try {
-            if (checkPreCompiledClassLoader) {
+            if (probePrecompiled(name)) {
             	Class<?> c = findPrecompiledClassOrNull(name);
             	if (c != null)
             		return c;                	
             }
             byte[] b = getFunctionClassBytes(name);
+            if (bootEntry != null) {
+                bootEntry.noteClass(name, b);
+            }
             return defineLispClass(name, b, 0, b.length);
         } catch(Throwable e) { //TODO handle this better, readFunctionBytes uses Debug.assert() but should return null
             e.printStackTrace();
@@ -101,6 +144,21 @@ public class FaslClassLoader extends JavaClassLoader {
         }
     }
 
+    private boolean inBootSnapshot(String name) {
+        return bootEntry != null && bootEntry.getClassBytes(name) != null;
+    }
+
+    @Override
+    public byte[] getFunctionClassBytes(String name) {
+        if (bootEntry != null) {
+            byte[] b = bootEntry.getClassBytes(name);
+            if (b != null) {
+                return b;
+            }
+        }
+        return super.getFunctionClassBytes(name);
+    }
+
     @Override
     public InputStream getResourceAsStream(String resourceName) {
       final LispThread thread = LispThread.currentThread();
@@ -166,4 +224,20 @@ public class FaslClassLoader extends JavaClassLoader {
         }
     };
 
+    private static final Primitive GET_LAZY_FASL_FUNCTION = new pf_get_lazy_fasl_function();
+    private static final class pf_get_lazy_fasl_function extends Primitive {
+        pf_get_lazy_fasl_function() {
+            super("get-lazy-fasl-function", PACKAGE_SYS, false, "loader function-number");
+        }
+
+        @Override
+        public LispObject execute(LispObject loader, LispObject fnNumber) {
+            FaslClassLoader l = (FaslClassLoader) loader.javaInstance(FaslClassLoader.class);
+            if (Load._LAZY_FASL_FUNCTIONS_.symbolValue() == NIL) {
+                return l.loadFunction(fnNumber.intValue());
+            }
+            return new LazyFaslFunction(l, fnNumber.intValue());
+        }
+    };
+
 }
\ No newline at end of file
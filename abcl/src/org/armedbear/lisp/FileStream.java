@@ -56,6 +56,20 @@ public final class FileStream extends Stream
                       LispObject elementType, LispObject direction,
                       LispObject ifExists, LispObject format)
         throws IOException
+    {
+        this(pathname, namestring, elementType, direction, ifExists, format,
+             false, RandomAccessCharacterFile.BUFSIZ);
+    }
+
+    /** Opens a file stream which reads through a memory mapping of
+     * the file when 'mapped' is true; only :INPUT streams can be mapped.
+     * Other streams are buffered by 'bufferSize' bytes.
+     */
+    public FileStream(Pathname pathname, String namestring,
+                      LispObject elementType, LispObject direction,
+                      LispObject ifExists, LispObject format, boolean mapped,
+                      int bufferSize)
+        throws IOException
     {
         /* externalFormat is a LispObject of which the first char is a
          * name of a character encoding (such as :UTF-8 or :ISO-8859-1), used
@@ -104,7 +118,7 @@ public final class FileStream extends Stream
         
 	// don't touch raf directly after passing it to racf.
 	// the state will become inconsistent if you do that.
-        racf = new RandomAccessCharacterFile(raf, encoding);
+        racf = new RandomAccessCharacterFile(raf, encoding, mapped, bufferSize);
 
         this.pathname = pathname;
         this.elementType = elementType;
@@ -239,7 +253,7 @@ public final class FileStream extends Stream
             else if (arg == Keyword.END)
                 pos = racf.length();
             else {
-                long n = Fixnum.getValue(arg); // FIXME arg might be a bignum
+                long n = arg.longValue();
                 pos = n * bytesPerUnit;
             }
             racf.position(pos);
@@ -268,16 +282,38 @@ public final class FileStream extends Stream
         return unreadableString("FILE-STREAM");
     }
 
-    // ### make-file-stream pathname namestring element-type direction if-exists external-format => stream
+    // ### make-file-stream pathname namestring element-type direction if-exists external-format &optional mapped buffer-size => stream
     private static final Primitive MAKE_FILE_STREAM =
         new Primitive("make-file-stream", PACKAGE_SYS, true,
-                      "pathname namestring element-type direction if-exists external-format")
+                      "pathname namestring element-type direction if-exists external-format &optional mapped buffer-size")
     {
         @Override
         public LispObject execute(LispObject first, LispObject second,
                                   LispObject third, LispObject fourth,
                                   LispObject fifth, LispObject sixth)
 
+        {
+            return execute(first, second, third, fourth, fifth, sixth, NIL,
+                           NIL);
+        }
+
+        @Override
+        public LispObject execute(LispObject first, LispObject second,
+                                  LispObject third, LispObject fourth,
+                                  LispObject fifth, LispObject sixth,
+                                  LispObject seventh)
+
+        {
+            return execute(first, second, third, fourth, fifth, sixth,
+                           seventh, NIL);
+        }
+
+        @Override
+        public LispObject execute(LispObject first, LispObject second,
+                                  LispObject third, LispObject fourth,
+                                  LispObject fifth, LispObject sixth,
+                                  LispObject seventh, LispObject eighth)
+
         {
             final Pathname pathname;
             if (first instanceof Pathname) {
@@ -291,6 +327,13 @@ public final class FileStream extends Stream
             LispObject direction = fourth;
             LispObject ifExists = fifth;
             LispObject externalFormat = sixth;
+            boolean mapped = seventh != NIL;
+            int bufferSize = RandomAccessCharacterFile.BUFSIZ;
+            if (eighth != NIL) {
+                bufferSize = Fixnum.getValue(eighth);
+                if (bufferSize <= 0)
+                    return type_error(eighth, list(Symbol.INTEGER, Fixnum.ONE));
+            }
             
             if (direction != Keyword.INPUT && direction != Keyword.OUTPUT &&
                 direction != Keyword.IO)
@@ -319,10 +362,13 @@ public final class FileStream extends Stream
                     return error(new StreamError(null, e));
                 }
             } else {
+                if (mapped && direction != Keyword.INPUT) {
+                    error(new FileError("Only direction :INPUT is supported for mapped files.", pathname));
+                }
                 try {
                     return new FileStream(pathname, namestring.getStringValue(),
                                           elementType, direction, ifExists,
-                                          externalFormat);
+                                          externalFormat, mapped, bufferSize);
                 }
                 catch (FileNotFoundException e) {
                     return NIL;
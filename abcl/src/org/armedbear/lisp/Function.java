@@ -198,7 +198,7 @@ public abstract class Function extends Operator
 	    ClassLoader c = getClass().getClassLoader();
 	    if(c instanceof FaslClassLoader) {
 		final LispThread thread = LispThread.currentThread(); 
-		SpecialBindingsMark mark = thread.markSpecialBindings(); 
+		int mark = thread.markSpecialBindings(); 
 		try { 
 		    thread.bindSpecial(Symbol.LOAD_TRUENAME, loadedFrom); 
 		    return new JavaObject(((FaslClassLoader) c).getFunctionClassBytes(this));
@@ -328,7 +328,7 @@ public abstract class Function extends Operator
                 sb.append("()");
             } else {
                 final LispThread thread = LispThread.currentThread();
-                final SpecialBindingsMark mark = thread.markSpecialBindings();
+                final int mark = thread.markSpecialBindings();
                 thread.bindSpecial(Symbol.PRINT_LENGTH, Fixnum.THREE);
                 try {
                     sb.append(lambdaList.printObject());
@@ -0,0 +1,204 @@
+/*
+ * Future.java
+ *
+ * Copyright (C) 2026 The ABCL Development Team
+ * $Id$
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.armedbear.lisp;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import static org.armedbear.lisp.Lisp.*;
+
+/** The eventual values of a function passed to THREADS:SUBMIT. */
+public final class Future extends LispObject
+{
+    // The task returns the result of THREADS::FUTURE-FUNCTION-WRAPPER:
+    // (T . values) on normal return, or (NIL . condition) when the
+    // function signalled an error.
+    final ForkJoinTask<LispObject> task;
+
+    Future(ForkJoinTask<LispObject> task)
+    {
+        this.task = task;
+    }
+
+    @Override
+    public LispObject typeOf()
+    {
+        return Symbol.FUTURE;
+    }
+
+    @Override
+    public LispObject classOf()
+    {
+        return BuiltInClass.FUTURE;
+    }
+
+    @Override
+    public LispObject typep(LispObject typeSpecifier)
+    {
+        if (typeSpecifier == Symbol.FUTURE)
+            return T;
+        if (typeSpecifier == BuiltInClass.FUTURE)
+            return T;
+        return super.typep(typeSpecifier);
+    }
+
+    @Override
+    public String printObject()
+    {
+        return unreadableString(task.isDone() ? "FUTURE done" : "FUTURE");
+    }
+
+    static Future checkFuture(LispObject obj)
+    {
+        if (obj instanceof Future)
+            return (Future) obj;
+        type_error(obj, Symbol.FUTURE);
+        // Not reached.
+        return null;
+    }
+
+    // Waits for the task to finish, processing thread interrupts while
+    // waiting.  Returns null if the task didn't finish within NANOS
+    // nanoseconds; a negative NANOS waits indefinitely.
+    private LispObject await(long nanos)
+    {
+        final long deadline = System.nanoTime() + nanos;
+        while (true) {
+            try {
+                if (nanos < 0)
+                    return task.get();
+                return task.get(nanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                LispThread.currentThread().processThreadInterrupts();
+            } catch (TimeoutException e) {
+                return null;
+            } catch (CancellationException e) {
+                return error(new LispError("The future " + princToString()
+                                           + " was cancelled."));
+            } catch (ExecutionException e) {
+                return error(new JavaException(e.getCause()));
+            }
+            if (nanos >= 0)
+                nanos = Math.max(0, deadline - System.nanoTime());
+        }
+    }
+
+    LispObject value(long nanos, LispObject timeoutValue)
+    {
+        final LispObject result = await(nanos);
+        if (result == null)
+            return timeoutValue;
+        if (result.car() == NIL)
+            return error(result.cdr());
+        return LispThread.currentThread().setValues(result.cdr().copyToArray());
+    }
+
+    private static final Primitive FUTURE_P = new pf_future_p();
+    @DocString(name="future-p", args="object",
+    doc="Returns T if OBJECT is a future, NIL otherwise.")
+    private static final class pf_future_p extends Primitive {
+        pf_future_p() {
+            super("future-p", PACKAGE_THREADS, true, "object");
+        }
+
+        @Override
+        public LispObject execute(LispObject arg) {
+            return arg instanceof Future ? T : NIL;
+        }
+    };
+
+    private static final Primitive FUTURE_VALUE = new pf_future_value();
+    @DocString(name="future-value", args="future &optional timeout timeout-value",
+    doc="Waits for the function of FUTURE to return and returns its values.\n"
+      + "If the function signalled an error, signals that error in the\n"
+      + "calling thread instead.\n"
+      + "When TIMEOUT is given, waits at most TIMEOUT seconds, returning\n"
+      + "TIMEOUT-VALUE if the function hasn't returned by then.")
+    private static final class pf_future_value extends Primitive {
+        pf_future_value() {
+            super("future-value", PACKAGE_THREADS, true,
+                  "future &optional timeout timeout-value");
+        }
+
+        @Override
+        public LispObject execute(LispObject future) {
+            return checkFuture(future).value(-1, NIL);
+        }
+
+        @Override
+        public LispObject execute(LispObject future, LispObject timeout) {
+            return execute(future, timeout, NIL);
+        }
+
+        @Override
+        public LispObject execute(LispObject future, LispObject timeout,
+                                  LispObject timeoutValue) {
+            final Future f = checkFuture(future);
+            if (timeout == NIL)
+                return f.value(-1, timeoutValue);
+            return f.value(LispThread.timeoutNanos(timeout), timeoutValue);
+        }
+    };
+
+    private static final Primitive FUTURE_DONE_P = new pf_future_done_p();
+    @DocString(name="future-done-p", args="future",
+    doc="Returns T if the function of FUTURE has returned, signalled an\n"
+      + "error or been cancelled, NIL otherwise.")
+    private static final class pf_future_done_p extends Primitive {
+        pf_future_done_p() {
+            super("future-done-p", PACKAGE_THREADS, true, "future");
+        }
+
+        @Override
+        public LispObject execute(LispObject future) {
+            return checkFuture(future).task.isDone() ? T : NIL;
+        }
+    };
+
+    private static final Primitive FUTURE_CANCEL = new pf_future_cancel();
+    @DocString(name="future-cancel", args="future",
+    doc="Prevents the function of FUTURE from running if it hasn't started\n"
+      + "yet.  Returns T if it was cancelled, NIL otherwise.")
+    private static final class pf_future_cancel extends Primitive {
+        pf_future_cancel() {
+            super("future-cancel", PACKAGE_THREADS, true, "future");
+        }
+
+        @Override
+        public LispObject execute(LispObject future) {
+            return checkFuture(future).task.cancel(false) ? T : NIL;
+        }
+    };
+}
@@ -53,7 +53,7 @@ public class HashTable
     // The number of key-value pairs.
     protected volatile int count;
     final Comparator comparator;
-    final private ReentrantLock lock = new ReentrantLock();
+    final protected ReentrantLock lock = new ReentrantLock();
 
     protected HashTable(Comparator c, int size, LispObject rehashSize,
             LispObject rehashThreshold) {
@@ -136,7 +136,7 @@ public class HashTable
         }
         if (obj instanceof HashTable) {
             HashTable ht = (HashTable) obj;
-            if (count != ht.count) {
+            if (getCount() != ht.getCount()) {
                 return false;
             }
             if (getTest() != ht.getTest()) {
@@ -234,14 +234,15 @@ public class HashTable
         sb.append(' ');
         sb.append(Symbol.HASH_TABLE.princToString());
         sb.append(' ');
-        sb.append(count);
-        if (count == 1) {
+        final int n = getCount();
+        sb.append(n);
+        if (n == 1) {
             sb.append(" entry");
         } else {
             sb.append(" entries");
         }
         sb.append(", ");
-        sb.append(buckets.length);
+        sb.append(getSize());
         sb.append(" buckets");
         return unreadableString(sb.toString());
     }
@@ -464,7 +465,7 @@ public class HashTable
     @Override
     public int psxhash() {
         long result = 2062775257; // Chosen at random.
-        result = mix(result, count);
+        result = mix(result, getCount());
         result = mix(result, getTest().sxhash());
         return (int) (result & 0x7fffffff);
     }
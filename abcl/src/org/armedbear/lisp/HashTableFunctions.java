@@ -61,9 +61,11 @@ public final class HashTableFunctions
       {
         final int n = Fixnum.getValue(size);
         if (test == FUNCTION_EQL || test == NIL)
-          return HashTable.newEqlHashTable(n, rehashSize, rehashThreshold);
+          return OpenAddressingHashTable.newEqlHashTable(n, rehashSize,
+                                                         rehashThreshold);
         if (test == FUNCTION_EQ)
-          return HashTable.newEqHashTable(n, rehashSize, rehashThreshold);
+          return OpenAddressingHashTable.newEqHashTable(n, rehashSize,
+                                                        rehashThreshold);
         if (test == FUNCTION_EQUAL)
           return HashTable.newEqualHashTable(n, rehashSize, rehashThreshold);
         if (test == FUNCTION_EQUALP)
@@ -71,6 +73,31 @@ public final class HashTableFunctions
         return error(new LispError("Unsupported test for MAKE-HASH-TABLE: " +
                                     test.princToString()));
       }
+
+      @Override
+      public LispObject execute(LispObject test, LispObject size,
+                                LispObject rehashSize,
+                                LispObject rehashThreshold,
+                                LispObject synchronizedp)
+      {
+        if (synchronizedp != Keyword.CONCURRENT)
+          return execute(test, size, rehashSize, rehashThreshold);
+        final int n = Fixnum.getValue(size);
+        if (test == FUNCTION_EQL || test == NIL)
+          return ConcurrentHashTable.newEqlHashTable(n, rehashSize,
+                                                     rehashThreshold);
+        if (test == FUNCTION_EQ)
+          return ConcurrentHashTable.newEqHashTable(n, rehashSize,
+                                                    rehashThreshold);
+        if (test == FUNCTION_EQUAL)
+          return ConcurrentHashTable.newEqualHashTable(n, rehashSize,
+                                                       rehashThreshold);
+        if (test == FUNCTION_EQUALP)
+          return ConcurrentHashTable.newEqualpHashTable(n, rehashSize,
+                                                        rehashThreshold);
+        return error(new LispError("Unsupported test for MAKE-HASH-TABLE: " +
+                                    test.princToString()));
+      }
     };
 
 
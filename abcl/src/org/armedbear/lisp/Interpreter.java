@@ -69,7 +69,12 @@ public final class Interpreter
             return null;
         interpreter = new Interpreter();
         _NOINFORM_.setSymbolValue(T);
-        initializeLisp();
+        BootSnapshot.begin();
+        try {
+            initializeLisp();
+        } finally {
+            BootSnapshot.end();
+        }
         return interpreter;
     }
 
@@ -99,10 +104,15 @@ public final class Interpreter
             getStandardOutput()._writeString("Low-level initialization completed in " +
                                              uptime + " seconds.\n");
         }
-        initializeLisp();
-        initializeTopLevel();
-        if (!nosystem) 
-            initializeSystem();
+        BootSnapshot.begin();
+        try {
+            initializeLisp();
+            initializeTopLevel();
+            if (!nosystem) 
+                initializeSystem();
+        } finally {
+            BootSnapshot.end();
+        }
         if (!noinit)
             processInitializationFile();
         doubledash = false;
@@ -127,9 +137,14 @@ public final class Interpreter
         stdout._writeString(banner());
         stdout._finishOutput();
 
-        initializeJLisp();
-        initializeTopLevel();
-        initializeSystem();
+        BootSnapshot.begin();
+        try {
+            initializeJLisp();
+            initializeTopLevel();
+            initializeSystem();
+        } finally {
+            BootSnapshot.end();
+        }
         processInitializationFile();
         return interpreter;
     }
@@ -513,7 +528,7 @@ public final class Interpreter
         public String getMessage() {
             String conditionText;
             LispThread thread = LispThread.currentThread();
-            SpecialBindingsMark mark = thread.markSpecialBindings();
+            int mark = thread.markSpecialBindings();
             thread.bindSpecial(Symbol.PRINT_ESCAPE, NIL);
             try {
                 conditionText = getCondition().princToString();
@@ -538,7 +553,7 @@ public final class Interpreter
             final LispObject condition = first;
             if (interpreter == null) {
                 final LispThread thread = LispThread.currentThread();
-                final SpecialBindingsMark mark = thread.markSpecialBindings();
+                final int mark = thread.markSpecialBindings();
                 thread.bindSpecial(Symbol.PRINT_ESCAPE, NIL);
                 try {
                     final LispObject truename =
@@ -597,7 +612,7 @@ public final class Interpreter
         final LispThread thread = LispThread.currentThread();
         LispObject obj = null;
 
-        final SpecialBindingsMark mark0 = thread.markSpecialBindings();
+        final int mark0 = thread.markSpecialBindings();
         thread.bindSpecial(Symbol.DEBUGGER_HOOK, _DEBUGGER_HOOK_FUNCTION);
         try {  // catch possible errors from use of SHARPSIGN_DOT macros in --eval stanzas
           obj = stream.read(false, EOF, false, thread,
@@ -608,7 +623,7 @@ public final class Interpreter
         if (obj == EOF)
             return error(new EndOfFile(stream));
 
-        final SpecialBindingsMark mark = thread.markSpecialBindings();
+        final int mark = thread.markSpecialBindings();
         thread.bindSpecial(Symbol.DEBUGGER_HOOK, _DEBUGGER_HOOK_FUNCTION);
         try {
             return Lisp.eval(obj, new Environment(), thread);
@@ -48,6 +48,7 @@ public final class Keyword
         ARMEDBEAR           = internKeyword("ARMEDBEAR"),
         BACK                = internKeyword("BACK"),
         BOOLEAN             = internKeyword("BOOLEAN"),
+        CAPACITY            = internKeyword("CAPACITY"),
         CAPITALIZE          = internKeyword("CAPITALIZE"),
         CAPITALIZE_FIRST    = internKeyword("CAPITALIZE-FIRST"),
         CASE                = internKeyword("CASE"),
@@ -56,6 +57,7 @@ public final class Keyword
         COMMON              = internKeyword("COMMON"),
         COMMON_LISP         = internKeyword("COMMON-LISP"),
         COMPILE_TOPLEVEL    = internKeyword("COMPILE-TOPLEVEL"),
+        CONCURRENT          = internKeyword("CONCURRENT"),
         COUNT_ONLY          = internKeyword("COUNT-ONLY"),
         CREATE              = internKeyword("CREATE"),
         DARWIN              = internKeyword("DARWIN"),
@@ -75,6 +77,7 @@ public final class Keyword
         EXPECTED_TYPE       = internKeyword("EXPECTED-TYPE"),
         EXTERNAL            = internKeyword("EXTERNAL"),
         EXTERNAL_FORMAT     = internKeyword("EXTERNAL-FORMAT"),
+        FAIR                = internKeyword("FAIR"),
         FILL_POINTER        = internKeyword("FILL-POINTER"),
         FORMAT_ARGUMENTS    = internKeyword("FORMAT-ARGUMENTS"),
         FORMAT_CONTROL      = internKeyword("FORMAT-CONTROL"),
@@ -121,6 +124,7 @@ public final class Keyword
         OVERWRITE           = internKeyword("OVERWRITE"),
         PACKAGE             = internKeyword("PACKAGE"),
         PATHNAME            = internKeyword("PATHNAME"),
+        POOL                = internKeyword("POOL"),
         PROBE               = internKeyword("PROBE"),
         PUBLIC              = internKeyword("PUBLIC"),
         PRESERVE            = internKeyword("PRESERVE"),
@@ -149,6 +153,7 @@ public final class Keyword
         USE                 = internKeyword("USE"),
         VALUE               = internKeyword("VALUE"),
         VERSION             = internKeyword("VERSION"),
+        VIRTUAL             = internKeyword("VIRTUAL"),
         WILD                = internKeyword("WILD"),
         WILD_INFERIORS      = internKeyword("WILD-INFERIORS"),
         WINDOWS             = internKeyword("WINDOWS"),
@@ -0,0 +1,198 @@
+/*
+ * LazyFaslFunction.java
+ *
+ * Copyright (C) 2026 The ABCL Development Team
+ * $Id$
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.armedbear.lisp;
+
+import static org.armedbear.lisp.Lisp.*;
+
+/** The stub installed by a top-level DEFUN in a FASL loaded while
+ * SYS:*LAZY-FASL-FUNCTIONS* is true.  The function's class is only
+ * defined, linked and instantiated on its first call, after which
+ * the stub replaces itself with the real function.
+ *
+ * Class initialization reads *LOAD-TRUENAME* and the uninterned
+ * symbols of the FASL, so the stub keeps the values they had when
+ * the FASL was loaded.
+ */
+public final class LazyFaslFunction extends Function
+{
+    private final FaslClassLoader loader;
+    private final int number;
+    private final LispObject loadTruename;
+    private final LispObject loadTruenameFasl;
+    private final LispObject uninternedSymbols;
+    private final LispObject pkg;
+
+    private volatile LispObject function;
+
+    LazyFaslFunction(FaslClassLoader loader, int number)
+    {
+        this.loader = loader;
+        this.number = number;
+        final LispThread thread = LispThread.currentThread();
+        loadTruename = Symbol.LOAD_TRUENAME.symbolValue(thread);
+        loadTruenameFasl = Symbol.LOAD_TRUENAME_FASL.symbolValue(thread);
+        uninternedSymbols = Load._FASL_UNINTERNED_SYMBOLS_.symbolValue(thread);
+        pkg = Symbol._PACKAGE_.symbolValue(thread);
+    }
+
+    final LispObject realFunction()
+    {
+        LispObject f = function;
+        if (f != null)
+            return f;
+        synchronized (this) {
+            if (function != null)
+                return function;
+            final LispThread thread = LispThread.currentThread();
+            final int mark = thread.markSpecialBindings();
+            try {
+                thread.bindSpecial(Symbol.LOAD_TRUENAME, loadTruename);
+                thread.bindSpecial(Symbol.LOAD_TRUENAME_FASL, loadTruenameFasl);
+                thread.bindSpecial(Load._FASL_UNINTERNED_SYMBOLS_,
+                                   uninternedSymbols);
+                thread.bindSpecial(Symbol._PACKAGE_, pkg);
+                f = loader.loadFunction(number);
+            }
+            finally {
+                thread.resetSpecialBindings(mark);
+            }
+            if (f instanceof Operator) {
+                Operator op = (Operator) f;
+                op.setLambdaName(getLambdaName());
+                op.setLambdaList(getLambdaList());
+                for (LispObject plist = getPropertyList(); plist != NIL;
+                     plist = plist.cddr())
+                    op.setPropertyList(putf(op.getPropertyList(),
+                                            plist.car(), plist.cadr()));
+                LispObject doc = getDocumentation(Symbol.FUNCTION);
+                if (doc != NIL)
+                    op.setDocumentation(Symbol.FUNCTION, doc);
+            }
+            // Unless the name has been redefined in the meantime, later
+            // calls go to the real function directly.
+            LispObject name = getLambdaName();
+            if (name instanceof Symbol) {
+                Symbol symbol = (Symbol) name;
+                if (symbol.getSymbolFunction() == this)
+                    symbol.setSymbolFunction(f);
+            } else if (isValidSetfFunctionName(name)) {
+                Symbol symbol = checkSymbol(name.cadr());
+                if (get(symbol, Symbol.SETF_FUNCTION, NIL) == this)
+                    put(symbol, Symbol.SETF_FUNCTION, f);
+            }
+            function = f;
+            return f;
+        }
+    }
+
+    @Override
+    public LispObject execute()
+    {
+        return realFunction().execute();
+    }
+
+    @Override
+    public LispObject execute(LispObject arg)
+    {
+        return realFunction().execute(arg);
+    }
+
+    @Override
+    public LispObject execute(LispObject first, LispObject second)
+
+    {
+        return realFunction().execute(first, second);
+    }
+
+    @Override
+    public LispObject execute(LispObject first, LispObject second,
+                              LispObject third)
+
+    {
+        return realFunction().execute(first, second, third);
+    }
+
+    @Override
+    public LispObject execute(LispObject first, LispObject second,
+                              LispObject third, LispObject fourth)
+
+    {
+        return realFunction().execute(first, second, third, fourth);
+    }
+
+    @Override
+    public LispObject execute(LispObject first, LispObject second,
+                              LispObject third, LispObject fourth,
+                              LispObject fifth)
+
+    {
+        return realFunction().execute(first, second, third, fourth, fifth);
+    }
+
+    @Override
+    public LispObject execute(LispObject first, LispObject second,
+                              LispObject third, LispObject fourth,
+                              LispObject fifth, LispObject sixth)
+
+    {
+        return realFunction().execute(first, second, third, fourth, fifth, sixth);
+    }
+
+    @Override
+    public LispObject execute(LispObject first, LispObject second,
+                              LispObject third, LispObject fourth,
+                              LispObject fifth, LispObject sixth,
+                              LispObject seventh)
+
+    {
+        return realFunction().execute(first, second, third, fourth, fifth, sixth,
+                                 seventh);
+    }
+
+    @Override
+    public LispObject execute(LispObject first, LispObject second,
+                              LispObject third, LispObject fourth,
+                              LispObject fifth, LispObject sixth,
+                              LispObject seventh, LispObject eighth)
+
+    {
+        return realFunction().execute(first, second, third, fourth, fifth, sixth,
+                                 seventh, eighth);
+    }
+
+    @Override
+    public LispObject execute(LispObject[] args)
+    {
+        return realFunction().execute(args);
+    }
+}
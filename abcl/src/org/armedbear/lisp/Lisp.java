@@ -39,11 +39,13 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.StringReader;
+import java.lang.ref.SoftReference;
 import java.math.BigInteger;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.util.Hashtable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.WeakHashMap;
 
 abstract public class Lisp extends ABCLStatic
@@ -278,6 +280,74 @@ abstract public class Lisp extends ABCLStatic
     return thread.setValues(form, NIL);
   }
 
+  /** Bumped whenever a function, macro, symbol macro or setf expander
+   * is (re)defined, which invalidates every cached macroexpansion: an
+   * expander may consult any of them while expanding.
+   */
+  static final AtomicInteger macroexpansionGeneration = new AtomicInteger();
+
+  private static final class CachedExpansion
+  {
+    final LispObject expander;
+    final int generation;
+    // The expansion usually shares structure with the form it is keyed
+    // on, so holding it strongly would keep the key of the weak map
+    // reachable forever.
+    final SoftReference<LispObject> expansion;
+
+    CachedExpansion(LispObject expander, int generation, LispObject expansion)
+    {
+      this.expander = expander;
+      this.generation = generation;
+      this.expansion = new SoftReference<LispObject>(expansion);
+    }
+  }
+
+  // Keyed on the identity of the macro form: neither Cons nor LispObject
+  // override equals() and hashCode().
+  private static final WeakHashMap<LispObject, CachedExpansion>
+    macroexpansionCache = new WeakHashMap<LispObject, CachedExpansion>();
+
+  /** Expands the macro form 'form', whose operator names 'macro' in 'env',
+   * once, reusing the expansion from an earlier evaluation of the same
+   * form object when no definition has changed since.
+   *
+   * The expander is called as usual when *MACROEXPAND-HOOK* isn't the
+   * default or when 'env' has bindings the expander may look at through
+   * its &environment argument; ordinary variable bindings don't count.
+   */
+  static final LispObject cachedMacroexpand_1(LispObject form,
+                                              MacroObject macro,
+                                              Environment env,
+                                              LispThread thread)
+  {
+    LispObject hook = Symbol.MACROEXPAND_HOOK.symbolValue(thread);
+    if ((hook != Symbol.FUNCALL && hook != Symbol.FUNCALL.getSymbolFunction())
+        || env.hasMacroBindings())
+      return macroexpand_1(form, env, thread);
+    final LispObject expander = macro.expander;
+    final int generation = macroexpansionGeneration.get();
+    CachedExpansion cached;
+    synchronized (macroexpansionCache)
+      {
+        cached = macroexpansionCache.get(form);
+      }
+    if (cached != null && cached.generation == generation
+        && cached.expander == expander)
+      {
+        LispObject expansion = cached.expansion.get();
+        if (expansion != null)
+          return expansion;
+      }
+    LispObject expansion = macroexpand_1(form, env, thread);
+    synchronized (macroexpansionCache)
+      {
+        macroexpansionCache.put(form, new CachedExpansion(expander, generation,
+                                                          expansion));
+      }
+    return expansion;
+  }
+
   @DocString(name="interactive-eval")
   private static final Primitive INTERACTIVE_EVAL =
     new Primitive("interactive-eval", PACKAGE_SYS, true)
@@ -539,7 +609,13 @@ abstract public class Lisp extends ABCLStatic
                 return fun.execute(((Cons)obj).cdr, env);
               }
             if (fun instanceof MacroObject)
-              return eval(macroexpand(obj, env, thread), env, thread);
+              {
+                if (_CACHE_MACROEXPANSIONS_.symbolValue(thread) != NIL)
+                  return eval(cachedMacroexpand_1(obj, (MacroObject)fun,
+                                                  env, thread),
+                              env, thread);
+                return eval(macroexpand(obj, env, thread), env, thread);
+              }
             if (fun instanceof Autoload)
               {
                 Autoload autoload = (Autoload) fun;
@@ -1168,13 +1244,12 @@ abstract public class Lisp extends ABCLStatic
 
   {
     StringBuilder sb = new StringBuilder(prefix);
-    SpecialBinding binding = thread.getSpecialBinding(Symbol.GENSYM_COUNTER);
     final LispObject oldValue;
-    if (binding != null) {
-        oldValue = binding.value;
+    if (thread.hasSpecialBinding(Symbol.GENSYM_COUNTER)) {
+        oldValue = thread.lookupSpecial(Symbol.GENSYM_COUNTER);
         if (oldValue instanceof Fixnum
                 || oldValue instanceof Bignum)
-          binding.value = oldValue.incr();
+          thread.setSpecialVariable(Symbol.GENSYM_COUNTER, oldValue.incr());
         else {
            Symbol.GENSYM_COUNTER.setSymbolValue(Fixnum.ZERO);
            error(new TypeError("The value of *GENSYM-COUNTER* was not a nonnegative integer. Old value: " +
@@ -1313,7 +1388,7 @@ abstract public class Lisp extends ABCLStatic
   public static LispObject readObjectFromReader(Reader r)
   {
     LispThread thread = LispThread.currentThread();
-    SpecialBindingsMark mark = thread.markSpecialBindings();
+    int mark = thread.markSpecialBindings();
     try {
         thread.bindSpecial(Symbol.READ_BASE, LispInteger.getInstance(10));
         thread.bindSpecial(Symbol.READ_EVAL, Symbol.T);
@@ -1545,9 +1620,73 @@ abstract public class Lisp extends ABCLStatic
   public static final LispObject UNSIGNED_BYTE_32 =
     list(Symbol.UNSIGNED_BYTE, Fixnum.constants[32]);
 
+  public static final LispObject UNSIGNED_BYTE_64 =
+    list(Symbol.UNSIGNED_BYTE, Fixnum.constants[64]);
+
+  public static final LispObject SIGNED_BYTE_8 =
+    list(Symbol.SIGNED_BYTE, Fixnum.constants[8]);
+
+  public static final LispObject SIGNED_BYTE_16 =
+    list(Symbol.SIGNED_BYTE, Fixnum.constants[16]);
+
+  public static final LispObject SIGNED_BYTE_32 =
+    list(Symbol.SIGNED_BYTE, Fixnum.constants[32]);
+
+  public static final LispObject SIGNED_BYTE_64 =
+    list(Symbol.SIGNED_BYTE, Fixnum.constants[64]);
+
   public static final LispObject UNSIGNED_BYTE_32_MAX_VALUE =
     Bignum.getInstance(4294967296L);
 
+  private static final LispObject UNSIGNED_BYTE_64_LIMIT =
+    Bignum.getInstance(java.math.BigInteger.ONE.shiftLeft(64));
+
+  private static final LispObject SIGNED_BYTE_64_MIN_VALUE =
+    Bignum.getInstance(Long.MIN_VALUE);
+
+  private static final LispObject SIGNED_BYTE_64_MAX_VALUE =
+    Bignum.getInstance(Long.MAX_VALUE);
+
+  /** Returns the specialized integer element type able to hold every
+   *  integer in the inclusive range [lower, upper], or T if there is none.
+   */
+  private static final LispObject getUpgradedIntegerType(LispObject lower,
+                                                         LispObject upper)
+  {
+    if (lower instanceof Fixnum && upper instanceof Fixnum)
+      {
+        int l = ((Fixnum)lower).value;
+        int u = ((Fixnum)upper).value;
+        if (l >= 0)
+          {
+            if (u <= 1)
+              return Symbol.BIT;
+            if (u <= 255)
+              return UNSIGNED_BYTE_8;
+            if (u <= 65535)
+              return UNSIGNED_BYTE_16;
+            return UNSIGNED_BYTE_32;
+          }
+        if (l >= Byte.MIN_VALUE && u <= Byte.MAX_VALUE)
+          return SIGNED_BYTE_8;
+        if (l >= Short.MIN_VALUE && u <= Short.MAX_VALUE)
+          return SIGNED_BYTE_16;
+        return SIGNED_BYTE_32;
+      }
+    if (lower.isGreaterThanOrEqualTo(Fixnum.ZERO))
+      {
+        if (upper.isLessThan(UNSIGNED_BYTE_32_MAX_VALUE))
+          return UNSIGNED_BYTE_32;
+        if (upper.isLessThan(UNSIGNED_BYTE_64_LIMIT))
+          return UNSIGNED_BYTE_64;
+        return T;
+      }
+    if (lower.isGreaterThanOrEqualTo(SIGNED_BYTE_64_MIN_VALUE)
+        && upper.isLessThanOrEqualTo(SIGNED_BYTE_64_MAX_VALUE))
+      return SIGNED_BYTE_64;
+    return T;
+  }
+
   public static final LispObject getUpgradedArrayElementType(LispObject type)
 
   {
@@ -1560,18 +1699,44 @@ abstract public class Lisp extends ABCLStatic
           return Symbol.BIT;
         if (type == NIL)
           return NIL;
+        if (type == Symbol.DOUBLE_FLOAT || type == Symbol.LONG_FLOAT)
+          return Symbol.DOUBLE_FLOAT;
+        if (type == Symbol.SINGLE_FLOAT || type == Symbol.SHORT_FLOAT)
+          return Symbol.SINGLE_FLOAT;
+        if (type == Symbol.FIXNUM)
+          return SIGNED_BYTE_32;
       }
     if (type == BuiltInClass.CHARACTER)
       return Symbol.CHARACTER;
+    if (type == BuiltInClass.DOUBLE_FLOAT)
+      return Symbol.DOUBLE_FLOAT;
+    if (type == BuiltInClass.SINGLE_FLOAT)
+      return Symbol.SINGLE_FLOAT;
+    if (type == BuiltInClass.FIXNUM)
+      return SIGNED_BYTE_32;
     if (type instanceof Cons)
       {
         if (type.equal(UNSIGNED_BYTE_8))
-          return type;
+          return UNSIGNED_BYTE_8;
         if (type.equal(UNSIGNED_BYTE_16))
-          return type;
+          return UNSIGNED_BYTE_16;
         if (type.equal(UNSIGNED_BYTE_32))
-          return type;
+          return UNSIGNED_BYTE_32;
+        if (type.equal(UNSIGNED_BYTE_64))
+          return UNSIGNED_BYTE_64;
+        if (type.equal(SIGNED_BYTE_8))
+          return SIGNED_BYTE_8;
+        if (type.equal(SIGNED_BYTE_16))
+          return SIGNED_BYTE_16;
+        if (type.equal(SIGNED_BYTE_32))
+          return SIGNED_BYTE_32;
+        if (type.equal(SIGNED_BYTE_64))
+          return SIGNED_BYTE_64;
         LispObject car = type.car();
+        if (car == Symbol.DOUBLE_FLOAT || car == Symbol.LONG_FLOAT)
+          return Symbol.DOUBLE_FLOAT;
+        if (car == Symbol.SINGLE_FLOAT || car == Symbol.SHORT_FLOAT)
+          return Symbol.SINGLE_FLOAT;
         if (car == Symbol.INTEGER)
           {
             LispObject lower = type.cadr();
@@ -1582,57 +1747,33 @@ abstract public class Lisp extends ABCLStatic
             if (upper instanceof Cons)
               upper = upper.car().decr();
             if (lower.integerp() && upper.integerp())
+              return getUpgradedIntegerType(lower, upper);
+          }
+        else if (car == Symbol.UNSIGNED_BYTE || car == Symbol.SIGNED_BYTE)
+          {
+            LispObject size = type.cadr();
+            if (size instanceof Fixnum && ((Fixnum)size).value > 0)
               {
-                if (lower instanceof Fixnum && upper instanceof Fixnum)
-                  {
-                    int l = ((Fixnum)lower).value;
-                    if (l >= 0)
-                      {
-                        int u = ((Fixnum)upper).value;
-                        if (u <= 1)
-                          return Symbol.BIT;
-                        if (u <= 255)
-                          return UNSIGNED_BYTE_8;
-                        if (u <= 65535)
-                          return UNSIGNED_BYTE_16;
-                        return UNSIGNED_BYTE_32;
-                      }
-                  }
-                if (lower.isGreaterThanOrEqualTo(Fixnum.ZERO))
-                  {
-                    if (lower.isLessThan(UNSIGNED_BYTE_32_MAX_VALUE))
-                      {
-                        if (upper.isLessThan(UNSIGNED_BYTE_32_MAX_VALUE))
-                          return UNSIGNED_BYTE_32;
-                      }
-                  }
+                int n = ((Fixnum)size).value;
+                if (car == Symbol.UNSIGNED_BYTE)
+                  return getUpgradedIntegerType(Fixnum.ZERO,
+                                                Fixnum.ONE.ash(n).decr());
+                LispObject limit = Fixnum.ONE.ash(n - 1);
+                return getUpgradedIntegerType(limit.negate(), limit.decr());
               }
           }
+        else if (car == Symbol.MOD)
+          {
+            LispObject n = type.cadr();
+            if (n instanceof Fixnum || n instanceof Bignum)
+              if (n.plusp())
+                return getUpgradedIntegerType(Fixnum.ZERO, n.decr());
+          }
         else if (car == Symbol.EQL)
           {
             LispObject obj = type.cadr();
-            if (obj instanceof Fixnum)
-              {
-                int val = ((Fixnum)obj).value;
-                if (val >= 0)
-                  {
-                    if (val <= 1)
-                      return Symbol.BIT;
-                    if (val <= 255)
-                      return UNSIGNED_BYTE_8;
-                    if (val <= 65535)
-                      return UNSIGNED_BYTE_16;
-                    return UNSIGNED_BYTE_32;
-                  }
-              }
-            else if (obj instanceof Bignum)
-              {
-                if (obj.isGreaterThanOrEqualTo(Fixnum.ZERO))
-                  {
-                    if (obj.isLessThan(UNSIGNED_BYTE_32_MAX_VALUE))
-                      return UNSIGNED_BYTE_32;
-                  }
-              }
+            if (obj instanceof Fixnum || obj instanceof Bignum)
+              return getUpgradedIntegerType(obj, obj);
           }
         else if (car == Symbol.MEMBER)
           {
@@ -1996,6 +2137,9 @@ abstract public class Lisp extends ABCLStatic
                                      LispObject value)
 
   {
+    if (indicator == Symbol.SETF_EXPANDER || indicator == Symbol.SETF_INVERSE
+        || indicator == Symbol.SYMBOL_MACRO)
+      macroexpansionGeneration.incrementAndGet();
     LispObject list = symbol.getPropertyList();
     while (list != NIL)
       {
@@ -2038,6 +2182,9 @@ abstract public class Lisp extends ABCLStatic
   public static final LispObject remprop(Symbol symbol, LispObject indicator)
 
   {
+    if (indicator == Symbol.SETF_EXPANDER || indicator == Symbol.SETF_INVERSE
+        || indicator == Symbol.SYMBOL_MACRO)
+      macroexpansionGeneration.incrementAndGet();
     LispObject list = checkList(symbol.getPropertyList());
     LispObject prev = null;
     while (list != NIL)
@@ -2093,7 +2240,7 @@ abstract public class Lisp extends ABCLStatic
                     if (j < args.length)
                       {
                         LispObject obj = args[j++];
-                        final SpecialBindingsMark mark = thread.markSpecialBindings();
+                        final int mark = thread.markSpecialBindings();
                         thread.bindSpecial(Symbol.PRINT_ESCAPE, NIL);
                         thread.bindSpecial(Symbol.PRINT_READABLY, NIL);
                         try {
@@ -2109,7 +2256,7 @@ abstract public class Lisp extends ABCLStatic
                     if (j < args.length)
                       {
                         LispObject obj = args[j++];
-                        final SpecialBindingsMark mark = thread.markSpecialBindings();
+                        final int mark = thread.markSpecialBindings();
                         thread.bindSpecial(Symbol.PRINT_ESCAPE, T);
                         try {
                             sb.append(obj.printObject());
@@ -2124,7 +2271,7 @@ abstract public class Lisp extends ABCLStatic
                     if (j < args.length)
                       {
                         LispObject obj = args[j++];
-                        final SpecialBindingsMark mark = thread.markSpecialBindings();
+                        final int mark = thread.markSpecialBindings();
                         thread.bindSpecial(Symbol.PRINT_ESCAPE, NIL);
                         thread.bindSpecial(Symbol.PRINT_RADIX, NIL);
                         thread.bindSpecial(Symbol.PRINT_BASE, Fixnum.constants[10]);
@@ -2141,7 +2288,7 @@ abstract public class Lisp extends ABCLStatic
                     if (j < args.length)
                       {
                         LispObject obj = args[j++];
-                        final SpecialBindingsMark mark = thread.markSpecialBindings();
+                        final int mark = thread.markSpecialBindings();
                         thread.bindSpecial(Symbol.PRINT_ESCAPE, NIL);
                         thread.bindSpecial(Symbol.PRINT_RADIX, NIL);
                         thread.bindSpecial(Symbol.PRINT_BASE, Fixnum.constants[16]);
@@ -2486,6 +2633,10 @@ abstract public class Lisp extends ABCLStatic
   public static final Symbol _COMPILE_FILE_ZIP_ =
     exportSpecial("*COMPILE-FILE-ZIP*", PACKAGE_SYS, T);
 
+  // ### *compile-file-parallel*
+  public static final Symbol _COMPILE_FILE_PARALLEL_ =
+    exportSpecial("*COMPILE-FILE-PARALLEL*", PACKAGE_SYS, NIL);
+
   static
   {
     Symbol.MACROEXPAND_HOOK.initializeSpecial(Symbol.FUNCALL);
@@ -2673,6 +2824,12 @@ abstract public class Lisp extends ABCLStatic
   public static final Symbol _WARN_ON_REDEFINITION_ =
     exportSpecial("*WARN-ON-REDEFINITION*", PACKAGE_EXT, T);
 
+  // ### *cache-macroexpansions*
+  // When true, the interpreter reuses the expansion of a macro form when
+  // the same form object is evaluated again and the macro is unchanged.
+  public static final Symbol _CACHE_MACROEXPANSIONS_ =
+    exportSpecial("*CACHE-MACROEXPANSIONS*", PACKAGE_EXT, NIL);
+
   // ### *saved-backtrace*
   public static final Symbol _SAVED_BACKTRACE_ =
     exportSpecial("*SAVED-BACKTRACE*", PACKAGE_EXT, NIL);
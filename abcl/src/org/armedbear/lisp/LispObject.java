@@ -523,6 +523,16 @@ public class LispObject //extends Lisp
     return AREF(index).intValue();
   }
 
+  public double aref_double(int index)
+  {
+    return AREF(index).doubleValue();
+  }
+
+  public float aref_float(int index)
+  {
+    return AREF(index).floatValue();
+  }
+
   public LispObject AREF(int index)
   {
     return type_error(this, Symbol.ARRAY);
@@ -539,6 +549,21 @@ public class LispObject //extends Lisp
           aset(index, Fixnum.getInstance(n));
   }
 
+  public void aset(int index, long n)
+  {
+    aset(index, number(n));
+  }
+
+  public void aset(int index, double d)
+  {
+    aset(index, DoubleFloat.getInstance(d));
+  }
+
+  public void aset(int index, float f)
+  {
+    aset(index, SingleFloat.getInstance(f));
+  }
+
   public void aset(int index, LispObject newValue)
 
   {
@@ -738,7 +763,7 @@ public class LispObject //extends Lisp
   public String princToString()
   {
       LispThread thread = LispThread.currentThread();
-      SpecialBindingsMark mark = thread.markSpecialBindings();
+      int mark = thread.markSpecialBindings();
       try {
           thread.bindSpecial(Symbol.PRINT_READABLY, NIL);
           thread.bindSpecial(Symbol.PRINT_ESCAPE, NIL);
@@ -33,13 +33,14 @@
 
 package org.armedbear.lisp;
 
-import java.lang.ref.WeakReference;
 import static org.armedbear.lisp.Lisp.*;
 
 import java.util.Iterator;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.lang.reflect.Method;
 
 import java.text.MessageFormat;
 
@@ -78,21 +79,30 @@ public final class LispThread extends LispObject
     }
 
     final Thread javaThread;
-    private boolean destroyed;
+    private volatile boolean destroyed;
     final LispObject name;
     public LispObject[] _values;
-    private boolean threadInterrupted;
+    private volatile boolean threadInterrupted;
     private LispObject pending = NIL;
-    private Symbol wrapper =
+    // Guards 'pending'.  A j.u.c. lock rather than a monitor so that a
+    // virtual thread waiting on it doesn't pin its carrier thread.
+    private final ReentrantLock pendingLock = new ReentrantLock();
+    private static final Symbol wrapper =
         PACKAGE_THREADS.intern("THREAD-FUNCTION-WRAPPER");
 
     LispThread(Thread javaThread)
     {
         this.javaThread = javaThread;
         name = new SimpleString(javaThread.getName());
+        specials = new LispObject[specialsInitialSize + 1];
     }
 
     LispThread(final Function fun, LispObject name)
+    {
+        this(fun, name, false);
+    }
+
+    LispThread(final Function fun, LispObject name, boolean virtual)
     {
         Runnable r = new Runnable() {
             public void run()
@@ -123,7 +133,14 @@ public final class LispThread extends LispObject
                 }
             }
         };
-        javaThread = new Thread(r);
+        Thread t = virtual ? newVirtualThread(r) : null;
+        if (t != null)
+            specials = new LispObject[virtualSpecialsInitialSize + 1];
+        else {
+            t = new Thread(r);
+            specials = new LispObject[specialsInitialSize + 1];
+        }
+        javaThread = t;
         this.name = name;
         map.put(javaThread, this);
         if (name != NIL)
@@ -132,6 +149,47 @@ public final class LispThread extends LispObject
         javaThread.start();
     }
 
+    // Thread.ofVirtual() and Thread.Builder.unstarted(Runnable), looked
+    // up reflectively: both are absent before Java 21.
+    private static final Method ofVirtual;
+    private static final Method unstarted;
+    static {
+        Method m1 = null;
+        Method m2 = null;
+        try {
+            m1 = Thread.class.getMethod("ofVirtual");
+            m2 = Class.forName("java.lang.Thread$Builder")
+                .getMethod("unstarted", Runnable.class);
+        }
+        catch (Exception e) {
+            m1 = null;
+            m2 = null;
+        }
+        ofVirtual = m1;
+        unstarted = m2;
+    }
+
+    /** Returns true if the JVM is able to create virtual threads. */
+    static final boolean virtualThreadsAvailable()
+    {
+        return ofVirtual != null;
+    }
+
+    /** Returns a new, unstarted virtual thread running 'r', or null
+     * if the JVM doesn't support virtual threads.
+     */
+    private static Thread newVirtualThread(Runnable r)
+    {
+        if (ofVirtual == null)
+            return null;
+        try {
+            return (Thread) unstarted.invoke(ofVirtual.invoke(null), r);
+        }
+        catch (Exception e) {
+            return null;
+        }
+    }
+
     public StackTraceElement[] getJavaStackTrace() {
         return javaThread.getStackTrace();
     }
@@ -158,39 +216,58 @@ public final class LispThread extends LispObject
         return super.typep(typeSpecifier);
     }
 
-    public final synchronized boolean isDestroyed()
+    public final boolean isDestroyed()
     {
         return destroyed;
     }
 
-    final synchronized boolean isInterrupted()
+    final boolean isInterrupted()
     {
         return threadInterrupted;
     }
 
-    final synchronized void setDestroyed(boolean b)
+    final void setDestroyed(boolean b)
     {
         destroyed = b;
     }
 
-    final synchronized void interrupt(LispObject function, LispObject args)
+    final void interrupt(LispObject function, LispObject args)
     {
-        pending = new Cons(args, pending);
-        pending = new Cons(function, pending);
-        threadInterrupted = true;
+        pendingLock.lock();
+        try {
+            pending = new Cons(args, pending);
+            pending = new Cons(function, pending);
+            threadInterrupted = true;
+        }
+        finally {
+            pendingLock.unlock();
+        }
         javaThread.interrupt();
     }
 
-    final synchronized void processThreadInterrupts()
+    final void processThreadInterrupts()
 
     {
-        while (pending != NIL) {
-            LispObject function = pending.car();
-            LispObject args = pending.cadr();
-            pending = pending.cddr();
+        while (true) {
+            LispObject function;
+            LispObject args;
+            pendingLock.lock();
+            try {
+                if (pending == NIL) {
+                    threadInterrupted = false;
+                    return;
+                }
+                function = pending.car();
+                args = pending.cadr();
+                pending = pending.cddr();
+            }
+            finally {
+                pendingLock.unlock();
+            }
+            // Run the interrupt function without holding the lock: it
+            // may block or itself interrupt this thread.
             Primitives.APPLY.execute(function, args);
         }
-        threadInterrupted = false;
     }
 
     public final LispObject[] getValues()
@@ -354,19 +431,25 @@ public final class LispThread extends LispObject
     final static int specialsInitialSize
         = Integer.valueOf(System.getProperty("abcl.specials.initialSize","4096"));
 
-    /** This array stores the current special binding for every symbol
-     * which has been globally or locally declared special.
+    /** Initial size of the specials array of a virtual thread.  These
+     * are expected to be numerous and short-lived, so they start out
+     * small and grow on their first binding of a higher-indexed special.
+     */
+    final static int virtualSpecialsInitialSize
+        = Integer.valueOf(System.getProperty("abcl.specials.virtual.initialSize","64"));
+
+    /** This array stores the value of the innermost dynamic binding of
+     * every symbol which has been globally or locally declared special,
+     * indexed by the symbol's specialIndex.
      *
      * If the array element has a null value, this means there currently
-     * is no active binding. If the array element contains a valid
-     * SpecialBinding object, but the value field of it is null, that
-     * indicates an "UNBOUND VARIABLE" situation.
+     * is no active binding. If it holds NO_VALUE, the symbol is bound
+     * but has no value, which indicates an "UNBOUND VARIABLE" situation.
      */
-    SpecialBinding[] specials
-        = new SpecialBinding[specialsInitialSize + 1];
+    LispObject[] specials;
 
-    final static ConcurrentHashMap<Integer, WeakReference<Symbol>> specialNames
-        = new ConcurrentHashMap<Integer, WeakReference<Symbol>>();
+    /** Marks a binding without a value in the specials array. */
+    private static final LispObject NO_VALUE = new LispObject();
 
     /** The number of slots to grow the specials table in
      * case of insufficient storage.
@@ -374,29 +457,85 @@ public final class LispThread extends LispObject
     final static int specialsDelta
         = Integer.valueOf(System.getProperty("abcl.specials.grow.delta","1024"));
 
-    /** This variable points to the head of a linked list of saved
-     * special bindings. Its main purpose is to allow a mark/reset
-     * interface to special binding and unbinding.
+    /** The binding stack: for every active dynamic binding, the index of
+     * the bound special and the value (or null) which the specials array
+     * held for it before.  Entries below bindingsPtr are in use, oldest
+     * first; binding and unbinding only move bindingsPtr, so neither
+     * allocates once the stack has grown to the thread's nesting depth.
      */
-    private SpecialBindingsMark savedSpecials = null;
+    private int[] bindingIndices;
+    private LispObject[] bindingValues;
+    private int bindingsPtr = 0;
+
+    private static final int INITIAL_BINDINGS_SIZE = 64;
 
     /** Marks the state of the special bindings,
      * for later rewinding by resetSpecialBindings().
      */
-    public final SpecialBindingsMark markSpecialBindings() {
-        return savedSpecials;
+    public final int markSpecialBindings() {
+        return bindingsPtr;
     }
 
     /** Restores the state of the special bindings to what
      * was captured in the marker 'mark' by a call to markSpecialBindings().
      */
-    public final void resetSpecialBindings(SpecialBindingsMark mark) {
-        SpecialBindingsMark c = savedSpecials;
-        while (mark != c) {
-            specials[c.idx] = c.binding;
-            c = c.next;
+    public final void resetSpecialBindings(int mark) {
+        final LispObject[] s = specials;
+        final int[] indices = bindingIndices;
+        final LispObject[] values = bindingValues;
+        int ptr = bindingsPtr;
+        while (ptr > mark) {
+            --ptr;
+            s[indices[ptr]] = values[ptr];
+            values[ptr] = null;
         }
-        savedSpecials = c;
+        bindingsPtr = ptr;
+    }
+
+    /** A copy of the special bindings in effect in a thread, taken by
+     * snapshotSpecialBindings().
+     */
+    static final class SpecialBindingsSnapshot {
+        final int[] indices;
+        final LispObject[] values;
+
+        SpecialBindingsSnapshot(int[] indices, LispObject[] values) {
+            this.indices = indices;
+            this.values = values;
+        }
+    }
+
+    /** Returns a copy of all special bindings currently in effect in
+     * this thread, for re-establishing in another thread with
+     * bindSpecialBindings().
+     *
+     * The bindings are copied, not shared: assignments in the receiving
+     * thread are not seen by this one, nor the other way around.
+     */
+    final SpecialBindingsSnapshot snapshotSpecialBindings() {
+        final LispObject[] s = specials;
+        int count = 0;
+        for (int i = s.length; i-- > 1;)
+            if (s[i] != null)
+                count++;
+        int[] indices = new int[count];
+        LispObject[] values = new LispObject[count];
+        for (int i = s.length; i-- > 1;)
+            if (s[i] != null) {
+                indices[--count] = i;
+                values[count] = s[i];
+            }
+        return new SpecialBindingsSnapshot(indices, values);
+    }
+
+    /** Establishes a binding for every entry in 'snapshot', which was
+     * returned by snapshotSpecialBindings().  The bindings are undone
+     * by resetSpecialBindings() with a mark taken before this call.
+     */
+    final void bindSpecialBindings(SpecialBindingsSnapshot snapshot) {
+        final int[] indices = snapshot.indices;
+        for (int i = 0; i < indices.length; i++)
+            bindSpecialIndex(indices[i], snapshot.values[i]);
     }
 
     /** Clears out all active special bindings including any marks
@@ -405,7 +544,7 @@ public final class LispThread extends LispObject
      */
     // Package level access: only for Interpreter.run()
     final void clearSpecialBindings() {
-        resetSpecialBindings(null);
+        resetSpecialBindings(0);
     }
 
     /** Assigns a specials array index number to the symbol,
@@ -448,68 +587,109 @@ public final class LispThread extends LispObject
             while (it.hasNext()) {
                 LispThread thread = it.next();
 
-                // clear out the values in the saved specials list
-                SpecialBindingsMark savedSpecial = thread.savedSpecials;
-                while (savedSpecial != null) {
-                    if (savedSpecial.idx == index) {
-                        savedSpecial.idx = 0;
-                        savedSpecial.binding = null;
+                // clear out the values in the binding stack
+                final int[] indices = thread.bindingIndices;
+                for (int i = thread.bindingsPtr; i-- > 0;) {
+                    if (indices[i] == index) {
+                        indices[i] = 0;
+                        thread.bindingValues[i] = null;
                     }
-                    savedSpecial = savedSpecial.next;
                 }
 
-                thread.specials[index] = null;
+                LispObject[] threadSpecials = thread.specials;
+                if (index < threadSpecials.length)
+                    threadSpecials[index] = null;
             }
 
             freeSpecialIndices.add(new Integer(index));
         }
     }
 
-    private void growSpecials() {
-        SpecialBinding[] newSpecials
-                = new SpecialBinding[specials.length + specialsDelta];
+    private void growSpecials(int idx) {
+        LispObject[] newSpecials
+                = new LispObject[Math.max(idx + 1,
+                                          specials.length + specialsDelta)];
         System.arraycopy(specials, 0, newSpecials, 0, specials.length);
         specials = newSpecials;
     }
 
-    private SpecialBinding ensureSpecialBinding(int idx) {
-        SpecialBinding binding;
-        boolean assigned;
-        do {
-            try {
-                binding = specials[idx];
-                assigned = true;
-            }
-            catch (ArrayIndexOutOfBoundsException e) {
-                assigned = false;
-                binding = null;  // suppresses 'unassigned' error
-                growSpecials();
-            }
-        } while (! assigned);
-        return binding;
+    private void growBindings() {
+        if (bindingIndices == null) {
+            bindingIndices = new int[INITIAL_BINDINGS_SIZE];
+            bindingValues = new LispObject[INITIAL_BINDINGS_SIZE];
+            return;
+        }
+        final int length = bindingIndices.length * 2;
+        int[] newIndices = new int[length];
+        LispObject[] newValues = new LispObject[length];
+        System.arraycopy(bindingIndices, 0, newIndices, 0, bindingsPtr);
+        System.arraycopy(bindingValues, 0, newValues, 0, bindingsPtr);
+        bindingIndices = newIndices;
+        bindingValues = newValues;
+    }
+
+    /** Pushes a new binding of 'value' for the special at 'idx'. */
+    private void bindSpecialIndex(int idx, LispObject value) {
+        if (idx >= specials.length)
+            growSpecials(idx);
+        final int ptr = bindingsPtr;
+        if (bindingIndices == null || ptr == bindingIndices.length)
+            growBindings();
+        bindingIndices[ptr] = idx;
+        bindingValues[ptr] = specials[idx];
+        bindingsPtr = ptr + 1;
+        specials[idx] = valueSlot(value);
+    }
+
+    /** Binds the special variable 'name' to 'value', which may be null
+     * to create a binding without a value.
+     *
+     * @return The index of 'name' in the specials array, which compiled
+     *     code passes to getSpecialValue() and setSpecialValue() to access
+     *     the binding while it is the innermost one.
+     */
+    public final int bindSpecial(Symbol name, LispObject value)
+    {
+        assignSpecialIndex(name);
+        final int idx = name.specialIndex;
+        bindSpecialIndex(idx, value);
+        return idx;
     }
 
-    public final SpecialBinding bindSpecial(Symbol name, LispObject value)
+    public final int bindSpecialToCurrentValue(Symbol name)
     {
-        int idx;
-
         assignSpecialIndex(name);
-        SpecialBinding binding = ensureSpecialBinding(idx = name.specialIndex);
-        savedSpecials = new SpecialBindingsMark(idx, binding, savedSpecials);
-        return specials[idx] = new SpecialBinding(idx, value);
+        final int idx = name.specialIndex;
+        final LispObject current = findSpecial(idx);
+        bindSpecialIndex(idx, (current == null) ? name.getSymbolValue() : current);
+        return idx;
     }
 
-    public final SpecialBinding bindSpecialToCurrentValue(Symbol name)
-    {
-        int idx;
+    private static LispObject valueSlot(LispObject value) {
+        return (value == null) ? NO_VALUE : value;
+    }
 
-        assignSpecialIndex(name);
-        SpecialBinding binding = ensureSpecialBinding(idx = name.specialIndex);
-        savedSpecials = new SpecialBindingsMark(idx, binding, savedSpecials);
-        return specials[idx]
-            = new SpecialBinding(idx,
-                                 (binding == null) ?
-                                 name.getSymbolValue() : binding.value);
+    /** Returns the value of the innermost binding of the special at 'idx',
+     * as returned by bindSpecial(), or null if it has no value.
+     */
+    public final LispObject getSpecialValue(int idx) {
+        final LispObject value = specials[idx];
+        return (value == NO_VALUE) ? null : value;
+    }
+
+    /** Sets the value of the innermost binding of the special at 'idx',
+     * as returned by bindSpecial().
+     */
+    public final void setSpecialValue(int idx, LispObject value) {
+        specials[idx] = valueSlot(value);
+    }
+
+    /** Returns the value at 'idx' in the specials array or null if
+     * there is none.
+     */
+    private LispObject findSpecial(int idx) {
+        final LispObject[] s = specials;
+        return (idx < s.length) ? s[idx] : null;
     }
 
     /** Looks up the value of a special binding in the context of the
@@ -525,20 +705,25 @@ public final class LispThread extends LispObject
      */
     public final LispObject lookupSpecial(Symbol name)
     {
-        SpecialBinding binding = ensureSpecialBinding(name.specialIndex);
-        return (binding == null) ? null : binding.value;
+        final LispObject value = findSpecial(name.specialIndex);
+        return (value == NO_VALUE) ? null : value;
     }
 
-    public final SpecialBinding getSpecialBinding(Symbol name)
+    /** Returns true if this thread has a dynamic binding of 'name',
+     * whether or not that binding has a value.
+     */
+    public final boolean hasSpecialBinding(Symbol name)
     {
-        return ensureSpecialBinding(name.specialIndex);
+        return findSpecial(name.specialIndex) != null;
     }
 
     public final LispObject setSpecialVariable(Symbol name, LispObject value)
     {
-        SpecialBinding binding = ensureSpecialBinding(name.specialIndex);
-        if (binding != null)
-            return binding.value = value;
+        final int idx = name.specialIndex;
+        if (findSpecial(idx) != null) {
+            specials[idx] = valueSlot(value);
+            return value;
+        }
 
         name.setSymbolValue(value);
         return value;
@@ -547,9 +732,13 @@ public final class LispThread extends LispObject
     public final LispObject pushSpecial(Symbol name, LispObject thing)
 
     {
-        SpecialBinding binding = ensureSpecialBinding(name.specialIndex);
-        if (binding != null)
-            return binding.value = new Cons(thing, binding.value);
+        final int idx = name.specialIndex;
+        final LispObject current = findSpecial(idx);
+        if (current != null) {
+            if (current == NO_VALUE)
+                return error(new UnboundVariable(name));
+            return specials[idx] = new Cons(thing, current);
+        }
 
         LispObject value = name.getSymbolValue();
         if (value != null) {
@@ -563,9 +752,9 @@ public final class LispThread extends LispObject
     // Returns symbol value or NIL if unbound.
     public final LispObject safeSymbolValue(Symbol name)
     {
-        SpecialBinding binding = ensureSpecialBinding(name.specialIndex);
-        if (binding != null)
-            return binding.value;
+        final LispObject current = findSpecial(name.specialIndex);
+        if (current != null)
+            return (current == NO_VALUE) ? NIL : current;
 
         LispObject value = name.getSymbolValue();
         return value != null ? value : NIL;
@@ -573,8 +762,7 @@ public final class LispThread extends LispObject
 
     public final void rebindSpecial(Symbol name, LispObject value)
     {
-        SpecialBinding binding = getSpecialBinding(name);
-        binding.value = value;
+        specials[name.specialIndex] = valueSlot(value);
     }
 
     private LispObject catchTags = NIL;
@@ -644,7 +832,9 @@ public final class LispThread extends LispObject
     //
     // Stack consists of a list of StackSegments.
     // Top StackSegment is cached in variables stack and stackPtr.
-    private StackSegment topStackSegment = new StackSegment(INITIAL_SEGMENT_SIZE, null);
+    // The initial segment is empty: with NO_STACK_FRAMES (the default)
+    // nothing is ever pushed, otherwise grow() allocates it on first use.
+    private StackSegment topStackSegment = new StackSegment(0, null);
     private Object[] stack = topStackSegment.stack;
     private int stackPtr = 0;
     private StackSegment spareStackSegment;
@@ -699,7 +889,10 @@ public final class LispThread extends LispObject
         int newSize = stackPtr + numEntries;
         if (topStackSegment.stack.length < SEGMENT_SIZE || stackPtr == 0) {
             // grow initial segment from initial size to standard size
-            int newLength = Math.max(newSize, Math.min(SEGMENT_SIZE, stack.length * 2));
+            int newLength = Math.max(newSize,
+                                     Math.min(SEGMENT_SIZE,
+                                              Math.max(INITIAL_SEGMENT_SIZE,
+                                                       stack.length * 2)));
             StackSegment newSegment = new StackSegment(newLength, topStackSegment.next);
             System.arraycopy(stack, 0, newSegment.stack, 0, stackPtr);
             topStackSegment = newSegment;
@@ -1152,9 +1345,12 @@ public final class LispThread extends LispObject
         return unreadableString(sb.toString());
     }
 
-    @DocString(name="make-thread", args="function &key name")
+    @DocString(name="make-thread", args="function &key name virtual",
+    doc="Create a thread running FUNCTION.\n"
+        + "When VIRTUAL is non-NIL and the JVM supports them (Java 21 or later),\n"
+        + "the thread is a virtual thread; otherwise it is a platform thread.")
     private static final Primitive MAKE_THREAD =
-        new Primitive("make-thread", PACKAGE_THREADS, true, "function &key name")
+        new Primitive("make-thread", PACKAGE_THREADS, true, "function &key name virtual")
     {
         @Override
         public LispObject execute(LispObject[] args)
@@ -1163,18 +1359,23 @@ public final class LispThread extends LispObject
             if (length == 0)
                 error(new WrongNumberOfArgumentsException(this, 1, -1));
             LispObject name = NIL;
+            boolean virtual = false;
             if (length > 1) {
                 if ((length - 1) % 2 != 0)
                     program_error("Odd number of keyword arguments.");
-                if (length > 3)
-                    error(new WrongNumberOfArgumentsException(this, -1, 2)); // don't count the keyword itself as an argument
-                if (args[1] == Keyword.NAME)
-                    name = args[2].STRING();
-                else
-                    program_error("Unrecognized keyword argument "
-                                  + args[1].princToString() + ".");
+                if (length > 5)
+                    error(new WrongNumberOfArgumentsException(this, -1, 4)); // don't count the keywords themselves as arguments
+                for (int i = 1; i < length; i += 2) {
+                    if (args[i] == Keyword.NAME)
+                        name = args[i + 1].STRING();
+                    else if (args[i] == Keyword.VIRTUAL)
+                        virtual = args[i + 1] != NIL;
+                    else
+                        program_error("Unrecognized keyword argument "
+                                      + args[i].princToString() + ".");
+                }
             }
-            return new LispThread(checkFunction(args[0]), name);
+            return new LispThread(checkFunction(args[0]), name, virtual);
         }
     };
 
@@ -1274,6 +1475,16 @@ public final class LispThread extends LispObject
       return (n < Integer.MAX_VALUE ? (int) n : Integer.MAX_VALUE);
     }
 
+    /** Returns the timeout interval SECONDS in nanoseconds. */
+    static final long timeoutNanos(LispObject seconds) {
+      double d
+        = checkDoubleFloat(seconds.multiplyBy(THOUSAND)).getValue() * 1.0e6;
+      if (d < 0) {
+        type_error(seconds, list(Symbol.REAL, Fixnum.ZERO));
+      }
+      return (d < Long.MAX_VALUE ? (long) d : Long.MAX_VALUE);
+    }
+
 
     @DocString(name="sleep", args="seconds",
     doc="Causes the invoking thread to sleep for an interveral expressed in SECONDS.\n"
@@ -241,7 +241,7 @@ public final class Load
     {
         LispThread thread = LispThread.currentThread();
         if (auto) {
-            final SpecialBindingsMark mark = thread.markSpecialBindings();
+            final int mark = thread.markSpecialBindings();
             // Due to autoloading, we're not sure about the loader state.
             // Make sure that all reader relevant variables have known state.
             thread.bindSpecial(Symbol.CURRENT_READTABLE,
@@ -294,6 +294,12 @@ public final class Load
         Pathname pathname = null;
         Pathname truename = null;
         pathname = new Pathname(filename);
+        BootSnapshot.Entry snapshot = BootSnapshot.lookup(filename);
+        if (snapshot != null) {
+            return loadSystemFileFromStream(pathname, snapshot.truename,
+                                            snapshot.openLoader(), snapshot,
+                                            verbose, print, auto);
+        }
         LispObject bootPath = Site.getLispHome();
         Pathname mergedPathname;
         if (bootPath instanceof Pathname) {
@@ -336,6 +342,7 @@ public final class Load
             }
         }
 
+        final Pathname container = truename;
         // Look for a init FASL inside a packed FASL
         if (truename != null
             && truename.type.princToString().equals(COMPILE_FILE_TYPE) && Utilities.checkZipFile(truename))  {
@@ -366,23 +373,10 @@ public final class Load
         }
 
         if (in != null) {
-            final LispThread thread = LispThread.currentThread();
-            final SpecialBindingsMark mark = thread.markSpecialBindings();
-            thread.bindSpecial(_WARN_ON_REDEFINITION_, NIL);
-	    thread.bindSpecial(FASL_LOADER, NIL);
-            try {
-                Stream stream = new Stream(Symbol.SYSTEM_STREAM, in, Symbol.CHARACTER);
-                return loadFileFromStream(pathname, truename, stream,
-                                          verbose, print, auto);
-            } finally {
-                thread.resetSpecialBindings(mark);
-                try {
-                    in.close();
-                }
-                catch (IOException e) {
-                    return error(new LispError(e.getMessage()));
-                }
-            }
+            return loadSystemFileFromStream(pathname, truename, in,
+                                            BootSnapshot.record(filename, truename,
+                                                                container),
+                                            verbose, print, auto);
         }
         return error(new FileError("Failed to load system file: " 
                                    + "'" + filename + "'"
@@ -391,10 +385,48 @@ public final class Load
                                    truename));
     }
 
+    private static final LispObject loadSystemFileFromStream(Pathname pathname,
+                                                             Pathname truename,
+                                                             InputStream in,
+                                                             BootSnapshot.Entry snapshot,
+                                                             boolean verbose,
+                                                             boolean print,
+                                                             boolean auto)
+    {
+        final LispThread thread = LispThread.currentThread();
+        final int mark = thread.markSpecialBindings();
+        final BootSnapshot.Entry previous = BootSnapshot.enter(snapshot);
+        thread.bindSpecial(_WARN_ON_REDEFINITION_, NIL);
+        thread.bindSpecial(FASL_LOADER, NIL);
+        try {
+            Stream stream = new Stream(Symbol.SYSTEM_STREAM, in, Symbol.CHARACTER);
+            return loadFileFromStream(pathname, truename, stream,
+                                      verbose, print, auto);
+        } finally {
+            BootSnapshot.leave(previous);
+            thread.resetSpecialBindings(mark);
+            try {
+                in.close();
+            }
+            catch (IOException e) {
+                return error(new LispError(e.getMessage()));
+            }
+        }
+    }
+
     // ### *fasl-version*
     // internal symbol
     static final Symbol _FASL_VERSION_ =
-        exportConstant("*FASL-VERSION*", PACKAGE_SYS, Fixnum.getInstance(42));
+        exportConstant("*FASL-VERSION*", PACKAGE_SYS, Fixnum.getInstance(46));
+
+    // ### *lazy-fasl-functions*
+    /**
+     * When true while a FASL is loaded, its top-level functions are
+     * installed as stubs which only load their classes when first
+     * called, so the FASL has to stay in place until then.
+     */
+    public static final Symbol _LAZY_FASL_FUNCTIONS_ =
+        exportSpecial("*LAZY-FASL-FUNCTIONS*", PACKAGE_SYS, NIL);
 
     // ### *fasl-external-format*
     // internal symbol
@@ -497,7 +529,7 @@ public final class Load
     {
         long start = System.currentTimeMillis();
         final LispThread thread = LispThread.currentThread();
-        final SpecialBindingsMark mark = thread.markSpecialBindings();
+        final int mark = thread.markSpecialBindings();
 
         for (Symbol special : savedSpecials)
             thread.bindSpecialToCurrentValue(special);
@@ -613,15 +645,16 @@ public final class Load
                                                LispThread thread, boolean returnLastResult)
 
     {
-        final SpecialBindingsMark mark = thread.markSpecialBindings();
+        final int mark = thread.markSpecialBindings();
         thread.bindSpecial(_LOAD_STREAM_, in);
-        SpecialBinding sourcePositionBinding =
+        final int sourcePositionIndex =
             thread.bindSpecial(_SOURCE_POSITION_, Fixnum.ZERO);
         try {
             final Environment env = new Environment();
             LispObject result = NIL;
             while (true) {
-                sourcePositionBinding.value = Fixnum.getInstance(in.getOffset());
+                thread.setSpecialValue(sourcePositionIndex,
+                                       Fixnum.getInstance(in.getOffset()));
                 LispObject obj = in.read(false, EOF, false,
                                          thread, Stream.currentReadtable);
                 if (obj == EOF)
@@ -649,7 +682,7 @@ public final class Load
     {
         Stream in = (Stream) _LOAD_STREAM_.symbolValue(thread);
         final Environment env = new Environment();
-        final SpecialBindingsMark mark = thread.markSpecialBindings();
+        final int mark = thread.markSpecialBindings();
         LispObject result = NIL;
         try {
             // Same bindings are established in Lisp.readObjectFromString()
@@ -0,0 +1,355 @@
+/*
+ * Mailbox.java
+ *
+ * Copyright (C) 2026 The ABCL Development Team
+ * $Id$
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+
+package org.armedbear.lisp;
+
+import java.util.ArrayList;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import static org.armedbear.lisp.Lisp.*;
+
+/** A FIFO queue for passing objects between threads, optionally bounded. */
+public final class Mailbox extends LispObject
+{
+    final BlockingQueue<LispObject> queue;
+
+    public Mailbox(int capacity)
+    {
+        if (capacity > 0)
+            queue = new LinkedBlockingQueue<LispObject>(capacity);
+        else
+            queue = new LinkedBlockingQueue<LispObject>();
+    }
+
+    @Override
+    public LispObject typeOf()
+    {
+        return Symbol.MAILBOX;
+    }
+
+    @Override
+    public LispObject classOf()
+    {
+        return BuiltInClass.MAILBOX;
+    }
+
+    @Override
+    public LispObject typep(LispObject typeSpecifier)
+    {
+        if (typeSpecifier == Symbol.MAILBOX)
+            return T;
+        if (typeSpecifier == BuiltInClass.MAILBOX)
+            return T;
+        return super.typep(typeSpecifier);
+    }
+
+    @Override
+    public String printObject()
+    {
+        return unreadableString("MAILBOX " + queue.size() + " items");
+    }
+
+    static Mailbox checkMailbox(LispObject obj)
+    {
+        if (obj instanceof Mailbox)
+            return (Mailbox) obj;
+        type_error(obj, Symbol.MAILBOX);
+        // Not reached.
+        return null;
+    }
+
+    // Blocks until ITEM has been added, processing thread interrupts
+    // while waiting.
+    void send(LispObject item)
+    {
+        while (true) {
+            try {
+                queue.put(item);
+                return;
+            } catch (InterruptedException e) {
+                LispThread.currentThread().processThreadInterrupts();
+            }
+        }
+    }
+
+    boolean send(LispObject item, long nanos)
+    {
+        final long deadline = System.nanoTime() + nanos;
+        while (true) {
+            try {
+                return queue.offer(item, nanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                LispThread.currentThread().processThreadInterrupts();
+            }
+            nanos = deadline - System.nanoTime();
+        }
+    }
+
+    LispObject read()
+    {
+        while (true) {
+            try {
+                return queue.take();
+            } catch (InterruptedException e) {
+                LispThread.currentThread().processThreadInterrupts();
+            }
+        }
+    }
+
+    // Returns null if no item arrived within NANOS nanoseconds.
+    LispObject read(long nanos)
+    {
+        final long deadline = System.nanoTime() + nanos;
+        while (true) {
+            try {
+                return queue.poll(nanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                LispThread.currentThread().processThreadInterrupts();
+            }
+            nanos = deadline - System.nanoTime();
+        }
+    }
+
+    private static final Primitive MAKE_MAILBOX = new pf_make_mailbox();
+    @DocString(name="make-mailbox", args="&key capacity",
+    doc="Returns a new mailbox: a first-in, first-out queue for passing\n"
+      + "objects between threads.  When CAPACITY is given, MAILBOX-SEND blocks\n"
+      + "while the mailbox holds CAPACITY items.")
+    private static final class pf_make_mailbox extends Primitive {
+        pf_make_mailbox() {
+            super("make-mailbox", PACKAGE_THREADS, true, "&key capacity");
+        }
+
+        @Override
+        public LispObject execute(LispObject[] args) {
+            if (args.length % 2 != 0)
+                program_error("Odd number of keyword arguments.");
+            int capacity = 0;
+            for (int i = 0; i < args.length; i += 2) {
+                if (args[i] == Keyword.CAPACITY) {
+                    if (args[i + 1] != NIL) {
+                        capacity = Fixnum.getValue(args[i + 1]);
+                        if (capacity <= 0)
+                            type_error(args[i + 1],
+                                       list(Symbol.INTEGER, Fixnum.ONE));
+                    }
+                } else
+                    program_error("Unrecognized keyword argument "
+                                  + args[i].princToString() + ".");
+            }
+            return new Mailbox(capacity);
+        }
+    };
+
+    private static final Primitive MAILBOX_P = new pf_mailbox_p();
+    @DocString(name="mailbox-p", args="object",
+    doc="Returns T if OBJECT is a mailbox, NIL otherwise.")
+    private static final class pf_mailbox_p extends Primitive {
+        pf_mailbox_p() {
+            super("mailbox-p", PACKAGE_THREADS, true, "object");
+        }
+
+        @Override
+        public LispObject execute(LispObject arg) {
+            return arg instanceof Mailbox ? T : NIL;
+        }
+    };
+
+    private static final Primitive MAILBOX_SEND = new pf_mailbox_send();
+    @DocString(name="mailbox-send", args="mailbox item &optional timeout",
+    doc="Adds ITEM to the end of MAILBOX, waking up one waiting reader.\n"
+      + "If MAILBOX is full, waits until there is room or, when TIMEOUT is\n"
+      + "given, at most TIMEOUT seconds.  Returns T if ITEM was sent and NIL\n"
+      + "if the timeout expired.")
+    private static final class pf_mailbox_send extends Primitive {
+        pf_mailbox_send() {
+            super("mailbox-send", PACKAGE_THREADS, true,
+                  "mailbox item &optional timeout");
+        }
+
+        @Override
+        public LispObject execute(LispObject mailbox, LispObject item) {
+            checkMailbox(mailbox).send(item);
+            return T;
+        }
+
+        @Override
+        public LispObject execute(LispObject mailbox, LispObject item,
+                                  LispObject timeout) {
+            final Mailbox m = checkMailbox(mailbox);
+            if (timeout == NIL) {
+                m.send(item);
+                return T;
+            }
+            return m.send(item, LispThread.timeoutNanos(timeout)) ? T : NIL;
+        }
+    };
+
+    private static final Primitive MAILBOX_SEND_ALL = new pf_mailbox_send_all();
+    @DocString(name="mailbox-send-all", args="mailbox items",
+    doc="Adds the elements of the sequence ITEMS to the end of MAILBOX, in\n"
+      + "order, waiting for room as needed.  Returns the number of items sent.")
+    private static final class pf_mailbox_send_all extends Primitive {
+        pf_mailbox_send_all() {
+            super("mailbox-send-all", PACKAGE_THREADS, true, "mailbox items");
+        }
+
+        @Override
+        public LispObject execute(LispObject mailbox, LispObject items) {
+            final Mailbox m = checkMailbox(mailbox);
+            if (items instanceof Cons) {
+                int n = 0;
+                for (LispObject l = items; l != NIL; l = l.cdr(), n++)
+                    m.send(l.car());
+                return Fixnum.getInstance(n);
+            }
+            final int length = items.length();
+            for (int i = 0; i < length; i++)
+                m.send(items.elt(i));
+            return Fixnum.getInstance(length);
+        }
+    };
+
+    private static final Primitive MAILBOX_READ = new pf_mailbox_read();
+    @DocString(name="mailbox-read", args="mailbox &optional timeout",
+    doc="Removes and returns the first item of MAILBOX, waiting until an\n"
+      + "item is available or, when TIMEOUT is given, at most TIMEOUT seconds.\n"
+      + "The second value is T if an item was read and NIL if the timeout\n"
+      + "expired.")
+    private static final class pf_mailbox_read extends Primitive {
+        pf_mailbox_read() {
+            super("mailbox-read", PACKAGE_THREADS, true,
+                  "mailbox &optional timeout");
+        }
+
+        @Override
+        public LispObject execute(LispObject mailbox) {
+            final LispObject item = checkMailbox(mailbox).read();
+            return LispThread.currentThread().setValues(item, T);
+        }
+
+        @Override
+        public LispObject execute(LispObject mailbox, LispObject timeout) {
+            if (timeout == NIL)
+                return execute(mailbox);
+            final LispObject item
+                = checkMailbox(mailbox).read(LispThread.timeoutNanos(timeout));
+            final LispThread thread = LispThread.currentThread();
+            if (item == null)
+                return thread.setValues(NIL, NIL);
+            return thread.setValues(item, T);
+        }
+    };
+
+    private static final Primitive MAILBOX_DRAIN = new pf_mailbox_drain();
+    @DocString(name="mailbox-drain", args="mailbox &optional max-items",
+    doc="Removes all items from MAILBOX, or at most MAX-ITEMS of them, without\n"
+      + "waiting.  Returns them as a list, in the order they were sent.")
+    private static final class pf_mailbox_drain extends Primitive {
+        pf_mailbox_drain() {
+            super("mailbox-drain", PACKAGE_THREADS, true,
+                  "mailbox &optional max-items");
+        }
+
+        @Override
+        public LispObject execute(LispObject mailbox) {
+            return execute(mailbox, NIL);
+        }
+
+        @Override
+        public LispObject execute(LispObject mailbox, LispObject max) {
+            final Mailbox m = checkMailbox(mailbox);
+            final ArrayList<LispObject> items = new ArrayList<LispObject>();
+            if (max == NIL)
+                m.queue.drainTo(items);
+            else
+                m.queue.drainTo(items, Fixnum.getValue(max));
+            LispObject result = NIL;
+            for (int i = items.size(); i-- > 0;)
+                result = new Cons(items.get(i), result);
+            return result;
+        }
+    };
+
+    private static final Primitive MAILBOX_EMPTY_P = new pf_mailbox_empty_p();
+    @DocString(name="mailbox-empty-p", args="mailbox",
+    doc="Returns T if MAILBOX holds no items, NIL otherwise.")
+    private static final class pf_mailbox_empty_p extends Primitive {
+        pf_mailbox_empty_p() {
+            super("mailbox-empty-p", PACKAGE_THREADS, true, "mailbox");
+        }
+
+        @Override
+        public LispObject execute(LispObject mailbox) {
+            return checkMailbox(mailbox).queue.isEmpty() ? T : NIL;
+        }
+    };
+
+    private static final Primitive MAILBOX_COUNT = new pf_mailbox_count();
+    @DocString(name="mailbox-count", args="mailbox",
+    doc="Returns the number of items in MAILBOX.")
+    private static final class pf_mailbox_count extends Primitive {
+        pf_mailbox_count() {
+            super("mailbox-count", PACKAGE_THREADS, true, "mailbox");
+        }
+
+        @Override
+        public LispObject execute(LispObject mailbox) {
+            return Fixnum.getInstance(checkMailbox(mailbox).queue.size());
+        }
+    };
+
+    private static final Primitive MAILBOX_PEEK = new pf_mailbox_peek();
+    @DocString(name="mailbox-peek", args="mailbox",
+    doc="Returns two values. The second returns non-NIL when the mailbox\n"
+      + "is empty. The first is the next item to be read from the mailbox.\n"
+      + "\n"
+      + "Note that due to multi-threading, the first value returned upon\n"
+      + "peek, may be different from the one returned upon next read in the\n"
+      + "calling thread.")
+    private static final class pf_mailbox_peek extends Primitive {
+        pf_mailbox_peek() {
+            super("mailbox-peek", PACKAGE_THREADS, true, "mailbox");
+        }
+
+        @Override
+        public LispObject execute(LispObject mailbox) {
+            final LispObject item = checkMailbox(mailbox).queue.peek();
+            final LispThread thread = LispThread.currentThread();
+            if (item == null)
+                return thread.setValues(NIL, T);
+            return thread.setValues(item, NIL);
+        }
+    };
+}
@@ -0,0 +1,193 @@
+/*
+ * Mutex.java
+ *
+ * Copyright (C) 2026 The ABCL Development Team
+ * $Id$
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+
+package org.armedbear.lisp;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import static org.armedbear.lisp.Lisp.*;
+
+/** A mutual exclusion lock, held by at most one thread at a time. */
+public final class Mutex extends LispObject
+{
+    final ReentrantLock lock;
+
+    public Mutex(boolean fair)
+    {
+        lock = new ReentrantLock(fair);
+    }
+
+    @Override
+    public LispObject typeOf()
+    {
+        return Symbol.MUTEX;
+    }
+
+    @Override
+    public LispObject classOf()
+    {
+        return BuiltInClass.MUTEX;
+    }
+
+    @Override
+    public LispObject typep(LispObject typeSpecifier)
+    {
+        if (typeSpecifier == Symbol.MUTEX)
+            return T;
+        if (typeSpecifier == BuiltInClass.MUTEX)
+            return T;
+        return super.typep(typeSpecifier);
+    }
+
+    @Override
+    public String printObject()
+    {
+        return unreadableString(lock.isLocked() ? "MUTEX (locked)" : "MUTEX");
+    }
+
+    static Mutex checkMutex(LispObject obj)
+    {
+        if (obj instanceof Mutex)
+            return (Mutex) obj;
+        type_error(obj, Symbol.MUTEX);
+        // Not reached.
+        return null;
+    }
+
+    private static final Primitive MAKE_MUTEX = new pf_make_mutex();
+    @DocString(name="make-mutex", args="&key fair",
+    doc="Returns a new mutex.  When FAIR is true, the mutex is granted to\n"
+      + "waiting threads in the order they asked for it, at some cost in\n"
+      + "throughput.")
+    private static final class pf_make_mutex extends Primitive {
+        pf_make_mutex() {
+            super("make-mutex", PACKAGE_THREADS, true, "&key fair");
+        }
+
+        @Override
+        public LispObject execute(LispObject[] args) {
+            if (args.length % 2 != 0)
+                program_error("Odd number of keyword arguments.");
+            boolean fair = false;
+            for (int i = 0; i < args.length; i += 2) {
+                if (args[i] == Keyword.FAIR)
+                    fair = args[i + 1] != NIL;
+                else
+                    program_error("Unrecognized keyword argument "
+                                  + args[i].princToString() + ".");
+            }
+            return new Mutex(fair);
+        }
+    };
+
+    private static final Primitive MUTEX_P = new pf_mutex_p();
+    @DocString(name="mutex-p", args="object",
+    doc="Returns T if OBJECT is a mutex, NIL otherwise.")
+    private static final class pf_mutex_p extends Primitive {
+        pf_mutex_p() {
+            super("mutex-p", PACKAGE_THREADS, true, "object");
+        }
+
+        @Override
+        public LispObject execute(LispObject arg) {
+            return arg instanceof Mutex ? T : NIL;
+        }
+    };
+
+    private static final Primitive GET_MUTEX = new pf_get_mutex();
+    @DocString(name="get-mutex", args="mutex &optional timeout",
+    doc="Acquires a lock on the `mutex', waiting for it to be released if\n"
+      + "another thread holds it.  With a TIMEOUT, gives up after TIMEOUT\n"
+      + "seconds; a TIMEOUT of zero never waits.  Returns T if the lock was\n"
+      + "acquired and NIL otherwise.  A thread holding the lock may acquire\n"
+      + "it again, and must then release it as many times.")
+    private static final class pf_get_mutex extends Primitive {
+        pf_get_mutex() {
+            super("get-mutex", PACKAGE_THREADS, true,
+                  "mutex &optional timeout");
+        }
+
+        @Override
+        public LispObject execute(LispObject mutex) {
+            final ReentrantLock lock = checkMutex(mutex).lock;
+            while (true) {
+                try {
+                    lock.lockInterruptibly();
+                    return T;
+                } catch (InterruptedException e) {
+                    LispThread.currentThread().processThreadInterrupts();
+                }
+            }
+        }
+
+        @Override
+        public LispObject execute(LispObject mutex, LispObject timeout) {
+            if (timeout == NIL)
+                return execute(mutex);
+            final ReentrantLock lock = checkMutex(mutex).lock;
+            long nanos = LispThread.timeoutNanos(timeout);
+            if (nanos == 0)
+                return lock.tryLock() ? T : NIL;
+            final long deadline = System.nanoTime() + nanos;
+            while (true) {
+                try {
+                    return lock.tryLock(nanos, TimeUnit.NANOSECONDS) ? T : NIL;
+                } catch (InterruptedException e) {
+                    LispThread.currentThread().processThreadInterrupts();
+                }
+                nanos = deadline - System.nanoTime();
+            }
+        }
+    };
+
+    private static final Primitive RELEASE_MUTEX = new pf_release_mutex();
+    @DocString(name="release-mutex", args="mutex",
+    doc="Releases a lock on the `mutex'.  It is an error for a thread to\n"
+      + "release a mutex it doesn't hold.")
+    private static final class pf_release_mutex extends Primitive {
+        pf_release_mutex() {
+            super("release-mutex", PACKAGE_THREADS, true, "mutex");
+        }
+
+        @Override
+        public LispObject execute(LispObject mutex) {
+            try {
+                checkMutex(mutex).lock.unlock();
+            } catch (IllegalMonitorStateException e) {
+                return error(new IllegalMonitorState("The current thread doesn't hold "
+                                                     + mutex.princToString() + "."));
+            }
+            return NIL;
+        }
+    };
+}
@@ -0,0 +1,284 @@
+/*
+ * OpenAddressingHashTable.java
+ *
+ * Copyright (C) 2026 The ABCL Development Team
+ * $Id$
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+
+package org.armedbear.lisp;
+
+import static org.armedbear.lisp.Lisp.*;
+
+/** An EQ or EQL hash table which stores its mappings in parallel key,
+ * value and hash code arrays, probed linearly, rather than in chains of
+ * HashEntry nodes: inserting a key allocates nothing and rehashing only
+ * allocates the three new arrays.
+ *
+ * As in HashTable, writers take the table's lock while readers don't.
+ * To keep lock-free lookups correct, a slot is claimed by at most one key
+ * until the next rehash: removing a key leaves a TOMBSTONE in its slot
+ * and keys never move between slots of the same arrays.  A reader that
+ * finds its key but not (yet) its value retries under the lock.
+ */
+public final class OpenAddressingHashTable extends HashTable
+{
+    private static final LispObject TOMBSTONE = new LispObject();
+
+    private static final class Table {
+        final LispObject[] keys;
+        final LispObject[] values;
+        final int[] hashes;
+        final int mask;
+
+        Table(int capacity) {
+            keys = new LispObject[capacity];
+            values = new LispObject[capacity];
+            hashes = new int[capacity];
+            mask = capacity - 1;
+        }
+    }
+
+    private volatile Table table;
+    // The number of slots holding either a key or a TOMBSTONE.
+    private int used;
+
+    private OpenAddressingHashTable(Comparator c, int size,
+                                    LispObject rehashSize,
+                                    LispObject rehashThreshold) {
+        super(c, 0, rehashSize, rehashThreshold);
+        int capacity = calculateInitialCapacity((int) (size / loadFactor) + 1);
+        table = new Table(capacity);
+        threshold = (int) (capacity * loadFactor);
+    }
+
+    public static HashTable newEqHashTable(int size, LispObject rehashSize,
+            LispObject rehashThreshold) {
+        return new OpenAddressingHashTable(new Comparator(), size,
+                                           rehashSize, rehashThreshold);
+    }
+
+    public static HashTable newEqlHashTable(int size, LispObject rehashSize,
+            LispObject rehashThreshold) {
+        return new OpenAddressingHashTable(new EqlComparator(), size,
+                                           rehashSize, rehashThreshold);
+    }
+
+    // Spread the bits of the Lisp hash code: linear probing is very
+    // sensitive to clustering in the low bits.
+    private static int spread(int h) {
+        h *= 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+
+    @Override
+    public int getSize() {
+        return table.keys.length;
+    }
+
+    // Returns the slot of KEY in T, or -1.
+    private int indexOf(Table t, LispObject key, int hash) {
+        final LispObject[] keys = t.keys;
+        int i = hash & t.mask;
+        while (true) {
+            LispObject k = keys[i];
+            if (k == null) {
+                return -1;
+            }
+            if (k == key || (t.hashes[i] == hash && k != TOMBSTONE
+                             && comparator.keysEqual(key, k))) {
+                return i;
+            }
+            i = (i + 1) & t.mask;
+        }
+    }
+
+    @Override
+    public LispObject get(LispObject key) {
+        final int hash = spread(comparator.hash(key));
+        Table t = table;
+        int i = indexOf(t, key, hash);
+        if (i < 0) {
+            return null;
+        }
+        LispObject value = t.values[i];
+        if (value != null) {
+            return value;
+        }
+        // Either a put() is in progress or the key has just been removed.
+        lock.lock();
+        try {
+            t = table;
+            i = indexOf(t, key, hash);
+            return (i < 0) ? null : t.values[i];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(LispObject key, LispObject value) {
+        final int hash = spread(comparator.hash(key));
+        lock.lock();
+        try {
+            Table t = table;
+            int i = indexOf(t, key, hash);
+            if (i >= 0) {
+                t.values[i] = value;
+                return;
+            }
+            if (used + 1 > threshold) {
+                rehash();
+                t = table;
+            }
+            i = hash & t.mask;
+            while (t.keys[i] != null) {
+                i = (i + 1) & t.mask;
+            }
+            // Store the key last, so that a concurrent reader which sees
+            // it also finds its hash code.
+            t.hashes[i] = hash;
+            t.values[i] = value;
+            t.keys[i] = key;
+            ++used;
+            ++count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public LispObject remove(LispObject key) {
+        final int hash = spread(comparator.hash(key));
+        lock.lock();
+        try {
+            Table t = table;
+            int i = indexOf(t, key, hash);
+            if (i < 0) {
+                return null;
+            }
+            LispObject value = t.values[i];
+            t.values[i] = null;
+            t.keys[i] = TOMBSTONE;
+            --count;
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            table = new Table(table.keys.length);
+            used = 0;
+            count = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Must be called with the lock held.  Grows the table unless most of
+    // the used slots are tombstones, in which case reclaiming those is
+    // enough.
+    @Override
+    protected void rehash() {
+        final Table old = table;
+        final int oldCapacity = old.keys.length;
+        final int newCapacity
+            = (count >= oldCapacity * loadFactor / 2) ? oldCapacity * 2
+                                                      : oldCapacity;
+        final Table t = new Table(newCapacity);
+        for (int j = 0; j < oldCapacity; j++) {
+            LispObject k = old.keys[j];
+            if (k != null && k != TOMBSTONE) {
+                final int hash = old.hashes[j];
+                int i = hash & t.mask;
+                while (t.keys[i] != null) {
+                    i = (i + 1) & t.mask;
+                }
+                t.keys[i] = k;
+                t.values[i] = old.values[j];
+                t.hashes[i] = hash;
+            }
+        }
+        threshold = (int) (newCapacity * loadFactor);
+        used = count;
+        table = t;
+    }
+
+    // Returns a list of (key . value) pairs.
+    @Override
+    public LispObject getEntries() {
+        // No need to take out a lock, for the same reason as MAPHASH
+        final Table t = table;
+        LispObject list = NIL;
+        for (int i = t.keys.length; i-- > 0;) {
+            LispObject k = t.keys[i];
+            if (k != null && k != TOMBSTONE) {
+                LispObject v = t.values[i];
+                if (v != null) {
+                    list = new Cons(new Cons(k, v), list);
+                }
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public LispObject MAPHASH(LispObject function) {
+        // Don't lock, so that FUNCTION may update or remove the current
+        // entry.  Neither moves any other key to a different slot.
+        final Table t = table;
+        for (int i = t.keys.length; i-- > 0;) {
+            LispObject k = t.keys[i];
+            if (k != null && k != TOMBSTONE) {
+                LispObject v = t.values[i];
+                if (v != null) {
+                    function.execute(k, v);
+                }
+            }
+        }
+        return NIL;
+    }
+
+    @Override
+    public LispObject getParts() {
+        final Table t = table;
+        LispObject parts = NIL;
+        for (int i = 0; i < t.keys.length; i++) {
+            LispObject k = t.keys[i];
+            if (k != null && k != TOMBSTONE) {
+                parts = parts.push(new Cons("KEY [slot " + i + "]", k));
+                parts = parts.push(new Cons("VALUE", t.values[i]));
+            }
+        }
+        return parts.nreverse();
+    }
+}
@@ -992,10 +992,9 @@ public final class Primitives {
             // PROGV: "If too few values are supplied, the remaining symbols
             // are bound and then made to have no value." So BOUNDP must
             // explicitly check for a binding with no value.
-            SpecialBinding binding =
-                LispThread.currentThread().getSpecialBinding(symbol);
-            if (binding != null)
-                return binding.value != null ? T : NIL;
+            final LispThread thread = LispThread.currentThread();
+            if (thread.hasSpecialBinding(symbol))
+                return thread.lookupSpecial(symbol) != null ? T : NIL;
             // No binding.
             return symbol.getSymbolValue() != null ? T : NIL;
         }
@@ -1751,7 +1750,7 @@ public final class Primitives {
                                                   arg);
 
                     } else {
-                        SpecialBindingsMark mark = thread.markSpecialBindings();
+                        int mark = thread.markSpecialBindings();
                         thread.bindSpecial(Symbol._PACKAGE_, PACKAGE_CL);
                         try {
                             Symbol.STYLE_WARN.execute(new SimpleString("redefining ~S in ~S"),
@@ -3305,13 +3304,7 @@ public final class Primitives {
             if (pkg == null)
                 return error(new PackageError("The name " + packageName +
                                               " does not designate any package."));
-            SpecialBinding binding =
-                LispThread.currentThread().getSpecialBinding(Symbol._PACKAGE_);
-            if (binding != null)
-                binding.value = pkg;
-            else
-                // No dynamic binding.
-                Symbol._PACKAGE_.setSymbolValue(pkg);
+            LispThread.currentThread().setSpecialVariable(Symbol._PACKAGE_, pkg);
             return pkg;
         }
     };
@@ -3614,7 +3607,7 @@ public final class Primitives {
         {
             LispObject defs = checkList(args.car());
             final LispThread thread = LispThread.currentThread();
-            final SpecialBindingsMark mark = thread.markSpecialBindings();
+            final int mark = thread.markSpecialBindings();
 
             try {
                 Environment ext = new Environment(env);
@@ -3918,7 +3911,7 @@ public final class Primitives {
             LispObject specials = parseSpecials(bodyAndDecls.NTH(1));
             body = bodyAndDecls.car();
 
-            final SpecialBindingsMark mark = thread.markSpecialBindings();
+            final int mark = thread.markSpecialBindings();
             final Environment ext = new Environment(env);
             int i = 0;
             LispObject var = vars.car();
@@ -0,0 +1,297 @@
+/*
+ * SlotLocationCache.java
+ *
+ * Copyright (C) 2026 The ABCL Development Team
+ * $Id$
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+
+package org.armedbear.lisp;
+
+import static org.armedbear.lisp.Lisp.*;
+
+/** Caches the instance slot index of one slot name per layout, so that
+ * repeated accesses to the same slot need no lookup in the layout's
+ * slot table.  Used by the discriminating functions of single-method
+ * readers and writers, and by compiled STD-SLOT-VALUE forms with a
+ * constant slot name.
+ */
+public final class SlotLocationCache extends LispObject
+{
+  /** Beyond this many layouts (a megamorphic access site) new layouts
+   * are looked up in the slot table every time.
+   */
+  static final int MAX_ENTRIES = 8;
+
+  private static final Layout[] NO_LAYOUTS = new Layout[0];
+  private static final int[] NO_INDICES = new int[0];
+
+  final LispObject slotName;
+
+  /** Replaced as a pair (copy on write) under the cache's lock;
+   * read without locking.
+   */
+  private volatile Locations locations = new Locations(NO_LAYOUTS,
+                                                       NO_INDICES);
+
+  private static final class Locations
+  {
+    final Layout[] layouts;
+    final int[] indices;
+
+    Locations(Layout[] layouts, int[] indices)
+    {
+      this.layouts = layouts;
+      this.indices = indices;
+    }
+  }
+
+  public SlotLocationCache(LispObject slotName)
+  {
+    this.slotName = slotName;
+  }
+
+  @Override
+  public String printObject()
+  {
+    return unreadableString("SLOT-LOCATION-CACHE "
+                            + slotName.princToString());
+  }
+
+  /** Returns the cached slot index for instances with LAYOUT, or -1. */
+  final int cachedIndex(Layout layout)
+  {
+    final Locations locs = locations;
+    final Layout[] layouts = locs.layouts;
+    for (int i = 0; i < layouts.length; i++)
+      if (layouts[i] == layout)
+        return layout.isInvalid() ? -1 : locs.indices[i];
+    return -1;
+  }
+
+  /** Returns the instance slot index of the slot in INSTANCE, updating
+   * an obsolete instance first, or -1 if it has no such instance slot.
+   */
+  final int slotIndex(StandardObject instance)
+  {
+    Layout layout = instance.layout;
+    if (layout == null)
+      return -1;
+    int index = cachedIndex(layout);
+    if (index >= 0)
+      return index;
+    if (layout.isInvalid())
+      layout = instance.updateLayout();
+    index = layout.getSlotIndex(slotName);
+    if (index >= 0)
+      addLocation(layout, index);
+    return index;
+  }
+
+  private synchronized void addLocation(Layout layout, int index)
+  {
+    final Locations locs = locations;
+    final int n = locs.layouts.length;
+    if (n >= MAX_ENTRIES)
+      return;
+    for (int i = 0; i < n; i++)
+      if (locs.layouts[i] == layout)
+        return;
+    Layout[] layouts = new Layout[n + 1];
+    int[] indices = new int[n + 1];
+    System.arraycopy(locs.layouts, 0, layouts, 0, n);
+    System.arraycopy(locs.indices, 0, indices, 0, n);
+    layouts[n] = layout;
+    indices[n] = index;
+    locations = new Locations(layouts, indices);
+  }
+
+  /** Equivalent to (STD-SLOT-VALUE INSTANCE SLOT-NAME). */
+  public LispObject getValue(LispObject instance)
+  {
+    if (instance instanceof StandardObject)
+      {
+        final StandardObject obj = (StandardObject) instance;
+        final int index = slotIndex(obj);
+        if (index >= 0)
+          {
+            final LispObject value = obj.slots[index];
+            if (value != UNBOUND_VALUE)
+              return value;
+          }
+      }
+    // Shared slots, unbound slots, missing slots and structures.
+    return instance.SLOT_VALUE(slotName);
+  }
+
+  /** Equivalent to (SET-STD-SLOT-VALUE INSTANCE SLOT-NAME NEW-VALUE). */
+  public void setValue(LispObject instance, LispObject newValue)
+  {
+    if (instance instanceof StandardObject)
+      {
+        final StandardObject obj = (StandardObject) instance;
+        final int index = slotIndex(obj);
+        if (index >= 0)
+          {
+            obj.slots[index] = newValue;
+            return;
+          }
+      }
+    instance.setSlotValue(slotName, newValue);
+  }
+
+  /** Discriminating function of a generic function whose only method is
+   * a standard reader method specialized on a standard class.
+   */
+  private static final class SlotReader extends Function
+  {
+    final LispObject gf;
+    final LispObject specializer;
+    final SlotLocationCache cache;
+
+    SlotReader(LispObject gf, LispObject specializer, LispObject slotName)
+    {
+      this.gf = gf;
+      this.specializer = specializer;
+      cache = new SlotLocationCache(slotName);
+    }
+
+    @Override
+    public LispObject execute(LispObject arg)
+    {
+      if (arg instanceof StandardObject)
+        {
+          // A cached layout has already passed the type check below.
+          final StandardObject instance = (StandardObject) arg;
+          final int index = cache.cachedIndex(instance.layout);
+          if (index >= 0)
+            {
+              final LispObject value = instance.slots[index];
+              if (value != UNBOUND_VALUE)
+                return value;
+            }
+        }
+      if (Symbol.TYPEP.execute(arg, specializer) == NIL)
+        return Symbol.NO_APPLICABLE_METHOD.execute(gf, list(arg));
+      return cache.getValue(arg);
+    }
+  }
+
+  /** Like SlotReader, for a standard writer method. */
+  private static final class SlotWriter extends Function
+  {
+    final LispObject gf;
+    final LispObject specializer;
+    final SlotLocationCache cache;
+
+    SlotWriter(LispObject gf, LispObject specializer, LispObject slotName)
+    {
+      this.gf = gf;
+      this.specializer = specializer;
+      cache = new SlotLocationCache(slotName);
+    }
+
+    @Override
+    public LispObject execute(LispObject newValue, LispObject arg)
+    {
+      if (arg instanceof StandardObject)
+        {
+          final StandardObject instance = (StandardObject) arg;
+          final int index = cache.cachedIndex(instance.layout);
+          if (index >= 0)
+            {
+              instance.slots[index] = newValue;
+              return newValue;
+            }
+        }
+      if (Symbol.TYPEP.execute(arg, specializer) == NIL)
+        return Symbol.NO_APPLICABLE_METHOD.execute(gf, list(newValue, arg));
+      cache.setValue(arg, newValue);
+      return newValue;
+    }
+  }
+
+  private static final Primitive MAKE_SLOT_LOCATION_CACHE
+    = new pf_make_slot_location_cache();
+  @DocString(name="make-slot-location-cache",
+             args="slot-name",
+             doc="Returns a cache of the locations of the instance slot"
+             + " named SLOT-NAME, used by compiled STD-SLOT-VALUE forms.")
+  private static final class pf_make_slot_location_cache extends Primitive
+  {
+    pf_make_slot_location_cache()
+    {
+      super("make-slot-location-cache", PACKAGE_SYS, true, "slot-name");
+    }
+    @Override
+    public LispObject execute(LispObject slotName)
+    {
+      return new SlotLocationCache(slotName);
+    }
+  };
+
+  private static final Primitive _MAKE_SLOT_READER
+    = new pf__make_slot_reader();
+  @DocString(name="%make-slot-reader",
+             args="gf class slot-name",
+             doc="Returns a discriminating function for GF reading the slot"
+             + " SLOT-NAME of instances of CLASS.")
+  private static final class pf__make_slot_reader extends Primitive
+  {
+    pf__make_slot_reader()
+    {
+      super("%make-slot-reader", PACKAGE_SYS, true, "gf class slot-name");
+    }
+    @Override
+    public LispObject execute(LispObject gf, LispObject cls,
+                              LispObject slotName)
+    {
+      return new SlotReader(gf, cls, slotName);
+    }
+  };
+
+  private static final Primitive _MAKE_SLOT_WRITER
+    = new pf__make_slot_writer();
+  @DocString(name="%make-slot-writer",
+             args="gf class slot-name",
+             doc="Returns a discriminating function for GF writing the slot"
+             + " SLOT-NAME of instances of CLASS.")
+  private static final class pf__make_slot_writer extends Primitive
+  {
+    pf__make_slot_writer()
+    {
+      super("%make-slot-writer", PACKAGE_SYS, true, "gf class slot-name");
+    }
+    @Override
+    public LispObject execute(LispObject gf, LispObject cls,
+                              LispObject slotName)
+    {
+      return new SlotWriter(gf, cls, slotName);
+    }
+  };
+}
@@ -0,0 +1,506 @@
+/*
+ * SocketChannels.java
+ *
+ * Copyright (C) 2026 The ABCL Development Team
+ * $Id$
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+
+package org.armedbear.lisp;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Set;
+import static org.armedbear.lisp.Lisp.*;
+
+/** Non-blocking socket channels and the selectors dispatching their events.
+ *
+ * Channels and selectors are passed around as Java objects, like the
+ * sockets of make_socket.  Each channel registered with a selector keeps
+ * a Registration as the attachment of its key, so the callbacks always
+ * receive the same Java object for the same channel.
+ */
+public final class SocketChannels
+{
+    private SocketChannels() {}
+
+    private static final class Registration
+    {
+        final JavaObject channel;
+        LispObject onAccept = NIL;
+        LispObject onRead = NIL;
+        LispObject onWrite = NIL;
+
+        Registration(JavaObject channel)
+        {
+            this.channel = channel;
+        }
+
+        int interestOps()
+        {
+            return (onAccept != NIL ? SelectionKey.OP_ACCEPT : 0)
+                | (onRead != NIL ? SelectionKey.OP_READ : 0)
+                | (onWrite != NIL ? SelectionKey.OP_WRITE : 0);
+        }
+    }
+
+    private static Object checkJavaObject(LispObject obj, Class<?> c)
+    {
+        if (obj instanceof JavaObject) {
+            Object o = ((JavaObject) obj).getObject();
+            if (c.isInstance(o))
+                return o;
+        }
+        type_error(obj, Symbol.JAVA_OBJECT);
+        // Not reached.
+        return null;
+    }
+
+    static SocketChannel checkSocketChannel(LispObject obj)
+    {
+        return (SocketChannel) checkJavaObject(obj, SocketChannel.class);
+    }
+
+    static Selector checkSelector(LispObject obj)
+    {
+        return (Selector) checkJavaObject(obj, Selector.class);
+    }
+
+    /** Signals the failure of a channel or selector operation, such as
+     * the IllegalStateExceptions thrown for closed selectors and
+     * cancelled keys, as a Lisp error. */
+    private static LispObject channelError(Exception e)
+    {
+        String message = e.getMessage();
+        return error(new LispError(message != null ? message : e.toString()));
+    }
+
+    /** Wraps 'start' up to 'end' of an (unsigned-byte 8) vector, sharing
+     * the elements of simple vectors and copying the others. */
+    private static ByteBuffer wrap(AbstractVector v, int start, int end)
+    {
+        if (v instanceof BasicVector_UnsignedByte8)
+            return ByteBuffer.wrap(((BasicVector_UnsignedByte8) v).elements(),
+                                   start, end - start);
+        byte[] bytes = new byte[end - start];
+        for (int i = start; i < end; i++)
+            bytes[i - start] = (byte) v.aref(i);
+        return ByteBuffer.wrap(bytes);
+    }
+
+    private static AbstractVector checkOctets(LispObject obj)
+    {
+        AbstractVector v = checkVector(obj);
+        if (!v.getElementType().equal(UNSIGNED_BYTE_8))
+            type_error(obj, list(Symbol.VECTOR, UNSIGNED_BYTE_8));
+        return v;
+    }
+
+    // ### %make-socket-channel host port => channel
+    // The connect itself blocks; only the connected channel is switched
+    // to non-blocking mode.
+    private static final Primitive MAKE_SOCKET_CHANNEL = new pf_make_socket_channel();
+    private static final class pf_make_socket_channel extends Primitive {
+        pf_make_socket_channel() {
+            super("%make-socket-channel", PACKAGE_SYS, false, "host port");
+        }
+
+        @Override
+        public LispObject execute(LispObject host, LispObject port) {
+            try {
+                SocketChannel channel = SocketChannel.open(
+                    new InetSocketAddress(host.getStringValue(),
+                                          Fixnum.getValue(port)));
+                channel.configureBlocking(false);
+                return new JavaObject(channel);
+            } catch (IOException e) {
+                return channelError(e);
+            }
+        }
+    };
+
+    // ### %make-server-socket-channel port backlog => channel
+    private static final Primitive MAKE_SERVER_SOCKET_CHANNEL
+        = new pf_make_server_socket_channel();
+    private static final class pf_make_server_socket_channel extends Primitive {
+        pf_make_server_socket_channel() {
+            super("%make-server-socket-channel", PACKAGE_SYS, false,
+                  "port backlog");
+        }
+
+        @Override
+        public LispObject execute(LispObject port, LispObject backlog) {
+            try {
+                ServerSocketChannel channel = ServerSocketChannel.open();
+                channel.socket().setReuseAddress(true);
+                channel.socket().bind(new InetSocketAddress(Fixnum.getValue(port)),
+                                      Fixnum.getValue(backlog));
+                channel.configureBlocking(false);
+                return new JavaObject(channel);
+            } catch (IOException e) {
+                return channelError(e);
+            }
+        }
+    };
+
+    // ### %socket-channel-accept server-channel => channel or nil
+    private static final Primitive SOCKET_CHANNEL_ACCEPT
+        = new pf_socket_channel_accept();
+    private static final class pf_socket_channel_accept extends Primitive {
+        pf_socket_channel_accept() {
+            super("%socket-channel-accept", PACKAGE_SYS, false,
+                  "server-channel");
+        }
+
+        @Override
+        public LispObject execute(LispObject server) {
+            ServerSocketChannel serverChannel = (ServerSocketChannel)
+                checkJavaObject(server, ServerSocketChannel.class);
+            try {
+                SocketChannel channel = serverChannel.accept();
+                if (channel == null)
+                    return NIL;
+                channel.configureBlocking(false);
+                return new JavaObject(channel);
+            } catch (IOException e) {
+                return channelError(e);
+            } catch (IllegalStateException e) {
+                // Not connected, or not bound.
+                return channelError(e);
+            }
+        }
+    };
+
+    // ### %socket-channel-read channel vector start end => position or nil
+    private static final Primitive SOCKET_CHANNEL_READ
+        = new pf_socket_channel_read();
+    private static final class pf_socket_channel_read extends Primitive {
+        pf_socket_channel_read() {
+            super("%socket-channel-read", PACKAGE_SYS, false,
+                  "channel vector start end");
+        }
+
+        @Override
+        public LispObject execute(LispObject channel, LispObject vector,
+                                  LispObject first, LispObject last) {
+            final SocketChannel c = checkSocketChannel(channel);
+            final AbstractVector v = checkOctets(vector);
+            final int start = Fixnum.getValue(first);
+            final int end = Fixnum.getValue(last);
+            checkBounds(start, end, v.length());
+            try {
+                ByteBuffer buffer = wrap(v, start, end);
+                int n = c.read(buffer);
+                if (n < 0)
+                    return NIL;
+                if (!(v instanceof BasicVector_UnsignedByte8))
+                    for (int i = 0; i < n; i++)
+                        v.aset(start + i, buffer.get(i) & 0xff);
+                return Fixnum.getInstance(start + n);
+            } catch (IOException e) {
+                return channelError(e);
+            } catch (IllegalStateException e) {
+                // Not connected, or not bound.
+                return channelError(e);
+            }
+        }
+    };
+
+    // ### %socket-channel-write channel vectors => count
+    private static final Primitive SOCKET_CHANNEL_WRITE
+        = new pf_socket_channel_write();
+    private static final class pf_socket_channel_write extends Primitive {
+        pf_socket_channel_write() {
+            super("%socket-channel-write", PACKAGE_SYS, false,
+                  "channel vectors");
+        }
+
+        @Override
+        public LispObject execute(LispObject channel, LispObject vectors) {
+            final SocketChannel c = checkSocketChannel(channel);
+            final ByteBuffer[] buffers = new ByteBuffer[vectors.length()];
+            int i = 0;
+            for (LispObject list = vectors; list != NIL; list = list.cdr()) {
+                AbstractVector v = checkOctets(list.car());
+                buffers[i++] = wrap(v, 0, v.length());
+            }
+            try {
+                return number(c.write(buffers));
+            } catch (IOException e) {
+                return channelError(e);
+            } catch (IllegalStateException e) {
+                // Not connected, or not bound.
+                return channelError(e);
+            }
+        }
+    };
+
+    // ### %socket-channel-close channel => t
+    private static final Primitive SOCKET_CHANNEL_CLOSE
+        = new pf_socket_channel_close();
+    private static final class pf_socket_channel_close extends Primitive {
+        pf_socket_channel_close() {
+            super("%socket-channel-close", PACKAGE_SYS, false, "channel");
+        }
+
+        @Override
+        public LispObject execute(LispObject channel) {
+            try {
+                ((SelectableChannel)
+                 checkJavaObject(channel, SelectableChannel.class)).close();
+                return T;
+            } catch (IOException e) {
+                return channelError(e);
+            }
+        }
+    };
+
+    // ### %socket-channel-local-port channel => port
+    private static final Primitive SOCKET_CHANNEL_LOCAL_PORT
+        = new pf_socket_channel_local_port();
+    private static final class pf_socket_channel_local_port extends Primitive {
+        pf_socket_channel_local_port() {
+            super("%socket-channel-local-port", PACKAGE_SYS, false, "channel");
+        }
+
+        @Override
+        public LispObject execute(LispObject channel) {
+            Object c = checkJavaObject(channel, SelectableChannel.class);
+            if (c instanceof ServerSocketChannel)
+                return Fixnum.getInstance(((ServerSocketChannel) c).socket()
+                                          .getLocalPort());
+            return Fixnum.getInstance(checkSocketChannel(channel).socket()
+                                      .getLocalPort());
+        }
+    };
+
+    // ### %make-socket-selector => selector
+    private static final Primitive MAKE_SOCKET_SELECTOR
+        = new pf_make_socket_selector();
+    private static final class pf_make_socket_selector extends Primitive {
+        pf_make_socket_selector() {
+            super("%make-socket-selector", PACKAGE_SYS, false, "");
+        }
+
+        @Override
+        public LispObject execute() {
+            try {
+                return new JavaObject(Selector.open());
+            } catch (IOException e) {
+                return channelError(e);
+            }
+        }
+    };
+
+    // ### %socket-selector-register selector channel on-accept on-read on-write => channel
+    private static final Primitive SOCKET_SELECTOR_REGISTER
+        = new pf_socket_selector_register();
+    private static final class pf_socket_selector_register extends Primitive {
+        pf_socket_selector_register() {
+            super("%socket-selector-register", PACKAGE_SYS, false,
+                  "selector channel on-accept on-read on-write");
+        }
+
+        @Override
+        public LispObject execute(LispObject selector, LispObject channel,
+                                  LispObject onAccept, LispObject onRead,
+                                  LispObject onWrite) {
+            final Selector s = checkSelector(selector);
+            final SelectableChannel c = (SelectableChannel)
+                checkJavaObject(channel, SelectableChannel.class);
+            try {
+                SelectionKey key = c.keyFor(s);
+                Registration r;
+                if (key == null || !key.isValid()) {
+                    if (key != null)
+                        // Unregistered since the last poll: the cancelled
+                        // key stays in the selector, and the channel can't
+                        // be registered again, until the next selection.
+                        s.selectNow();
+                    r = new Registration((JavaObject) channel);
+                    key = c.register(s, 0, r);
+                } else
+                    r = (Registration) key.attachment();
+                r.onAccept = onAccept;
+                r.onRead = onRead;
+                r.onWrite = onWrite;
+                key.interestOps(r.interestOps());
+                return r.channel;
+            } catch (IOException e) {
+                return channelError(e);
+            } catch (IllegalArgumentException e) {
+                // The channel doesn't support one of the operations.
+                return channelError(e);
+            } catch (IllegalStateException e) {
+                // The selector is closed, or the key cancelled meanwhile.
+                return channelError(e);
+            }
+        }
+    };
+
+    // ### %socket-selector-unregister selector channel => generalized-boolean
+    private static final Primitive SOCKET_SELECTOR_UNREGISTER
+        = new pf_socket_selector_unregister();
+    private static final class pf_socket_selector_unregister extends Primitive {
+        pf_socket_selector_unregister() {
+            super("%socket-selector-unregister", PACKAGE_SYS, false,
+                  "selector channel");
+        }
+
+        @Override
+        public LispObject execute(LispObject selector, LispObject channel) {
+            SelectionKey key = ((SelectableChannel)
+                                checkJavaObject(channel, SelectableChannel.class))
+                .keyFor(checkSelector(selector));
+            if (key == null)
+                return NIL;
+            key.cancel();
+            return T;
+        }
+    };
+
+    // ### %socket-selector-count selector => count
+    private static final Primitive SOCKET_SELECTOR_COUNT
+        = new pf_socket_selector_count();
+    private static final class pf_socket_selector_count extends Primitive {
+        pf_socket_selector_count() {
+            super("%socket-selector-count", PACKAGE_SYS, false, "selector");
+        }
+
+        @Override
+        public LispObject execute(LispObject selector) {
+            int count = 0;
+            try {
+                for (SelectionKey key : checkSelector(selector).keys())
+                    if (key.isValid())
+                        ++count;
+            } catch (ClosedSelectorException e) {
+                return channelError(e);
+            }
+            return Fixnum.getInstance(count);
+        }
+    };
+
+    // ### %socket-selector-poll selector timeout => count
+    private static final Primitive SOCKET_SELECTOR_POLL
+        = new pf_socket_selector_poll();
+    private static final class pf_socket_selector_poll extends Primitive {
+        pf_socket_selector_poll() {
+            super("%socket-selector-poll", PACKAGE_SYS, false,
+                  "selector timeout");
+        }
+
+        @Override
+        public LispObject execute(LispObject selector, LispObject timeout) {
+            final Selector s = checkSelector(selector);
+            try {
+                if (timeout == NIL)
+                    s.select();
+                else {
+                    long millis = LispThread.timeoutNanos(timeout) / 1000000;
+                    if (millis > 0)
+                        s.select(millis);
+                    else
+                        s.selectNow();
+                }
+            } catch (IOException e) {
+                return channelError(e);
+            } catch (ClosedSelectorException e) {
+                return channelError(e);
+            }
+            // Copied, since a callback registering a channel again may
+            // select and add keys to the selected set.
+            final Set<SelectionKey> selected = s.selectedKeys();
+            final SelectionKey[] keys
+                = selected.toArray(new SelectionKey[selected.size()]);
+            selected.clear();
+            int count = 0;
+            for (SelectionKey key : keys) {
+                Registration r = (Registration) key.attachment();
+                try {
+                    // A callback may close the channel, unregister it or
+                    // register it again without the callbacks of its other
+                    // pending events.
+                    if (key.isValid() && key.isAcceptable()
+                        && r.onAccept != NIL)
+                        r.onAccept.execute(r.channel);
+                    if (key.isValid() && key.isReadable() && r.onRead != NIL)
+                        r.onRead.execute(r.channel);
+                    if (key.isValid() && key.isWritable() && r.onWrite != NIL)
+                        r.onWrite.execute(r.channel);
+                } catch (CancelledKeyException e) {
+                    // Closed by another thread.
+                }
+                ++count;
+            }
+            return Fixnum.getInstance(count);
+        }
+    };
+
+    // ### %socket-selector-wakeup selector => t
+    private static final Primitive SOCKET_SELECTOR_WAKEUP
+        = new pf_socket_selector_wakeup();
+    private static final class pf_socket_selector_wakeup extends Primitive {
+        pf_socket_selector_wakeup() {
+            super("%socket-selector-wakeup", PACKAGE_SYS, false, "selector");
+        }
+
+        @Override
+        public LispObject execute(LispObject selector) {
+            checkSelector(selector).wakeup();
+            return T;
+        }
+    };
+
+    // ### %socket-selector-close selector => t
+    private static final Primitive SOCKET_SELECTOR_CLOSE
+        = new pf_socket_selector_close();
+    private static final class pf_socket_selector_close extends Primitive {
+        pf_socket_selector_close() {
+            super("%socket-selector-close", PACKAGE_SYS, false, "selector");
+        }
+
+        @Override
+        public LispObject execute(LispObject selector) {
+            try {
+                checkSelector(selector).close();
+                return T;
+            } catch (IOException e) {
+                return channelError(e);
+            }
+        }
+    };
+}
@@ -124,7 +124,7 @@ public final class SpecialOperators {
 
     {
         final LispThread thread = LispThread.currentThread();
-        final SpecialBindingsMark mark = thread.markSpecialBindings();
+        final int mark = thread.markSpecialBindings();
         try {
             LispObject varList = checkList(args.car());
             LispObject bodyAndDecls = parseBody(args.cdr(), false);
@@ -186,7 +186,7 @@ for (Cons x : nonSequentialVars)
         {
             LispObject varList = checkList(args.car());
             final LispThread thread = LispThread.currentThread();
-            final SpecialBindingsMark mark = thread.markSpecialBindings();
+            final int mark = thread.markSpecialBindings();
             Environment ext = new Environment(env);
             try {
                 // Declare our free specials, this will correctly raise
@@ -311,7 +311,7 @@ for (Cons x : nonSequentialVars)
         // First argument is a list of local function definitions.
         LispObject defs = checkList(args.car());
         final LispThread thread = LispThread.currentThread();
-        final SpecialBindingsMark mark = thread.markSpecialBindings();
+        final int mark = thread.markSpecialBindings();
         final Environment funEnv = new Environment(env);
         while (defs != NIL) {
             final LispObject def = checkList(defs.car());
@@ -417,7 +417,7 @@ for (Cons x : nonSequentialVars)
             final LispThread thread = LispThread.currentThread();
             final LispObject symbols = checkList(eval(args.car(), env, thread));
             LispObject values = checkList(eval(args.cadr(), env, thread));
-            final SpecialBindingsMark mark = thread.markSpecialBindings();
+            final int mark = thread.markSpecialBindings();
             try {
                 // Set up the new bindings.
                 progvBindVars(symbols, values, thread);
@@ -523,13 +523,8 @@ for (Cons x : nonSequentialVars)
                 }
                 args = args.cdr();
                 if (symbol.isSpecialVariable() || env.isDeclaredSpecial(symbol)) {
-                    SpecialBinding binding = thread.getSpecialBinding(symbol);
                     value = eval(args.car(), env, thread);
-                    if (binding != null) {
-                        binding.value = value;
-                    } else {
-                        symbol.setSymbolValue(value);
-                    }
+                    thread.setSpecialVariable(symbol, value);
                 } else {
                     // Not special.
                     Binding binding = env.getBinding(symbol);
@@ -559,7 +559,7 @@ public class Stream extends StructureObject {
                     return result;
             }
         } else {
-            final SpecialBindingsMark mark = thread.markSpecialBindings();
+            final int mark = thread.markSpecialBindings();
             thread.bindSpecial(_SHARP_EQUAL_ALIST_, NIL);
             thread.bindSpecial(_SHARP_SHARP_ALIST_, NIL);
             try {
@@ -1706,7 +1706,7 @@ public class Stream extends StructureObject {
     // Binds *PRINT-ESCAPE* to true.
     public void prin1(LispObject obj) {
         LispThread thread = LispThread.currentThread();
-        final SpecialBindingsMark mark = thread.markSpecialBindings();
+        final int mark = thread.markSpecialBindings();
         thread.bindSpecial(Symbol.PRINT_ESCAPE, T);
         try {
             _writeString(obj.printObject());
@@ -1825,6 +1825,71 @@ public class Stream extends StructureObject {
     }
 
 
+    /** Reads characters off the underlying stream into 'chars', from index
+     * 'start' up to 'end', translating line endings the way _readChar does
+     *
+     * Streams without a reader of their own read one character at a time
+     * through _readChar.
+     *
+     * @return the number of characters read, less than 'end - start'
+     *   only at end-of-file
+     */
+    protected int _readChars(char[] chars, int start, int end)
+        throws IOException
+    {
+        int pos = start;
+        if (reader == null) {
+            while (pos < end) {
+                int n = _readChar();
+                if (n < 0)
+                    break;
+                chars[pos++] = (char) n;
+            }
+            return pos - start;
+        }
+        // CRLF translation shrinks the input, so it is read into a
+        // separate buffer: elements past the returned count must be left
+        // untouched at end-of-file.
+        final char[] buffer = (eolStyle == EolStyle.CRLF)
+            ? new char[Math.min(end - start, 4096)] : chars;
+        while (pos < end) {
+            final int first = (buffer == chars) ? pos : 0;
+            int n = reader.read(buffer, first,
+                                Math.min(end - pos, buffer.length - first));
+            if (n < 0) {
+                pastEnd = true;
+                break;
+            }
+            offset += n;
+            final int limit = first + n;
+            for (int i = first; i < limit; i++) {
+                char c = buffer[i];
+                if (c == '\r' && eolStyle == EolStyle.CRLF) {
+                    int next;
+                    if (i + 1 < limit)
+                        next = buffer[i + 1];
+                    else {
+                        next = reader.read();
+                        if (next == '\n')
+                            ++offset;
+                        else if (next >= 0)
+                            reader.unread(next);
+                    }
+                    if (next == '\n') {
+                        c = '\n';
+                        ++lineNumber;
+                        ++i;
+                    }
+                } else if (c == eolChar) {
+                    c = '\n';
+                    ++lineNumber;
+                }
+                chars[pos++] = c;
+            }
+        }
+        return pos - start;
+    }
+
     /** Returns a boolean indicating input readily available
      *
      * @return true if a character is available
@@ -1854,7 +1919,8 @@ public class Stream extends StructureObject {
 
                 writer.write(eolChar);
                 lastChar = eolChar;
-                writer.flush();
+                if (interactive)
+                    writer.flush();
                 charPos = 0;
             } else {
                 writer.write(c);
@@ -1872,6 +1938,10 @@ public class Stream extends StructureObject {
     /** Writes a series of characters in the underlying stream,
      * updating charPos while doing so
      *
+     * The characters between newlines are written as chunks; only
+     * interactive streams are flushed after a newline, others are left
+     * to finish-output, force-output, close or their own buffering.
+     *
      * @param chars
      * @param start
      * @param end
@@ -1880,31 +1950,47 @@ public class Stream extends StructureObject {
 
     {
         try {
-            if (eolStyle != EolStyle.RAW) {
-                for (int i = start; i < end; i++)
-                    //###FIXME: the number of writes can be greatly reduced by
-                    // writing the space between newlines as chunks.
-                    _writeChar(chars[i]);
+            if (start >= end)
                 return;
-            }
-
-            writer.write(chars, start, end - start);
-            if (start < end)
-                lastChar = chars[end-1];
 
             int index = -1;
-            for (int i = end; i-- > start;) {
-                if (chars[i] == '\n') {
+            if (eolStyle == EolStyle.RAW || eolChar == '\n'
+                && eolStyle != EolStyle.CRLF) {
+                writer.write(chars, start, end - start);
+                lastChar = chars[end - 1];
+                for (int i = end; i-- > start;) {
+                    if (chars[i] == '\n') {
+                        index = i;
+                        break;
+                    }
+                }
+            } else {
+                int chunk = start;
+                for (int i = start; i < end; i++) {
+                    if (chars[i] != '\n')
+                        continue;
+                    writer.write(chars, chunk, i - chunk);
+                    char previous = (i > chunk) ? chars[i - 1] : lastChar;
+                    if (eolStyle == EolStyle.CRLF && previous != '\r')
+                        writer.write('\r');
+                    writer.write(eolChar);
+                    lastChar = eolChar;
+                    chunk = i + 1;
                     index = i;
-                    break;
+                }
+                if (chunk < end) {
+                    writer.write(chars, chunk, end - chunk);
+                    lastChar = chars[end - 1];
                 }
             }
+
             if (index < 0) {
                 // No newline.
                 charPos += (end - start);
             } else {
                 charPos = end - (index + 1);
-                writer.flush();
+                if (interactive)
+                    writer.flush();
             }
         } catch (NullPointerException e) {
             if (writer == null)
@@ -1964,6 +2050,39 @@ public class Stream extends StructureObject {
         }
     }
 
+    /** Reads 8-bit bytes off the underlying stream into 'bytes', from
+     * index 'start' up to 'end'
+     *
+     * Streams without an input stream of their own read one byte at
+     * a time through _readByte.
+     *
+     * @return the number of bytes read, less than 'end - start'
+     *   only at end-of-file
+     */
+    protected int _readBytes(byte[] bytes, int start, int end)
+        throws IOException
+    {
+        int pos = start;
+        if (in == null) {
+            while (pos < end) {
+                int n = _readByte();
+                if (n < 0)
+                    break;
+                bytes[pos++] = (byte) n;
+            }
+            return pos - start;
+        }
+        while (pos < end) {
+            int n = in.read(bytes, pos, end - pos);
+            if (n < 0) {
+                pastEnd = true;
+                break;
+            }
+            pos += n;
+        }
+        return pos - start;
+    }
+
     // Writes an 8-bit byte.
     /** Writes an 8-bit byte off the underlying stream
      *
@@ -2596,15 +2715,92 @@ public class Stream extends StructureObject {
             if (!v.getElementType().equal(UNSIGNED_BYTE_8))
                 return type_error(first, list(Symbol.VECTOR,
                                               UNSIGNED_BYTE_8));
-            for (int i = start; i < end; i++) {
-                int n = stream._readByte();
-                if (n < 0) {
-                    // End of file.
-                    return Fixnum.getInstance(i);
+            try {
+                final byte[] buffer = new byte[Math.min(end - start, 4096)];
+                int pos = start;
+                while (pos < end) {
+                    int n = stream._readBytes(buffer, 0,
+                                              Math.min(end - pos, buffer.length));
+                    for (int i = 0; i < n; i++)
+                        v.aset(pos + i, buffer[i] & 0xff);
+                    pos += n;
+                    if (pos < end && n < buffer.length)
+                        // End of file.
+                        break;
+                }
+                return Fixnum.getInstance(pos);
+            } catch (IOException e) {
+                return error(new StreamError(stream, e));
+            }
+        }
+    };
+
+    // ### read-vector-character vector stream start end => position
+    private static final Primitive READ_VECTOR_CHARACTER =
+        new Primitive("read-vector-character", PACKAGE_SYS, true,
+    "vector stream start end") {
+        @Override
+        public LispObject execute(LispObject first, LispObject second,
+                                  LispObject third, LispObject fourth)
+
+        {
+            final AbstractVector v = checkVector(first);
+            final Stream stream = checkCharacterInputStream(second);
+            final int start = Fixnum.getValue(third);
+            final int end = Fixnum.getValue(fourth);
+            checkBounds(start, end, v.length());
+            try {
+                if (v instanceof SimpleString)
+                    return Fixnum.getInstance(start + stream._readChars(
+                        ((SimpleString)v).chars(), start, end));
+                final char[] buffer = new char[Math.min(end - start, 4096)];
+                int pos = start;
+                while (pos < end) {
+                    int n = stream._readChars(buffer, 0,
+                                              Math.min(end - pos, buffer.length));
+                    if (v instanceof AbstractString) {
+                        AbstractString s = (AbstractString) v;
+                        for (int i = 0; i < n; i++)
+                            s.setCharAt(pos + i, buffer[i]);
+                    } else
+                        for (int i = 0; i < n; i++)
+                            v.aset(pos + i, LispCharacter.getInstance(buffer[i]));
+                    pos += n;
+                    if (pos < end && n < buffer.length)
+                        // End of file.
+                        break;
                 }
-                v.aset(i, n);
+                return Fixnum.getInstance(pos);
+            } catch (IOException e) {
+                return error(new StreamError(stream, e));
+            }
+        }
+    };
+
+    // ### write-vector-character vector stream start end => vector
+    private static final Primitive WRITE_VECTOR_CHARACTER =
+        new Primitive("write-vector-character", PACKAGE_SYS, true,
+    "vector stream start end") {
+        @Override
+        public LispObject execute(LispObject first, LispObject second,
+                                  LispObject third, LispObject fourth)
+
+        {
+            final AbstractVector v = checkVector(first);
+            final Stream stream = checkCharacterOutputStream(second);
+            final int start = Fixnum.getValue(third);
+            final int end = Fixnum.getValue(fourth);
+            checkBounds(start, end, v.length());
+            final char[] buffer = new char[Math.min(end - start, 4096)];
+            int pos = start;
+            while (pos < end) {
+                int n = Math.min(end - pos, buffer.length);
+                for (int i = 0; i < n; i++)
+                    buffer[i] = LispCharacter.getValue(v.AREF(pos + i));
+                stream._writeChars(buffer, 0, n);
+                pos += n;
             }
-            return fourth;
+            return v;
         }
     };
 
@@ -125,7 +125,7 @@ public class Symbol extends LispObject implements java.io.Serializable
   public LispObject getDescription()
   {
     final LispThread thread = LispThread.currentThread();
-    final SpecialBindingsMark mark = thread.markSpecialBindings();
+    final int mark = thread.markSpecialBindings();
     thread.bindSpecial(Symbol.PRINT_ESCAPE, NIL);
     try
       {
@@ -411,6 +411,20 @@ public class Symbol extends LispObject implements java.io.Serializable
     return function;
   }
 
+  /** Returns the object a call of this symbol's global function is
+   * dispatched to: the function, or the symbol itself, whose execute
+   * methods signal UNDEFINED-FUNCTION, if there is none.
+   *
+   * Compiled code calls the result directly, so that each call site
+   * gets a type profile of its own instead of sharing the one of the
+   * execute methods below.
+   */
+  public final LispObject getSymbolFunctionOrSelf()
+  {
+    LispObject fun = function;
+    return fun != null ? fun : this;
+  }
+
   @Override
   public final LispObject getSymbolSetfFunction()
   {
@@ -432,6 +446,7 @@ public class Symbol extends LispObject implements java.io.Serializable
   public final void setSymbolFunction(LispObject obj)
   {
     this.function = obj;
+    Lisp.macroexpansionGeneration.incrementAndGet();
   }
 
   /** See LispObject.getStringValue() */
@@ -3124,6 +3139,8 @@ public class Symbol extends LispObject implements java.io.Serializable
     PACKAGE_SYS.addExternalSymbol("SET-SCHAR");
   public static final Symbol SET_STD_SLOT_VALUE =
     PACKAGE_SYS.addExternalSymbol("SET-STD-SLOT-VALUE");
+  public static final Symbol SETF_EXPANDER =
+    PACKAGE_SYS.addInternalSymbol("SETF-EXPANDER");
   public static final Symbol SETF_FUNCTION =
     PACKAGE_SYS.addExternalSymbol("SETF-FUNCTION");
   public static final Symbol SETF_INVERSE =
@@ -3256,5 +3273,9 @@ public class Symbol extends LispObject implements java.io.Serializable
   // THREADS
   public static final Symbol THREAD =
     PACKAGE_THREADS.addExternalSymbol("THREAD");
+  public static final Symbol THREAD_POOL =
+    PACKAGE_THREADS.addExternalSymbol("THREAD-POOL");
+  public static final Symbol FUTURE =
+    PACKAGE_THREADS.addExternalSymbol("FUTURE");
 
 }
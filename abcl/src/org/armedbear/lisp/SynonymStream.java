@@ -133,6 +133,13 @@ public final class SynonymStream extends Stream
         return checkStream(symbol.symbolValue())._readChar();
     }
 
+    @Override
+    protected int _readChars(char[] chars, int start, int end)
+        throws java.io.IOException
+    {
+        return checkStream(symbol.symbolValue())._readChars(chars, start, end);
+    }
+
     @Override
     protected void _unreadChar(int n) throws java.io.IOException
     {
@@ -177,6 +184,13 @@ public final class SynonymStream extends Stream
         return checkStream(symbol.symbolValue())._readByte();
     }
 
+    @Override
+    protected int _readBytes(byte[] bytes, int start, int end)
+        throws java.io.IOException
+    {
+        return checkStream(symbol.symbolValue())._readBytes(bytes, start, end);
+    }
+
     // Writes an 8-bit byte.
     @Override
     public void _writeByte(int n)
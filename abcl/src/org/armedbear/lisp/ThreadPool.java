@@ -0,0 +1,320 @@
+/*
+ * ThreadPool.java
+ *
+ * Copyright (C) 2026 The ABCL Development Team
+ * $Id$
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.armedbear.lisp;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+import static org.armedbear.lisp.Lisp.*;
+
+/** A pool of Lisp worker threads running tasks submitted as futures.
+ *
+ * The pool is a ForkJoinPool: idle workers steal queued tasks from busy
+ * ones.  Each worker gets its LispThread when it starts, so a task
+ * doesn't pay for setting one up.
+ */
+public final class ThreadPool extends LispObject
+{
+    final ForkJoinPool pool;
+
+    private static final Symbol wrapper =
+        PACKAGE_THREADS.intern("FUTURE-FUNCTION-WRAPPER");
+
+    private static final ForkJoinPool.ForkJoinWorkerThreadFactory factory
+        = new ForkJoinPool.ForkJoinWorkerThreadFactory() {
+            public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+                return new Worker(pool);
+            }
+        };
+
+    private static final class Worker extends ForkJoinWorkerThread
+    {
+        Worker(ForkJoinPool pool)
+        {
+            super(pool);
+        }
+
+        @Override
+        protected void onStart()
+        {
+            super.onStart();
+            LispThread.currentThread();
+        }
+
+        @Override
+        protected void onTermination(Throwable exception)
+        {
+            LispThread.map.remove(this);
+            super.onTermination(exception);
+        }
+    }
+
+    public ThreadPool(int size)
+    {
+        pool = new ForkJoinPool(size, factory, null, false);
+    }
+
+    @Override
+    public LispObject typeOf()
+    {
+        return Symbol.THREAD_POOL;
+    }
+
+    @Override
+    public LispObject classOf()
+    {
+        return BuiltInClass.THREAD_POOL;
+    }
+
+    @Override
+    public LispObject typep(LispObject typeSpecifier)
+    {
+        if (typeSpecifier == Symbol.THREAD_POOL)
+            return T;
+        if (typeSpecifier == BuiltInClass.THREAD_POOL)
+            return T;
+        return super.typep(typeSpecifier);
+    }
+
+    @Override
+    public String printObject()
+    {
+        return unreadableString("THREAD-POOL " + pool.getParallelism() + " workers"
+                                + (pool.isShutdown() ? " (shut down)" : ""));
+    }
+
+    static ThreadPool checkThreadPool(LispObject obj)
+    {
+        if (obj instanceof ThreadPool)
+            return (ThreadPool) obj;
+        type_error(obj, Symbol.THREAD_POOL);
+        // Not reached.
+        return null;
+    }
+
+    private static volatile ThreadPool defaultPool;
+
+    static ThreadPool getDefaultPool()
+    {
+        ThreadPool p = defaultPool;
+        if (p == null) {
+            synchronized (ThreadPool.class) {
+                p = defaultPool;
+                if (p == null)
+                    defaultPool = p
+                        = new ThreadPool(Runtime.getRuntime().availableProcessors());
+            }
+        }
+        return p;
+    }
+
+    /** Runs a function in a pool worker within a snapshot of the special
+     * bindings of the submitting thread.
+     */
+    private static final class Task implements Callable<LispObject>
+    {
+        final LispObject function;
+        final LispThread.SpecialBindingsSnapshot bindings;
+
+        Task(LispObject function, LispThread.SpecialBindingsSnapshot bindings)
+        {
+            this.function = function;
+            this.bindings = bindings;
+        }
+
+        public LispObject call()
+        {
+            final LispThread thread = LispThread.currentThread();
+            final int mark = thread.markSpecialBindings();
+            thread.bindSpecialBindings(bindings);
+            try {
+                return thread.execute(wrapper, function);
+            }
+            catch (StackOverflowError e) {
+                // Workers get the default thread stack size, usually much
+                // smaller than the interpreter's: report an overflow to
+                // FUTURE-VALUE as a condition, like the REPL does.
+                return new Cons(NIL, new StorageCondition("Stack overflow."));
+            }
+            finally {
+                thread.resetSpecialBindings(mark);
+                thread._values = null;
+            }
+        }
+    }
+
+    Future submit(LispObject function)
+    {
+        final LispThread.SpecialBindingsSnapshot bindings
+            = LispThread.currentThread().snapshotSpecialBindings();
+        try {
+            return new Future(pool.submit(new Task(function, bindings)));
+        }
+        catch (RejectedExecutionException e) {
+            error(new LispError("SUBMIT: the thread pool has been shut down."));
+            // Not reached.
+            return null;
+        }
+    }
+
+    private static final Primitive MAKE_THREAD_POOL = new pf_make_thread_pool();
+    @DocString(name="make-thread-pool", args="&key size",
+    doc="Returns a new pool of SIZE worker threads for running functions\n"
+      + "passed to SUBMIT.  SIZE defaults to the number of available processors.")
+    private static final class pf_make_thread_pool extends Primitive {
+        pf_make_thread_pool() {
+            super("make-thread-pool", PACKAGE_THREADS, true, "&key size");
+        }
+
+        @Override
+        public LispObject execute(LispObject[] args) {
+            if (args.length % 2 != 0)
+                program_error("Odd number of keyword arguments.");
+            int size = Runtime.getRuntime().availableProcessors();
+            for (int i = 0; i < args.length; i += 2) {
+                if (args[i] == Keyword.SIZE) {
+                    if (args[i + 1] != NIL) {
+                        size = Fixnum.getValue(args[i + 1]);
+                        if (size <= 0)
+                            type_error(args[i + 1],
+                                       list(Symbol.INTEGER, Fixnum.ONE));
+                    }
+                } else
+                    program_error("Unrecognized keyword argument "
+                                  + args[i].princToString() + ".");
+            }
+            return new ThreadPool(size);
+        }
+    };
+
+    private static final Primitive THREAD_POOL_P = new pf_thread_pool_p();
+    @DocString(name="thread-pool-p", args="object",
+    doc="Returns T if OBJECT is a thread pool, NIL otherwise.")
+    private static final class pf_thread_pool_p extends Primitive {
+        pf_thread_pool_p() {
+            super("thread-pool-p", PACKAGE_THREADS, true, "object");
+        }
+
+        @Override
+        public LispObject execute(LispObject arg) {
+            return arg instanceof ThreadPool ? T : NIL;
+        }
+    };
+
+    private static final Primitive THREAD_POOL_SIZE = new pf_thread_pool_size();
+    @DocString(name="thread-pool-size", args="pool",
+    doc="Returns the number of worker threads of POOL.")
+    private static final class pf_thread_pool_size extends Primitive {
+        pf_thread_pool_size() {
+            super("thread-pool-size", PACKAGE_THREADS, true, "pool");
+        }
+
+        @Override
+        public LispObject execute(LispObject pool) {
+            return Fixnum.getInstance(checkThreadPool(pool).pool.getParallelism());
+        }
+    };
+
+    private static final Primitive THREAD_POOL_SHUTDOWN
+        = new pf_thread_pool_shutdown();
+    @DocString(name="thread-pool-shutdown", args="pool",
+    doc="Stops POOL from accepting new functions.  Functions already\n"
+      + "submitted still run, after which the worker threads exit.")
+    private static final class pf_thread_pool_shutdown extends Primitive {
+        pf_thread_pool_shutdown() {
+            super("thread-pool-shutdown", PACKAGE_THREADS, true, "pool");
+        }
+
+        @Override
+        public LispObject execute(LispObject pool) {
+            checkThreadPool(pool).pool.shutdown();
+            return T;
+        }
+    };
+
+    private static final Primitive DEFAULT_THREAD_POOL
+        = new pf_default_thread_pool();
+    @DocString(name="default-thread-pool", args="",
+    doc="Returns the thread pool used by SUBMIT, PMAP and PREDUCE when no\n"
+      + "pool is given, creating it on first use.")
+    private static final class pf_default_thread_pool extends Primitive {
+        pf_default_thread_pool() {
+            super("default-thread-pool", PACKAGE_THREADS, true, "");
+        }
+
+        @Override
+        public LispObject execute() {
+            return getDefaultPool();
+        }
+    };
+
+    private static final Primitive SUBMIT = new pf_submit();
+    @DocString(name="submit", args="function &key pool",
+    doc="Arranges for FUNCTION to be called without arguments by a worker\n"
+      + "of POOL, or of the default thread pool, and returns a future for\n"
+      + "its values.\n"
+      + "FUNCTION runs with the special bindings in effect at the time of\n"
+      + "the call to SUBMIT.  An error it signals is signalled again by\n"
+      + "FUTURE-VALUE.")
+    private static final class pf_submit extends Primitive {
+        pf_submit() {
+            super("submit", PACKAGE_THREADS, true, "function &key pool");
+        }
+
+        @Override
+        public LispObject execute(LispObject function) {
+            return getDefaultPool().submit(checkFunction(function));
+        }
+
+        @Override
+        public LispObject execute(LispObject[] args) {
+            if (args.length == 0)
+                return error(new WrongNumberOfArgumentsException(this, 1, -1));
+            if ((args.length - 1) % 2 != 0)
+                program_error("Odd number of keyword arguments.");
+            ThreadPool pool = null;
+            for (int i = 1; i < args.length; i += 2) {
+                if (args[i] == Keyword.POOL) {
+                    if (args[i + 1] != NIL)
+                        pool = checkThreadPool(args[i + 1]);
+                } else
+                    program_error("Unrecognized keyword argument "
+                                  + args[i].princToString() + ".");
+            }
+            if (pool == null)
+                pool = getDefaultPool();
+            return pool.submit(checkFunction(args[0]));
+        }
+    };
+}
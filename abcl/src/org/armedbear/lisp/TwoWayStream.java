@@ -128,6 +128,13 @@ public class TwoWayStream extends Stream
         return in._readChar();
     }
 
+    @Override
+    protected int _readChars(char[] chars, int start, int end)
+        throws java.io.IOException
+    {
+        return in._readChars(chars, start, end);
+    }
+
     @Override
     protected void _unreadChar(int n) throws java.io.IOException
     {
@@ -172,6 +179,13 @@ public class TwoWayStream extends Stream
         return in._readByte();
     }
 
+    @Override
+    protected int _readBytes(byte[] bytes, int start, int end)
+        throws java.io.IOException
+    {
+        return in._readBytes(bytes, start, end);
+    }
+
     // Writes an 8-bit byte.
     @Override
     public void _writeByte(int n)
@@ -130,7 +130,7 @@ public class TypeError extends LispError
     public String getMessage()
     {
         final LispThread thread = LispThread.currentThread();
-        final SpecialBindingsMark mark = thread.markSpecialBindings();
+        final int mark = thread.markSpecialBindings();
         thread.bindSpecial(Symbol.PRINT_ESCAPE, T);
         try {
             String s = super.getMessage();
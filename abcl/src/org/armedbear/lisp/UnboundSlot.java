@@ -72,7 +72,7 @@ public final class UnboundSlot extends CellError
     public String getMessage()
     {
         final LispThread thread = LispThread.currentThread();
-        final SpecialBindingsMark mark = thread.markSpecialBindings();
+        final int mark = thread.markSpecialBindings();
         thread.bindSpecial(Symbol.PRINT_ESCAPE, T);
         try {
             StringBuilder sb = new StringBuilder("The slot ");
@@ -51,7 +51,7 @@ public final class UnboundVariable extends CellError
   public String getMessage()
   {
     LispThread thread = LispThread.currentThread();
-    final SpecialBindingsMark mark = thread.markSpecialBindings();
+    final int mark = thread.markSpecialBindings();
     thread.bindSpecial(Symbol.PRINT_ESCAPE, T);
     StringBuffer sb = new StringBuffer("The variable ");
     try {
@@ -83,7 +83,7 @@ public final class arglist
                 s = "(" + s + ")";
                 // Bind *PACKAGE* so we use the EXT package if we need
                 // to intern any symbols.
-                final SpecialBindingsMark mark = thread.markSpecialBindings();
+                final int mark = thread.markSpecialBindings();
                 thread.bindSpecial(Symbol._PACKAGE_, PACKAGE_EXT);
                 try {
                     arglist = readObjectFromString(s);
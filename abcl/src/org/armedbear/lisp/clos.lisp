@@ -2314,13 +2314,9 @@ Initialized with the true value near the end of the file.")
               (slot-definition (std-slot-value method 'sys::%slot-definition))
               (slot-name (std-slot-value slot-definition 'sys:name))
               (class (car (std-method-specializers method))))
-         #'(lambda (instance)
-             ;; TODO: elide this test for low values of SAFETY
-             (unless (typep instance class)
-               (no-applicable-method gf (list instance)))
-             ;; hash table lookup for slot position in Layout object via
-             ;; StandardObject.SLOT_VALUE, so should be reasonably fast
-             (std-slot-value instance slot-name))))
+         ;; See SlotLocationCache.java: caches the slot index per
+         ;; instance layout, checking the instance's type on misses.
+         (%make-slot-reader gf class slot-name)))
       ((and (= (length methods) 1)
             (eq (type-of (car methods)) 'standard-writer-method)
             (eq (type-of (second (std-method-specializers (car methods))))
@@ -2328,14 +2324,8 @@ Initialized with the true value near the end of the file.")
        (let* ((method (first methods))
               (slot-definition (std-slot-value method 'sys::%slot-definition))
               (slot-name (std-slot-value slot-definition 'sys:name))
-              (class (car (std-method-specializers method))))
-         #'(lambda (new-value instance)
-             ;; TODO: elide this test for low values of SAFETY
-             (unless (typep instance class)
-               (no-applicable-method gf (list new-value instance)))
-             ;; hash table lookup for slot position in Layout object via
-             ;; StandardObject.SET_SLOT_VALUE, so should be reasonably fast
-             (setf (std-slot-value instance slot-name) new-value))))
+              (class (second (std-method-specializers method))))
+         (%make-slot-writer gf class slot-name)))
       (t
        (let* ((number-required (length (generic-function-required-arguments gf)))
               (lambda-list (generic-function-lambda-list gf))
@@ -2375,21 +2365,11 @@ Initialized with the true value near the end of the file.")
                                       :expected-type specializer))
                              (funcall function arg)))))
                   (t
-                   #'(lambda (arg)
-                       (declare (optimize speed))
-                       (let* ((args (list arg))
-                              (emfun (get-cached-emf gf args)))
-                         (if emfun
-                             (funcall emfun args)
-                             (slow-method-lookup gf args)))))))
+                   ;; See EMFCache.java: looks up the effective method
+                   ;; without consing an argument list.
+                   (%make-emf-dispatcher gf 1))))
                ((= number-required 2)
-                #'(lambda (arg1 arg2)
-                    (declare (optimize speed))
-                    (let* ((args (list arg1 arg2))
-                           (emfun (get-cached-emf gf args)))
-                      (if emfun
-                          (funcall emfun args)
-                          (slow-method-lookup gf args)))))
+                (%make-emf-dispatcher gf 2))
                ((= number-required 3)
                 #'(lambda (arg1 arg2 arg3)
                     (declare (optimize speed))
@@ -2525,6 +2505,16 @@ to ~S with argument list ~S."
          (nthcdr non-keyword-args args) applicable-keywords)
       (funcall emfun args)))
 
+(defun std-effective-method-fast-function (gf methods)
+  "Returns the fast function of the most specific of the sorted
+applicable METHODS when the effective method of the standard generic
+function GF consists of calling just that, or NIL."
+  (when (and (eq (method-combination-name
+                  (generic-function-method-combination gf))
+                 'standard)
+             (notany #'method-qualifiers methods))
+    (std-method-fast-function (car methods))))
+
 (defun slow-method-lookup (gf args)
   (let ((applicable-methods
           (if (std-generic-function-p gf)
@@ -2554,7 +2544,9 @@ to ~S with argument list ~S."
             (setf emfun
                   (wrap-emfun-for-keyword-args-check gf emfun non-keyword-args
                                                      applicable-keywords)))
-          (cache-emf gf args emfun)
+          (cache-emf gf args emfun
+                     (when (std-generic-function-p gf)
+                       (std-effective-method-fast-function gf applicable-methods)))
           (funcall emfun args))
         (apply #'no-applicable-method gf args))))
 
@@ -140,12 +140,17 @@ zero-length jvm classfile corresponding to ~A." classfile)
       (prin1 form))
     (terpri)))
 
+(declaim (special *pending-output*))
+
 (defun output-form (form)
-  (if *binary-fasls*
-      (push form *forms-for-output*)
-      (progn
-        (dump-form form *fasl-stream*)
-        (%stream-terpri *fasl-stream*))))
+  (cond
+    (*binary-fasls*
+     (push form *forms-for-output*))
+    ((or *pending-output* (parallel-compile-job-p form))
+     (push (cons form *package*) *pending-output*))
+    (t
+     (dump-form form *fasl-stream*)
+     (%stream-terpri *fasl-stream*))))
 
 (defun finalize-fasl-output ()
   (when *binary-fasls*
@@ -483,6 +488,263 @@ interpreted toplevel form, non-NIL if it is 'simple enough'."
                  ,*source-position*
                  ',(third form))))))
 
+;;; Parallel compilation of DEFUN bodies
+;;;
+;;; With *COMPILE-FILE-PARALLEL* true, the bodies of top-level DEFUNs
+;;; are macroexpanded on the compiling thread and then compiled by a
+;;; thread pool, each into its own class file.  A run of such DEFUNs
+;;; forms a batch: any other top-level form first waits for the batch,
+;;; so compiling a body never observes compile-time side effects of the
+;;; forms after it.  The results are written to the FASL in file order,
+;;; making the output independent of scheduling.  A body which signals
+;;; an error, overflows the stack of its worker, which is usually much
+;;; smaller than the interpreter's, or needs an uninterned symbol not yet
+;;; numbered for the FASL, is compiled again serially when its batch is
+;;; finished.
+
+(defstruct (parallel-compile-job (:conc-name job-))
+  name
+  expr
+  lambda-list
+  doc
+  class-number
+  classfile
+  source-position
+  error-context
+  form
+  future)
+
+(defvar *pending-output* nil
+  "The queue of FASL forms, and of PARALLEL-COMPILE-JOBs whose forms
+are yet to be determined, waiting to be written.  Each entry is a cons
+of the entry and the value of *PACKAGE* to write it in.")
+
+(defun compile-file-thread-pool ()
+  (let ((parallel *compile-file-parallel*))
+    (when (and parallel (not *binary-fasls*))
+      (if (eq parallel t)
+          ;; A single worker only adds overhead to compiling serially.
+          (let ((pool (threads:default-thread-pool)))
+            (when (> (threads:thread-pool-size pool) 1)
+              pool))
+          parallel))))
+
+(defun job-classfile-generator (classfile)
+  "Returns a function computing class files of the local functions of
+the top-level function compiled to CLASSFILE, named after it."
+  (let ((count 0))
+    #'(lambda ()
+        (make-pathname :name (%format nil "~A_~D" (pathname-name classfile)
+                                      (incf count))
+                       :defaults classfile))))
+
+(defun note-quoted-uninterned-symbols (form)
+  "Numbers the uninterned symbols in the constants of FORM for the FASL,
+so that compiling FORM on a pool worker doesn't have to."
+  (let ((seen (make-hash-table :test 'eq)))
+    (labels ((note-constant (object)
+               ;; Iterates down the cdrs, so that long lists don't
+               ;; overflow the stack.
+               (loop
+                 (cond
+                   ((symbolp object)
+                    (when (and object (null (symbol-package object)))
+                      (dump-uninterned-symbol-index object))
+                    (return))
+                   ((or (not (or (consp object) (simple-vector-p object)))
+                        (gethash object seen))
+                    (return))
+                   (t
+                    (setf (gethash object seen) t)
+                    (when (simple-vector-p object)
+                      (map nil #'note-constant object)
+                      (return))
+                    (note-constant (car object))
+                    (setf object (cdr object))))))
+             (walk (form)
+               (loop while (consp form)
+                     do (if (eq (car form) 'quote)
+                            (progn
+                              (note-constant (cadr form))
+                              (return))
+                            (walk (car form)))
+                        (setf form (cdr form)))))
+      (walk form))))
+
+(defun local-function-class-files (classfile)
+  "Returns the class files of the local functions compiled along with
+CLASSFILE, which are named after it, in either type the compiler writes."
+  (let ((name (%format nil "~A_*" (pathname-name classfile))))
+    (sort (loop :for type :in (remove-duplicates
+                               (list "clc" *compile-file-class-extension*)
+                               :test #'equal)
+                :nconc (directory (make-pathname :name name :type type
+                                                 :defaults classfile)))
+          #'string< :key #'namestring)))
+
+(defun delete-job-class-files (job)
+  (dolist (pathname (local-function-class-files (job-classfile job)))
+    (delete-file pathname)))
+
+(defun compile-defun-to-classfile (name expr classfile)
+  "Compiles the lambda expression EXPR into CLASSFILE, returning whether
+the compilation succeeded, the internal compiler errors and whether the
+function may be loaded lazily."
+  (let* ((internal-compiler-errors nil)
+         (jvm::*load-time-value-declared* nil)
+         (*instance-form-dumped* nil)
+         (result (with-open-file
+                     (f classfile
+                        :direction :output
+                        :element-type '(unsigned-byte 8)
+                        :if-exists :supersede)
+                   (handler-bind
+                       ((internal-compiler-error
+                         #'(lambda (e)
+                             (push e internal-compiler-errors)
+                             (continue))))
+                     (report-error
+                      (jvm:compile-defun name expr *compile-file-environment*
+                                         classfile f nil))))))
+    (declare (ignore result))
+    (values (and (not internal-compiler-errors)
+                 (verify-load classfile))
+            internal-compiler-errors
+            ;; Loading the class evaluates the LOAD-TIME-VALUE forms and
+            ;; the creation forms of its constants, which mustn't wait
+            ;; for the first call.
+            (not (or jvm::*load-time-value-declared*
+                     *instance-form-dumped*)))))
+
+(defun toplevel-defun-form (name class-number lambda-list doc lazy)
+  "Returns the FASL form defining NAME as the function compiled to the
+class numbered CLASS-NUMBER.  With LAZY, the class is only loaded on
+the first call if SYS:*LAZY-FASL-FUNCTIONS* is true when the FASL is
+loaded."
+  `(fset ',name
+         (,(if lazy 'sys::get-lazy-fasl-function 'sys::get-fasl-function)
+          *fasl-loader* ,class-number)
+         ,*source-position*
+         ',lambda-list
+         ,doc))
+
+(defun run-parallel-compile-job (job)
+  "Compiles JOB on a pool worker.  Returns a list of the warnings
+signalled, the functions noted as undefined, the output produced and
+whether the function may be loaded lazily, or NIL when JOB has to be
+compiled serially."
+  (let* ((output (make-string-output-stream))
+         (warnings '())
+         (*standard-output* output)
+         (*error-output* output)
+         (*handler-clusters* nil)
+         (*restart-clusters* nil)
+         (*undefined-functions* nil)
+         (*fasl-uninterned-symbols-frozen* 'parallel-compile-job)
+         (jvm::*pathnames-generator*
+          (job-classfile-generator (job-classfile job))))
+    (catch 'parallel-compile-job
+      (handler-bind ((warning
+                      #'(lambda (c)
+                          (push c warnings)
+                          (muffle-warning c)))
+                     ((or error storage-condition)
+                      #'(lambda (c)
+                          (declare (ignore c))
+                          (throw 'parallel-compile-job nil))))
+        (multiple-value-bind (compiled-function internal-compiler-errors lazy)
+            (compile-defun-to-classfile (job-name job) (job-expr job)
+                                        (job-classfile job))
+          (declare (ignore internal-compiler-errors))
+          (when compiled-function
+            (list (nreverse warnings)
+                  *undefined-functions*
+                  (get-output-stream-string output)
+                  lazy)))))))
+
+(defun submit-parallel-compile-job (job pool)
+  (setf (job-future job)
+        (threads:submit #'(lambda () (run-parallel-compile-job job))
+                        :pool pool))
+  job)
+
+(defun compile-toplevel-defun (form name expr classfile class-number
+                               lambda-list doc compile-time-too)
+  "Compiles the body of the top-level DEFUN FORM to CLASSFILE, returning
+the form defining the function at load time."
+  (multiple-value-bind (compiled-function internal-compiler-errors lazy)
+      (compile-defun-to-classfile name expr classfile)
+    (cond
+      (compiled-function
+       (when compile-time-too
+         (eval form))
+       (toplevel-defun-form name class-number lambda-list doc lazy))
+      (t
+       (compiler-warn "Unable to compile function ~A.  Using interpreted form instead.~%" name)
+       (when internal-compiler-errors
+         (dolist (e internal-compiler-errors)
+           (format *error-output*
+                   "; ~A~%" e)))
+       (let* ((precompiled-function
+               (precompiler:precompile-form expr nil
+                                            *compile-file-environment*))
+              (form `(fset ',name
+                           ,precompiled-function
+                           ,*source-position*
+                           ',lambda-list
+                           ,doc)))
+         (when compile-time-too
+           (eval form))
+         form)))))
+
+(defun finish-parallel-compile-job (job)
+  "Waits for JOB and returns its FASL form, reporting what the worker
+compiling it signalled, or compiling it again if the worker gave up."
+  (let ((result (handler-case (threads:future-value (job-future job))
+                  (storage-condition () nil)))
+        (*source-position* (job-source-position job))
+        (*compiler-error-context* (job-error-context job)))
+    (cond
+      (result
+       (destructuring-bind (warnings undefined-functions output lazy) result
+         (write-string output *error-output*)
+         (dolist (warning warnings)
+           (warn warning))
+         (when (boundp '*undefined-functions*)
+           (dolist (name undefined-functions)
+             (unless (memq name *defined-functions*)
+               (pushnew name *undefined-functions*))))
+         (toplevel-defun-form (job-name job) (job-class-number job)
+                              (job-lambda-list job) (job-doc job) lazy)))
+      (t
+       (delete-job-class-files job)
+       (let ((jvm::*pathnames-generator*
+              (job-classfile-generator (job-classfile job))))
+         (compile-toplevel-defun (job-form job) (job-name job) (job-expr job)
+                                 (job-classfile job) (job-class-number job)
+                                 (job-lambda-list job) (job-doc job)
+                                 nil))))))
+
+(defun finish-parallel-compile-jobs ()
+  "Waits for the pending batch of parallel compilations and writes the
+queued FASL forms in order."
+  (when *pending-output*
+    (let ((entries (reverse *pending-output*)))
+      (setf *pending-output* nil)
+      (dolist (entry entries)
+        (let ((form (car entry))
+              (*package* (cdr entry)))
+          (when (parallel-compile-job-p form)
+            (setf form (finish-parallel-compile-job form)))
+          (dump-form form *fasl-stream*)
+          (%stream-terpri *fasl-stream*))))))
+
+(defun cancel-parallel-compile-jobs ()
+  (dolist (entry *pending-output*)
+    (when (parallel-compile-job-p (car entry))
+      (threads:future-cancel (job-future (car entry)))))
+  (setf *pending-output* nil))
+
 (declaim (ftype (function (t t t) t) process-toplevel-defun))
 (defun process-toplevel-defun (form stream compile-time-too)
   (declare (ignore stream))
@@ -490,61 +752,35 @@ interpreted toplevel form, non-NIL if it is 'simple enough'."
   (let* ((name (second form))
          (block-name (fdefinition-block-name name))
          (lambda-list (third form))
-         (body (nthcdr 3 form)))
+         (body (nthcdr 3 form))
+         (pool (and (not compile-time-too) (compile-file-thread-pool))))
     (jvm::with-saved-compiler-policy
         (multiple-value-bind (body decls doc)
             (parse-body body)
           (let* ((expr `(lambda ,lambda-list
                           ,@decls (block ,block-name ,@body)))
                  (saved-class-number *class-number*)
-                 (classfile (next-classfile))
-                 (internal-compiler-errors nil)
-                 (result (with-open-file
-                             (f classfile
-                                :direction :output
-                                :element-type '(unsigned-byte 8)
-                                :if-exists :supersede)
-                           (handler-bind
-                               ((internal-compiler-error
-                                 #'(lambda (e)
-                                     (push e internal-compiler-errors)
-                                     (continue))))
-                             (report-error
-                              (jvm:compile-defun name expr *compile-file-environment*
-                                                 classfile f nil)))))
-                 (compiled-function (if (not internal-compiler-errors)
-                                        (verify-load classfile)
-                                        nil)))
-            (declare (ignore result))
-            (cond
-              ((and (not internal-compiler-errors)
-                    compiled-function)
-               (when compile-time-too
-                 (eval form))
-               (setf form
-                     `(fset ',name
-                            (sys::get-fasl-function *fasl-loader*
-                                                    ,saved-class-number)
-                            ,*source-position*
-                            ',lambda-list
-                            ,doc)))
-              (t
-               (compiler-warn "Unable to compile function ~A.  Using interpreted form instead.~%" name)
-               (when internal-compiler-errors
-                 (dolist (e internal-compiler-errors)
-                   (format *error-output*
-                           "; ~A~%" e)))
-               (let ((precompiled-function
-                      (precompiler:precompile-form expr nil
-                                                   *compile-file-environment*)))
-                 (setf form
-                       `(fset ',name
-                              ,precompiled-function
-                              ,*source-position*
-                              ',lambda-list
-                              ,doc)))
-               (when compile-time-too
-                 (eval form)))))
+                 (classfile (next-classfile)))
+            (if pool
+                (let* ((expr (precompiler:precompile-form
+                              expr t *compile-file-environment*))
+                       (job (make-parallel-compile-job
+                             :name name
+                             :expr expr
+                             :lambda-list lambda-list
+                             :doc doc
+                             :class-number saved-class-number
+                             :classfile classfile
+                             :source-position *source-position*
+                             :error-context *compiler-error-context*
+                             :form form)))
+                  (note-quoted-uninterned-symbols expr)
+                  (setf form (submit-parallel-compile-job job pool)))
+                (setf form
+                      (compile-toplevel-defun form name expr classfile
+                                              saved-class-number
+                                              lambda-list doc
+                                              compile-time-too))))
           (when (and (symbolp name) (eq (get name '%inline) 'INLINE))
             ;; FIXME Need to support SETF functions too!
             (setf (inline-expansion name)
@@ -607,6 +843,17 @@ interpreted toplevel form, non-NIL if it is 'simple enough'."
   (unless (atom form)
     (let* ((operator (%car form))
            (handler (get operator 'toplevel-handler)))
+      (unless (or (null *pending-output*)
+                  (and (not compile-time-too)
+                       (memq handler '(process-toplevel-defun
+                                       process-toplevel-progn
+                                       process-toplevel-locally
+                                       process-toplevel-macrolet
+                                       process-toplevel-eval-when)))
+                  (and (null handler)
+                       (symbolp operator)
+                       (macro-function operator *compile-file-environment*)))
+        (finish-parallel-compile-jobs))
       (when handler
         (let ((out-form (funcall handler form stream compile-time-too)))
           (when out-form
@@ -674,16 +921,19 @@ interpreted toplevel form, non-NIL if it is 'simple enough'."
           ;;; XXX it would be better to just use the recorded number
           ;;; of class constants, but probing for the first at least
           ;;; makes this subjectively bearable.
-          (when (probe-file
-                 (make-pathname :name (format nil "~A_0"
-                                              (pathname-name truename))
-                                :type "clc"
-                                :defaults truename))
-            (dolist (resource (directory
-                               (make-pathname :name (format nil "~A_*"
-                                                            (pathname-name truename))
-                                              :type "clc"
-                                              :defaults truename)))
+          ;;; Local functions compiled in parallel are in class files
+          ;;; named after their top-level function, starting at _1.
+          (when (or (probe-file
+                     (make-pathname :name (format nil "~A_0"
+                                                  (pathname-name truename))
+                                    :type "clc"
+                                    :defaults truename))
+                    (probe-file
+                     (make-pathname :name (format nil "~A_1"
+                                                  (pathname-name truename))
+                                    :type *compile-file-class-extension*
+                                    :defaults truename)))
+            (dolist (resource (local-function-class-files truename))
               (push resource pathnames))))))
     (setf pathnames (nreverse (remove nil pathnames)))
     (let ((load-file (make-pathname :defaults output-file
@@ -757,7 +1007,8 @@ interpreted toplevel form, non-NIL if it is 'simple enough'."
               (jvm::*functions-defined-in-current-file* '())
               (*fbound-names* '())
               (*fasl-stream* out)
-              *forms-for-output*)
+              *forms-for-output*
+              *pending-output*)
           (jvm::with-saved-compiler-policy
             (jvm::with-file-compilation
               (handler-bind
@@ -775,14 +1026,18 @@ interpreted toplevel form, non-NIL if it is 'simple enough'."
                         (declare (ignore c))
                         (setf warnings-p t
                               failure-p t))))
-                (loop
-                   (let* ((*source-position* (file-position in))
-                          (jvm::*source-line-number* (stream-line-number in))
-                          (form (read in nil in))
-                          (*compiler-error-context* form))
-                     (when (eq form in)
-                       (return))
-                     (process-toplevel-form form out nil))))
+                (unwind-protect
+                     (progn
+                       (loop
+                          (let* ((*source-position* (file-position in))
+                                 (jvm::*source-line-number* (stream-line-number in))
+                                 (form (read in nil in))
+                                 (*compiler-error-context* form))
+                            (when (eq form in)
+                              (return))
+                            (process-toplevel-form form out nil)))
+                       (finish-parallel-compile-jobs))
+                  (cancel-parallel-compile-jobs)))
                     (finalize-fasl-output)
                     (dolist (name *fbound-names*)
                       (fmakunbound name)))))))
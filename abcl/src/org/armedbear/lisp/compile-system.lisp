@@ -267,7 +267,90 @@
 ;;
 
 
-(defun %compile-system (&key output-path)
+;;
+;; Compiling independent files in parallel
+;;
+
+(defun compile-system-thread-pool (parallel)
+  "Returns a thread pool for compiling with PARALLEL workers, T meaning
+one per available processor, or NIL when compiling serially."
+  (let ((size (if (eq parallel t)
+                  (java:jcall "availableProcessors"
+                              (java:jstatic "getRuntime" "java.lang.Runtime"))
+                  parallel)))
+    (when (and (integerp size) (> size 1))
+      (threads:make-thread-pool :size size))))
+
+(defun capture-compilation (function file)
+  "Calls FUNCTION on FILE on a pool worker, returning the output and
+the conditions of the compilation for REPLAY-COMPILATION."
+  (let* ((output (make-string-output-stream))
+         (*standard-output* output)
+         (*error-output* output)
+         (conditions '())
+         (defined-functions *defined-functions*)
+         (*handler-clusters* nil))
+    (handler-bind ((warning
+                    #'(lambda (c)
+                        (push (cons c *compiler-error-context*) conditions)
+                        (muffle-warning c)))
+                   (compiler-error
+                    #'(lambda (c)
+                        (push (cons c *compiler-error-context*) conditions)
+                        (throw 'jvm::compile-defun-abort
+                          (funcall jvm::*compiler-error-bailout*)))))
+      (funcall function file))
+    (list (get-output-stream-string output)
+          (nreverse conditions)
+          (ldiff *defined-functions* defined-functions)
+          *undefined-functions*)))
+
+(defun replay-compilation (result)
+  "Reports the compilation captured in RESULT as if it had happened on
+the current thread."
+  (destructuring-bind (output conditions defined-functions undefined-functions)
+      result
+    (write-string output)
+    (dolist (entry conditions)
+      (let ((condition (car entry))
+            (*compiler-error-context* (cdr entry)))
+        (if (typep condition 'warning)
+            (warn condition)
+            (catch 'jvm::compile-defun-abort
+              (let ((jvm::*compiler-error-bailout* (constantly nil)))
+                (signal condition))))))
+    (dolist (name (reverse defined-functions))
+      (note-name-defined name))
+    (dolist (name undefined-functions)
+      (unless (member name *defined-functions* :test #'equal)
+        (pushnew name *undefined-functions* :test #'equal)))))
+
+(defun compile-independent-files (function parallel files)
+  "Calls FUNCTION on each of FILES, in parallel as requested by PARALLEL
+for COMPILE-SYSTEM-THREAD-POOL."
+  (let ((pool (compile-system-thread-pool parallel)))
+    (if pool
+        (unwind-protect
+             (compile-files-in-parallel function files pool)
+          (threads:thread-pool-shutdown pool))
+        (mapc function files))))
+
+(defun compile-files-in-parallel (function files pool)
+  "Calls FUNCTION on each of FILES, which must not depend on each other,
+on the workers of POOL, reporting each compilation in the order of
+FILES."
+  (let ((futures (mapcar #'(lambda (file)
+                             (threads:submit
+                              #'(lambda () (capture-compilation function file))
+                              :pool pool))
+                         files)))
+    (unwind-protect
+         (dolist (future futures)
+           (replay-compilation (threads:future-value future)))
+      (mapc #'threads:future-cancel futures))))
+
+
+(defun %compile-system (&key output-path parallel)
   (let ((*default-pathname-defaults* (pathname *lisp-home*))
         (*warn-on-redefinition* nil)
         (*prevent-fasl-circle-detection* t))
@@ -317,147 +400,148 @@
       (load (do-compile "concatenate.lisp"))
       (load (do-compile "ldb.lisp"))
       (load (do-compile "destructuring-bind.lisp"))
-      ;; But not for these.
-      (mapc #'do-compile '("adjoin.lisp"
-                           "and.lisp"
-                           "apropos.lisp"
-                           "arrays.lisp"
-                           "assert.lisp"
-                           "assoc.lisp"
-                           "aver.lisp"
-                           "bit-array-ops.lisp"
-                           "boole.lisp"
-                           "butlast.lisp"
-                           "byte-io.lisp"
-                           "case.lisp"
-                           "chars.lisp"
-                           "check-type.lisp"
-                           "compile-file-pathname.lisp"
-                           "compile-system.lisp"
-                           "compiler-error.lisp"
-                           "cond.lisp"
-                           "copy-seq.lisp"
-                           "copy-symbol.lisp"
-                           "count.lisp"
-                           "digest.lisp"
-                           "debug.lisp"
-                           "define-modify-macro.lisp"
-                           "define-symbol-macro.lisp"
-                           "defmacro.lisp"
-                           "defpackage.lisp"
-                           "defsetf.lisp"
-                           "deftype.lisp"
-                           "delete-duplicates.lisp"
-                           "deposit-field.lisp"
-                           "describe.lisp"
-                           "describe-compiler-policy.lisp"
-                           "directory.lisp"
-                           "disassemble.lisp"
-                           "do-all-symbols.lisp"
-                           "do-external-symbols.lisp"
-                           "do-symbols.lisp"
-                           "do.lisp"
-                           "documentation.lisp"
-                           "dolist.lisp"
-                           "dotimes.lisp"
-                           "dribble.lisp"
-                           "dump-class.lisp"
-                           "ed.lisp"
-                           "enough-namestring.lisp"
-                           "ensure-directories-exist.lisp"
-                           "error.lisp"
-                           "extensible-sequences.lisp"
-                           "fasl-concat.lisp"
-                           "featurep.lisp"
-                           "fdefinition.lisp"
-                           "fill.lisp"
-                           "find-all-symbols.lisp"
-                           "gentemp.lisp"
-                           "gray-streams.lisp"
-                           "gui.lisp"
-                           "inline.lisp"
-                           "inspect.lisp"
-                           "java.lisp"
-                           "java-collections.lisp"
-                           "known-functions.lisp"
-                           "known-symbols.lisp"
-                           "late-setf.lisp"
-                           "lcm.lisp"
-                           "ldiff.lisp"
-                           "list-length.lisp"
-                           "list.lisp"
-                           "load.lisp"
-                           "make-hash-table.lisp"
-                           "make-load-form-saving-slots.lisp"
-                           "make-sequence.lisp"
-                           "make-string-output-stream.lisp"
-                           "make-string.lisp"
-                           "map-into.lisp"
-                           "map.lisp"
-                           "map1.lisp"
-                           "mask-field.lisp"
-                           "member-if.lisp"
-                           "mismatch.lisp"
-                           "multiple-value-bind.lisp"
-                           "multiple-value-list.lisp"
-                           "multiple-value-setq.lisp"
-                           "nsubstitute.lisp"
-                           "nth-value.lisp"
-                           "numbers.lisp"
-                           "or.lisp"
-                           "parse-integer.lisp"
-                           "parse-lambda-list.lisp"
-                           "package.lisp"
-                           "pathnames.lisp"
-                           "print-object.lisp"
-                           "print-unreadable-object.lisp"
-                           "proclaim.lisp"
-                           "profiler.lisp"
-                           "prog.lisp"
-                           "psetf.lisp"
-                           "query.lisp"
-                           "read-circle.lisp"
-                           "read-conditional.lisp"
-                           "read-from-string.lisp"
-                           "read-sequence.lisp"
-                           "reduce.lisp"
-                           "remf.lisp"
-                           "remove-duplicates.lisp"
-                           "remove.lisp"
-                           "replace.lisp"
-                           "restart.lisp"
-                           "revappend.lisp"
-                           "rotatef.lisp"
-                           "run-program.lisp"
-                           "run-shell-command.lisp"
-                           "runtime-class.lisp"
-                           "search.lisp"
-                           "sequences.lisp"
-                           "sets.lisp"
-                           "shiftf.lisp"
-                           "signal.lisp"
-                           "socket.lisp"
-                           "sort.lisp"
-                           "step.lisp"
-                           "strings.lisp"
-                           "sublis.lisp"
-                           "subst.lisp"
-                           "tailp.lisp"
-                           "threads.lisp"
-                           "time.lisp"
-                           "top-level.lisp"
-                           "trace.lisp"
-                           "tree-equal.lisp"
-                           "upgraded-complex-part-type.lisp"
-                           "with-accessors.lisp"
-                           "with-hash-table-iterator.lisp"
-                           "with-input-from-string.lisp"
-                           "with-open-file.lisp"
-                           "with-output-to-string.lisp"
-                           "with-package-iterator.lisp"
-                           "with-slots.lisp"
-                           "with-standard-io-syntax.lisp"
-                           "write-sequence.lisp"))
+      ;; But not for these, so they may be compiled in parallel.
+      (compile-independent-files #'do-compile parallel
+                                 '("adjoin.lisp"
+                                   "and.lisp"
+                                   "apropos.lisp"
+                                   "arrays.lisp"
+                                   "assert.lisp"
+                                   "assoc.lisp"
+                                   "aver.lisp"
+                                   "bit-array-ops.lisp"
+                                   "boole.lisp"
+                                   "butlast.lisp"
+                                   "byte-io.lisp"
+                                   "case.lisp"
+                                   "chars.lisp"
+                                   "check-type.lisp"
+                                   "compile-file-pathname.lisp"
+                                   "compile-system.lisp"
+                                   "compiler-error.lisp"
+                                   "cond.lisp"
+                                   "copy-seq.lisp"
+                                   "copy-symbol.lisp"
+                                   "count.lisp"
+                                   "digest.lisp"
+                                   "debug.lisp"
+                                   "define-modify-macro.lisp"
+                                   "define-symbol-macro.lisp"
+                                   "defmacro.lisp"
+                                   "defpackage.lisp"
+                                   "defsetf.lisp"
+                                   "deftype.lisp"
+                                   "delete-duplicates.lisp"
+                                   "deposit-field.lisp"
+                                   "describe.lisp"
+                                   "describe-compiler-policy.lisp"
+                                   "directory.lisp"
+                                   "disassemble.lisp"
+                                   "do-all-symbols.lisp"
+                                   "do-external-symbols.lisp"
+                                   "do-symbols.lisp"
+                                   "do.lisp"
+                                   "documentation.lisp"
+                                   "dolist.lisp"
+                                   "dotimes.lisp"
+                                   "dribble.lisp"
+                                   "dump-class.lisp"
+                                   "ed.lisp"
+                                   "enough-namestring.lisp"
+                                   "ensure-directories-exist.lisp"
+                                   "error.lisp"
+                                   "extensible-sequences.lisp"
+                                   "fasl-concat.lisp"
+                                   "featurep.lisp"
+                                   "fdefinition.lisp"
+                                   "fill.lisp"
+                                   "find-all-symbols.lisp"
+                                   "gentemp.lisp"
+                                   "gray-streams.lisp"
+                                   "gui.lisp"
+                                   "inline.lisp"
+                                   "inspect.lisp"
+                                   "java.lisp"
+                                   "java-collections.lisp"
+                                   "known-functions.lisp"
+                                   "known-symbols.lisp"
+                                   "late-setf.lisp"
+                                   "lcm.lisp"
+                                   "ldiff.lisp"
+                                   "list-length.lisp"
+                                   "list.lisp"
+                                   "load.lisp"
+                                   "make-hash-table.lisp"
+                                   "make-load-form-saving-slots.lisp"
+                                   "make-sequence.lisp"
+                                   "make-string-output-stream.lisp"
+                                   "make-string.lisp"
+                                   "map-into.lisp"
+                                   "map.lisp"
+                                   "map1.lisp"
+                                   "mask-field.lisp"
+                                   "member-if.lisp"
+                                   "mismatch.lisp"
+                                   "multiple-value-bind.lisp"
+                                   "multiple-value-list.lisp"
+                                   "multiple-value-setq.lisp"
+                                   "nsubstitute.lisp"
+                                   "nth-value.lisp"
+                                   "numbers.lisp"
+                                   "or.lisp"
+                                   "parse-integer.lisp"
+                                   "parse-lambda-list.lisp"
+                                   "package.lisp"
+                                   "pathnames.lisp"
+                                   "print-object.lisp"
+                                   "print-unreadable-object.lisp"
+                                   "proclaim.lisp"
+                                   "profiler.lisp"
+                                   "prog.lisp"
+                                   "psetf.lisp"
+                                   "query.lisp"
+                                   "read-circle.lisp"
+                                   "read-conditional.lisp"
+                                   "read-from-string.lisp"
+                                   "read-sequence.lisp"
+                                   "reduce.lisp"
+                                   "remf.lisp"
+                                   "remove-duplicates.lisp"
+                                   "remove.lisp"
+                                   "replace.lisp"
+                                   "restart.lisp"
+                                   "revappend.lisp"
+                                   "rotatef.lisp"
+                                   "run-program.lisp"
+                                   "run-shell-command.lisp"
+                                   "runtime-class.lisp"
+                                   "search.lisp"
+                                   "sequences.lisp"
+                                   "sets.lisp"
+                                   "shiftf.lisp"
+                                   "signal.lisp"
+                                   "socket.lisp"
+                                   "sort.lisp"
+                                   "step.lisp"
+                                   "strings.lisp"
+                                   "sublis.lisp"
+                                   "subst.lisp"
+                                   "tailp.lisp"
+                                   "threads.lisp"
+                                   "time.lisp"
+                                   "top-level.lisp"
+                                   "trace.lisp"
+                                   "tree-equal.lisp"
+                                   "upgraded-complex-part-type.lisp"
+                                   "with-accessors.lisp"
+                                   "with-hash-table-iterator.lisp"
+                                   "with-input-from-string.lisp"
+                                   "with-open-file.lisp"
+                                   "with-output-to-string.lisp"
+                                   "with-package-iterator.lisp"
+                                   "with-slots.lisp"
+                                   "with-standard-io-syntax.lisp"
+                                   "write-sequence.lisp"))
 
       ;; Compile ASDF after the whole ANSI system has been
       ;; constructed.
@@ -483,7 +567,10 @@
         :extract nil))
     t))
 
-(defun compile-system (&key quit (zip t) (cls-ext *compile-file-class-extension*) (abcl-ext *compile-file-type*) output-path)
+(defun compile-system (&key quit (zip t) (cls-ext *compile-file-class-extension*) (abcl-ext *compile-file-type*) output-path parallel)
+  "Compiles the Lisp files of the system to OUTPUT-PATH.  PARALLEL, T
+for one thread per available processor or a number of threads, makes
+the files which don't depend on each other compile in parallel."
   (let ((status -1)
 	(*compile-file-class-extension* cls-ext)
 	(*compile-file-type* abcl-ext))
@@ -500,7 +587,7 @@
                              ;; only register that we had this type of signal
                              ;; defer the actual handling to another handler
                              nil)))
-           (%compile-system :output-path output-path))
+           (%compile-system :output-path output-path :parallel parallel))
          (unless failure-p
            (setf status 0)))))
     (create-system-logical-translations output-path)
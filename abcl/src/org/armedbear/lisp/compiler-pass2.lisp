@@ -819,7 +819,7 @@ stores the value in a register."
 (defknown emit-unbox-double () t)
 (defun emit-unbox-double ()
   (declare (optimize speed))
-  (cond ((= *safety* 3)
+  (cond ((> *safety* 0)
          (emit-invokestatic +lisp-double-float+ "getValue"
                             (lisp-object-arg-types 1) :double))
         (t
@@ -1197,14 +1197,12 @@ extend the class any further."
      (emit 'ldc (pool-string string))
      (emit-invokespecial-init +lisp-simple-string+ (list +java-string+)))
     (t
-     (serialize-object string))))
+     (serialize-object string)
+     (emit-checkcast +lisp-abstract-string+))))
 
 (defun serialize-package (pkg)
   "Generate code to restore a serialized package."
-  (emit 'ldc (pool-string (concatenate 'string "#.(CL:FIND-PACKAGE \""
-                                       (package-name pkg) "\")")))
-  (emit-invokestatic +lisp+ "readObjectFromString"
-                     (list +java-string+) +lisp-object+))
+  (serialize-object pkg))
 
 (defun compiland-external-constant-resource-name (compiland)
   (let ((resource-number (compiland-next-resource compiland))
@@ -1215,9 +1213,51 @@ extend the class any further."
                    :type "clc"
                    :defaults pathname)))
 
+(defun modified-utf8-length (octets)
+  "The length of a string constant holding one character per octet in
+OCTETS, as encoded in the class file."
+  (loop for octet across octets
+     sum (if (<= 1 octet #x7F) 1 2)))
+
+(defun serialize-constant-octets (octets)
+  "Generate code to restore an object from OCTETS, as returned by
+DUMP-CONSTANT."
+  (cond
+    ((< (modified-utf8-length octets) #xFFFF)
+     (let ((s (make-string (length octets))))
+       (dotimes (i (length octets))
+         (setf (schar s i) (code-char (aref octets i))))
+       (emit 'ldc (pool-string s)))
+     (emit-invokestatic +lisp-constant-decoder+ "decode"
+                        (list +java-string+) +lisp-object+))
+    (t
+     (emit 'ldc_w (pool-class *this-class*))
+     (let ((pathname
+            (compiland-external-constant-resource-name *current-compiland*)))
+       (with-open-file (f pathname
+                          :direction :output
+                          :element-type '(unsigned-byte 8)
+                          :if-exists :supersede
+                          :if-does-not-exist :create)
+         (write-sequence octets f))
+       (emit 'ldc (pool-string
+                   (namestring (make-pathname :name (pathname-name pathname)
+                                              :type (pathname-type pathname)
+                                              :version nil)))))
+     (emit-invokevirtual +java-class+ "getResourceAsStream"
+                         (list +java-string+)
+                         +java-io-input-stream+)
+     (emit-invokestatic +lisp-constant-decoder+ "decode"
+                        (list +java-io-input-stream+)
+                        +lisp-object+))))
+
 (defun serialize-object (object)
   "Generate code to restore a serialized object which is not of any
 of the other types."
+  (let ((octets (dump-constant object)))
+    (when octets
+      (serialize-constant-octets octets)
+      (return-from serialize-object)))
   (let ((s (with-output-to-string (stream)
              (dump-form object stream))))
     (cond
@@ -1447,7 +1487,12 @@ the constructor if `*declare-inline*' is non-nil.
       (emit-putstatic *this-class* g +lisp-object+))
     g))
 
+(defvar *load-time-value-declared* nil
+  "Set when the code being compiled evaluates a LOAD-TIME-VALUE form
+while its class is initialized.")
+
 (defun declare-load-time-value (obj)
+  (setf *load-time-value-declared* t)
   (let ((g (symbol-name (gensym "LTV")))
         (s (with-output-to-string (stream) (dump-form obj stream))))
      (with-code-to-method
@@ -2095,6 +2140,14 @@ itself is *not* compiled by this function."
         (return-type +lisp-object+))
     (emit-invokevirtual +lisp-thread+ "execute" arg-types return-type)))
 
+;; Off by default: code compiled with it calls
+;; Symbol.getSymbolFunctionOrSelf(), so its FASLs don't load into
+;; images older than that method.
+(defvar *call-site-dispatch* nil
+  "When true, full calls to global functions compiled where SPEED is
+greater than DEBUG fetch the function from its symbol and call it
+directly, giving each call site a type profile of its own.")
+
 (defknown compile-function-call (t t t) t)
 (defun compile-function-call (form target representation)
   (let ((op (car form))
@@ -2130,8 +2183,19 @@ itself is *not* compiled by this function."
              (if (notinline-p op)
                  (emit-load-externalized-object op)
                  (aload 0)))
+            ((or (not *call-site-dispatch*)
+                 (<= *speed* *debug*) *require-stack-frame*)
+             (emit-load-externalized-object op))
             (t
-             (emit-load-externalized-object op)))
+             ;; Call the function itself rather than going through
+             ;; Symbol.execute(), so that each call site is profiled,
+             ;; and can be inlined, separately.  The function cell is
+             ;; still read on every call, so redefinitions take effect.
+             ;; (An invokedynamic call site would need version 51 class
+             ;; files with stack map frames, which we don't emit.)
+             (emit-load-externalized-object op)
+             (emit-invokevirtual +lisp-symbol+ "getSymbolFunctionOrSelf"
+                                 nil +lisp-object+)))
       (process-args args
                     (if (or (<= *speed* *debug*) *require-stack-frame*)
                         '(nil nil) '(nil)))
@@ -3129,10 +3193,9 @@ given a specific common representation.")
          (emit-push-variable-name variable)
          (emit 'swap)
          (emit-invokevirtual +lisp-thread+ "bindSpecial"
-                             (list +lisp-symbol+ +lisp-object+)
-                             +lisp-special-binding+)
+                             (list +lisp-symbol+ +lisp-object+) :int)
          (if (variable-binding-register variable)
-             (astore (variable-binding-register variable))
+             (emit 'istore (variable-binding-register variable))
              (emit 'pop)))
         ((variable-closure-index variable)              ;; stack:
          (emit-new-closure-binding variable))
@@ -3166,18 +3229,18 @@ given a specific common representation.")
                       (setq clear-values t))))))))
   t)
 
+;; The dynamic environment is the depth of the thread's binding stack,
+;; kept in an int register.
 (defun restore-dynamic-environment (register)
    (emit-push-current-thread)
-   (aload register)
-   (emit-invokevirtual +lisp-thread+ "resetSpecialBindings"
-                       (list +lisp-special-bindings-mark+) nil)
+   (emit 'iload register)
+   (emit-invokevirtual +lisp-thread+ "resetSpecialBindings" '(:int) nil)
   )
 
 (defun save-dynamic-environment (register)
    (emit-push-current-thread)
-   (emit-invokevirtual +lisp-thread+ "markSpecialBindings"
-                       nil +lisp-special-bindings-mark+)
-   (astore register)
+   (emit-invokevirtual +lisp-thread+ "markSpecialBindings" nil :int)
+   (emit 'istore register)
   )
 
 (defun p2-m-v-b-node (block target)
@@ -3334,8 +3397,10 @@ given a specific common representation.")
     (cond ((neq type :none)
            (setf (variable-representation variable)
                  (type-representation type))
-           (unless (memq (variable-representation variable) '(:int :long))
-             ;; We don't support unboxed variables other than INT and LONG (yet)
+           (unless (memq (variable-representation variable)
+                         '(:int :long :double))
+             ;; We don't support unboxed variables other than INT, LONG
+             ;; and DOUBLE (yet)
              (setf (variable-representation variable) NIL)))
           ((zerop (variable-writes variable))
            (when (eq :none (variable-derived-type variable))
@@ -3345,8 +3410,10 @@ given a specific common representation.")
              (setf (variable-derived-type variable) derived-type)
              (setf (variable-representation variable)
                    (type-representation derived-type))
-             (unless (memq (variable-representation variable) '(:int :long))
-               ;; We don't support unboxed variables other than INT and LONG (yet)
+             (unless (memq (variable-representation variable)
+                           '(:int :long :double))
+               ;; We don't support unboxed variables other than INT, LONG
+               ;; and DOUBLE (yet)
                (setf (variable-representation variable) NIL))))
           ((and block
                 (get (variable-name variable) 'sys::dotimes-index-variable-p))
@@ -3406,6 +3473,60 @@ given a specific common representation.")
           (t
            (assert nil)))))
 
+(defun let/locally-value-form (form)
+  "Returns the last body form of the LET, LET* or LOCALLY node `form',
+whose value is the value of the block."
+  (let ((body (if (locally-node-p form)
+                  (cdr (node-form form))
+                  (cddr (node-form form)))))
+    (loop while (and (consp (car body))
+                     (eq (caar body) 'DECLARE))
+       do (setf body (cdr body)))
+    (car (last body))))
+
+(defknown derive-checked-type (t) t)
+(defun derive-checked-type (form)
+  "Returns the type of `form' as far as it's known without trusting type
+declarations, which the compiler doesn't check.
+
+That is the derived type of literals and of arithmetic, which is compiled
+to produce values of that type, and DOUBLE-FLOAT for variables kept
+unboxed in a double, and T otherwise."
+  (cond ((or (numberp form) (characterp form) (stringp form))
+         (derive-compiler-type form))
+        ((var-ref-p form)
+         (let ((variable (var-ref-variable form)))
+           (if (and variable
+                    (eq (variable-representation variable) :double))
+               'DOUBLE-FLOAT
+               t)))
+        ((or (let/let*-node-p form)
+             (locally-node-p form))
+         (derive-checked-type (let/locally-value-form form)))
+        ((and (consp form)
+              (memq (car form) '(+ - * / 1+ 1-)))
+         (derive-compiler-type form))
+        (t
+         t)))
+
+(defknown compile-form-for-variable (t t) t)
+(defun compile-form-for-variable (form variable)
+  "Compiles `form', leaving its value on the stack in the representation
+of `variable'.
+
+Values which aren't known to be DOUBLE-FLOATs are checked when they're
+stored in an unboxed DOUBLE-FLOAT variable: the generic conversion
+would silently coerce rationals."
+  (let ((representation (variable-representation variable)))
+    (cond ((and (eq representation :double)
+                (> *safety* 0)
+                (not (compiler-subtypep (derive-checked-type form)
+                                        'double-float)))
+           (compile-form form 'stack nil)
+           (emit-unbox-double))
+          (t
+           (compile-form form 'stack representation)))))
+
 (defun emit-push-variable (variable)
   (cond ((variable-register variable)
          (emit (ecase (variable-representation variable)
@@ -3465,8 +3586,7 @@ given a specific common representation.")
                (cond (initform
                       (when (eq (variable-register variable) t)
                         (derive-variable-representation variable block))
-                      (compile-form initform 'stack
-                                    (variable-representation variable))
+                      (compile-form-for-variable initform variable)
                       (unless must-clear-values
                         (unless (single-valued-p initform)
                           (setf must-clear-values t))))
@@ -3525,10 +3645,9 @@ given a specific common representation.")
                  (emit-push-variable-name variable)
                  (emit-invokevirtual +lisp-thread+
                                      "bindSpecialToCurrentValue"
-                                     (list +lisp-symbol+)
-                                     +lisp-special-binding+)
+                                     (list +lisp-symbol+) :int)
                  (if (variable-binding-register variable)
-                     (astore (variable-binding-register variable))
+                     (emit 'istore (variable-binding-register variable))
                      (emit 'pop))
                  (setf boundp t))
                 ((and (not (variable-special-p variable))
@@ -3562,8 +3681,7 @@ given a specific common representation.")
                                 (derive-compiler-type initform)))
                         (derive-variable-representation variable block)
                         (allocate-variable-register variable)
-                        (compile-form initform 'stack
-                                      (variable-representation variable))
+                        (compile-form-for-variable initform variable)
                         (update-must-clear-values)
                         (emit-move-to-variable variable)
                         (setf boundp t))
@@ -4796,22 +4914,50 @@ given a specific common representation.")
       (t
        (compile-function-call form target representation)))))
 
+(defun constant-slot-name (form)
+  "Returns the slot name when FORM is a quoted symbol or a keyword."
+  (cond ((keywordp form)
+         form)
+        ((and (consp form)
+              (eq (%car form) 'QUOTE)
+              (consp (%cdr form))
+              (symbolp (second form)))
+         (second form))))
+
+(defun emit-load-slot-location-cache (slot-name)
+  "Pushes a SlotLocationCache for `slot-name', created once per call site."
+  (let ((form `(make-slot-location-cache ',slot-name)))
+    (if *file-compilation*
+        (emit-getstatic *this-class*
+                        (declare-load-time-value form) +lisp-object+)
+        (emit-load-externalized-object (eval form))))
+  (emit-checkcast +lisp-slot-location-cache+))
+
 (defknown p2-std-slot-value (t t t) t)
 (define-inlined-function p2-std-slot-value (form target representation)
   ((check-arg-count form 2))
   (let* ((args (cdr form))
          (arg1 (first args))
-         (arg2 (second args)))
-    (with-operand-accumulation
-        ((compile-operand arg1 nil)
-         (compile-operand arg2 nil)))
-    (maybe-emit-clear-values arg1 arg2)
-    (emit-invokevirtual +lisp-object+ "SLOT_VALUE"
-                        (lisp-object-arg-types 1) +lisp-object+)
+         (arg2 (second args))
+         (slot-name (constant-slot-name arg2)))
+    (cond (slot-name
+           ;; The cache finds the slot index by the instance's layout,
+           ;; falling back to the layout's slot table on a miss.
+           (compile-forms-and-maybe-emit-clear-values arg1 'stack nil)
+           (emit-load-slot-location-cache slot-name)
+           (emit 'swap)
+           (emit-invokevirtual +lisp-slot-location-cache+ "getValue"
+                               (lisp-object-arg-types 1) +lisp-object+))
+          (t
+           (with-operand-accumulation
+               ((compile-operand arg1 nil)
+                (compile-operand arg2 nil)))
+           (maybe-emit-clear-values arg1 arg2)
+           (emit-invokevirtual +lisp-object+ "SLOT_VALUE"
+                               (lisp-object-arg-types 1) +lisp-object+)))
     (fix-boxing representation nil)
     (emit-move-from-stack target representation)))
 
-;; set-std-slot-value instance slot-name new-value => new-value
 (defknown p2-set-std-slot-value (t t t) t)
 (define-inlined-function p2-set-std-slot-value (form target representation)
   ((check-arg-count form 3))
@@ -4819,18 +4965,34 @@ given a specific common representation.")
          (arg1 (first args))
          (arg2 (second args))
          (arg3 (third args))
+         (slot-name (constant-slot-name arg2))
          (*register* *register*)
          (value-register (when target (allocate-register nil))))
-    (with-operand-accumulation
-        ((compile-operand arg1 nil)
-         (compile-operand arg2 nil)
-         (compile-operand arg3 nil)))
-    (when value-register
-      (emit 'dup)
-      (astore value-register))
-    (maybe-emit-clear-values arg1 arg2 arg3)
-    (emit-invokevirtual +lisp-object+ "setSlotValue"
-                        (lisp-object-arg-types 2) nil)
+    (cond (slot-name
+           (with-operand-accumulation
+               ((compile-operand arg1 nil)
+                (compile-operand arg3 nil)))
+           (when value-register
+             (emit 'dup)
+             (astore value-register))
+           (maybe-emit-clear-values arg1 arg3)
+           ;; instance value -> cache instance value
+           (emit-load-slot-location-cache slot-name)
+           (emit 'dup_x2)
+           (emit 'pop)
+           (emit-invokevirtual +lisp-slot-location-cache+ "setValue"
+                               (lisp-object-arg-types 2) nil))
+          (t
+           (with-operand-accumulation
+               ((compile-operand arg1 nil)
+                (compile-operand arg2 nil)
+                (compile-operand arg3 nil)))
+           (when value-register
+             (emit 'dup)
+             (astore value-register))
+           (maybe-emit-clear-values arg1 arg2 arg3)
+           (emit-invokevirtual +lisp-object+ "setSlotValue"
+                               (lisp-object-arg-types 2) nil)))
     (when value-register
       (aload value-register)
       (fix-boxing representation nil)
@@ -5353,6 +5515,9 @@ for use with derive-type-times.")
                     (if (eq type '*)
                         t
                         type)))))))
+        ((or (let/let*-node-p form)
+             (locally-node-p form))
+         (derive-type (let/locally-value-form form)))
         ((null form)
          'NULL)
         ((integerp form)
@@ -5955,41 +6120,89 @@ We need more thought here.
         (t
          (compile-function-call form target representation))))
 
+(defvar specialized-vector-classes
+  (list (cons '(unsigned-byte 8) +lisp-basic-vector-unsigned-byte-8+)
+        (cons '(unsigned-byte 16) +lisp-basic-vector-unsigned-byte-16+)
+        (cons '(unsigned-byte 32) +lisp-basic-vector-unsigned-byte-32+)
+        (cons '(unsigned-byte 64) +lisp-basic-vector-unsigned-byte-64+)
+        (cons '(signed-byte 8) +lisp-basic-vector-signed-byte-8+)
+        (cons '(signed-byte 16) +lisp-basic-vector-signed-byte-16+)
+        (cons '(signed-byte 32) +lisp-basic-vector-signed-byte-32+)
+        (cons '(signed-byte 64) +lisp-basic-vector-signed-byte-64+)
+        (cons 'double-float +lisp-basic-vector-double-float+)
+        (cons 'single-float +lisp-basic-vector-single-float+)))
+
+(defun specialized-vector-class (type)
+  "Returns the class of the simple vectors of compiler type `type'
+when they are all represented by the same specialized BasicVector class,
+NIL otherwise.
+
+Casting to that class lets the JVM bind element accesses directly to the
+final class's methods, so we only do it when `*safety*' permits trusting
+the declaration."
+  (when (< *safety* 3)
+    (let ((type (normalize-type type)))
+      (when (and (consp type)
+                 (eq (%car type) 'SIMPLE-ARRAY)
+                 (let ((dimensions (third type)))
+                   (or (eql dimensions 1)
+                       (and (consp dimensions) (null (cdr dimensions))))))
+        (let ((element-type (second type)))
+          (unless (eq element-type '*)
+            (cdr (assoc (upgraded-array-element-type element-type)
+                        specialized-vector-classes :test #'equal))))))))
+
 (defun p2-aref (form target representation)
   ;; We only optimize the 2-arg case.
   (case (length form)
     (3
      (let* ((arg1 (%cadr form))
             (arg2 (%caddr form))
-            (type1 (derive-compiler-type arg1)))
+            (type1 (derive-compiler-type arg1))
+            (class (cond ((compiler-subtypep type1 'string)
+                          +lisp-abstract-string+)
+                         ((specialized-vector-class type1)))))
        (with-operand-accumulation
-            ((compile-operand arg1 nil
-                              (when (compiler-subtypep type1 'string)
-                                +lisp-abstract-string+))
+            ((compile-operand arg1 nil class)
              (compile-operand arg2 :int)
              (maybe-emit-clear-values arg1 arg2))
           (ecase representation
             (:int
-             (emit-invokevirtual +lisp-object+ "aref" '(:int) :int))
+             (emit-invokevirtual (or class +lisp-object+)
+                                 "aref" '(:int) :int))
             (:long
-             (emit-invokevirtual +lisp-object+ "aref_long" '(:int) :long))
+             (emit-invokevirtual (or class +lisp-object+)
+                                 "aref_long" '(:int) :long))
+            (:float
+             (emit-invokevirtual (or class +lisp-object+)
+                                 "aref_float" '(:int) :float))
+            (:double
+             (emit-invokevirtual (or class +lisp-object+)
+                                 "aref_double" '(:int) :double))
             (:char
              (cond ((compiler-subtypep type1 'string)
                     (emit-invokevirtual +lisp-abstract-string+
                                         "charAt" '(:int) :char))
                    (t
-                    (emit-invokevirtual +lisp-object+
+                    (emit-invokevirtual (or class +lisp-object+)
                                         "AREF" '(:int) +lisp-object+)
                     (emit-unbox-character))))
-            ((nil :float :double :boolean)
-             ;;###FIXME for float and double, we probably want
-             ;; separate java methods to retrieve the values.
-             (emit-invokevirtual +lisp-object+ "AREF" '(:int) +lisp-object+)
+            ((nil :boolean)
+             (emit-invokevirtual (or class +lisp-object+)
+                                 "AREF" '(:int) +lisp-object+)
              (convert-representation nil representation))))
        (emit-move-from-stack target representation)))
     (t
      (compile-function-call form target representation))))
 
+(defun aset-value-representation (type)
+  "Returns the representation in which a value of compiler type `type'
+can be passed to one of the specialized `aset' methods, or NIL."
+  (cond ((fixnum-type-p type) :int)
+        ((java-long-type-p type) :long)
+        ((compiler-subtypep type 'double-float) :double)
+        ((compiler-subtypep type 'single-float) :float)))
+
 (defun p2-aset (form target representation)
   ;; We only optimize the 3-arg case.
   (cond ((= (length form) 4)
@@ -5998,43 +6211,40 @@ We need more thought here.
                 (arg2 (second args))
                 (arg3 (third args))
                 (type3 (derive-compiler-type arg3))
+                (class (specialized-vector-class
+                        (derive-compiler-type arg1)))
+                (value-representation (aset-value-representation type3))
                 (*register* *register*)
-                (value-register (unless (null target) (allocate-register nil))))
+                (value-register (unless (null target)
+                                  (allocate-register value-representation))))
            (with-operand-accumulation
                (
            ;; array
-                (compile-operand arg1 nil)
+                (compile-operand arg1 nil class)
            ;; index
                 (compile-operand arg2 :int)
            ;; value
                 (accumulate-operand
-                         ((when (fixnum-type-p type3) :int)
+                         (value-representation
                           :unsafe-p (some-nested-block
                                      #'node-opstack-unsafe-p
                                      (find-enclosed-blocks arg3)))
-                   (cond ((fixnum-type-p type3)
-                          (compile-form arg3 'stack :int)
-                          (when value-register
-                            (emit 'dup)
-                            (emit-move-from-stack value-register :int)))
-                         (t
-                          (compile-form arg3 'stack nil)
-                          (when value-register
-                            (emit 'dup)
-                            (emit-move-from-stack value-register nil)))))))
+                   (compile-form arg3 'stack value-representation)
+                   (when value-register
+                     (emit (if (memq value-representation '(:long :double))
+                               'dup2 'dup))
+                     (emit-move-from-stack value-register
+                                           value-representation)))))
            (maybe-emit-clear-values arg1 arg2 arg3)
-           (cond ((fixnum-type-p type3)
-                  (emit-invokevirtual +lisp-object+ "aset" '(:int :int) nil))
-                 (t
-                  (emit-invokevirtual +lisp-object+ "aset"
-                                      (list :int +lisp-object+) nil)))
+           (emit-invokevirtual (or class +lisp-object+) "aset"
+                               (list :int (or value-representation
+                                              +lisp-object+))
+                               nil)
            (when value-register
-             (cond ((fixnum-type-p type3)
-                    (emit 'iload value-register)
-                    (convert-representation :int representation))
-                   (t
-                    (aload value-register)
-                    (fix-boxing representation type3)))
+             (emit-push-register value-register value-representation)
+             (if value-representation
+                 (convert-representation value-representation representation)
+                 (fix-boxing representation type3))
              (emit-move-from-stack target representation))))
         (t
          (compile-function-call form target representation))))
@@ -6329,9 +6539,10 @@ We need more thought here.
                 (eq (variable-compiland variable) *current-compiland*)
                 (not (enclosed-by-runtime-bindings-creating-block-p
                       (variable-block variable))))
-           (aload (variable-binding-register variable))
-           (emit-getfield +lisp-special-binding+ "value"
-                 +lisp-object+))
+           (emit-push-current-thread)
+           (emit 'iload (variable-binding-register variable))
+           (emit-invokevirtual +lisp-thread+ "getSpecialValue" '(:int)
+                               +lisp-object+))
           (t
            (emit-push-current-thread)
            (emit-invokevirtual +lisp-symbol+ "symbolValue"
@@ -6394,10 +6605,12 @@ We need more thought here.
              ;; with-operand-accumulation
              (compile-forms-and-maybe-emit-clear-values value-form 'stack nil)
              (emit 'dup)
-             (aload (variable-binding-register variable))
+             (emit-push-current-thread)
              (emit 'swap)
-             (emit-putfield +lisp-special-binding+ "value"
-                   +lisp-object+))
+             (emit 'iload (variable-binding-register variable))
+             (emit 'swap)
+             (emit-invokevirtual +lisp-thread+ "setSpecialValue"
+                                 (list :int +lisp-object+) nil))
             ((and (consp value-form)
                   (eq (first value-form) 'CONS)
                   (= (length value-form) 3)
@@ -6490,7 +6703,8 @@ We need more thought here.
           (t
            (let ((rep (variable-representation variable)))
              (dformat t "p2-setq ~A case value-form = ~S~%" rep value-form)
-             (compile-forms-and-maybe-emit-clear-values value-form 'stack rep)
+             (compile-form-for-variable value-form variable)
+             (maybe-emit-clear-values value-form)
              (when target
                (emit-dup rep))
              (emit-move-to-variable variable)
@@ -6602,6 +6816,22 @@ We need more thought here.
           (t
            (compile-form value-form target representation)))))
 
+(defknown p2-require-type (t t t) t)
+(define-inlined-function p2-require-type (form target representation)
+  ((check-arg-count form 2))
+  (let ((arg (second form))
+        (type-form (third form)))
+    (cond ((and (< *safety* 3)
+                (consp type-form)
+                (eq (car type-form) 'QUOTE)
+                (compiler-subtypep (derive-checked-type arg)
+                                   (second type-form)))
+           ;; The type check which P1-THE generates at safety 1 and 2 is
+           ;; known to succeed: keep the value in its unboxed representation.
+           (compile-form arg target representation))
+          (t
+           (compile-function-call form target representation)))))
+
 (defun p2-truly-the (form target representation)
   (compile-form (third form) target representation))
 
@@ -7068,12 +7298,15 @@ We need more thought here.
                (not (variable-used-non-locally-p variable))
                (null (compiland-children *current-compiland*)))
       (when (memq (type-representation (variable-declared-type variable))
-                  '(:int :long))
+                  '(:int :long :double))
         (emit-push-variable variable)
         (derive-variable-representation variable nil)
         (when (< 1 (representation-size (variable-representation variable)))
           (allocate-variable-register variable))
-        (convert-representation nil (variable-representation variable))
+        (if (and (eq (variable-representation variable) :double)
+                 (> *safety* 0))
+            (emit-unbox-double)
+            (convert-representation nil (variable-representation variable)))
         (emit-move-to-variable variable))))
   t)
 
@@ -7247,9 +7480,8 @@ We need more thought here.
                      (emit 'aaload)
                      (setf (variable-index variable) nil)))
               (emit-invokevirtual +lisp-thread+ "bindSpecial"
-                                  (list +lisp-symbol+ +lisp-object+)
-                                  +lisp-special-binding+)
-              (astore (variable-binding-register variable)))))
+                                  (list +lisp-symbol+ +lisp-object+) :int)
+              (emit 'istore (variable-binding-register variable)))))
 
         (compile-progn-body body 'stack))
 
@@ -7674,6 +7906,7 @@ generated class."
   (install-p2-handler 'quote               'p2-quote)
   (install-p2-handler 'read-line           'p2-read-line)
   (install-p2-handler 'readtablep          'p2-readtablep)
+  (install-p2-handler 'require-type        'p2-require-type)
   (install-p2-handler 'return-from         'p2-return-from)
   (install-p2-handler 'rplacd              'p2-rplacd)
   (install-p2-handler 'schar               'p2-char/schar)
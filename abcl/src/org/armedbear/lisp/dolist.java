@@ -53,7 +53,7 @@ public final class dolist extends SpecialOperator
     LispObject listForm = args.cadr();
     final LispThread thread = LispThread.currentThread();
     LispObject resultForm = args.cdr().cdr().car();
-    final SpecialBindingsMark mark = thread.markSpecialBindings();
+    final int mark = thread.markSpecialBindings();
     // Process declarations.
     LispObject bodyAndDecls = parseBody(bodyForm, false);
     LispObject specials = parseSpecials(bodyAndDecls.NTH(1));
@@ -71,17 +71,17 @@ public final class dolist extends SpecialOperator
         LispObject remaining = bodyForm;
         LispObject localTags = preprocessTagBody(bodyForm, ext);
 
-        final Object binding;
+        // A binding of var: in ext when lexical, else at specialIndex.
+        Binding binding = null;
+        int specialIndex = 0;
         if (specials != NIL && memq(var, specials))
           {
-            thread.bindSpecial(var, null);
-            binding = thread.getSpecialBinding(var);
+            specialIndex = thread.bindSpecial(var, null);
             ext.declareSpecial(var);
           }
         else if (var.isSpecialVariable())
           {
-            thread.bindSpecial(var, null);
-            binding = thread.getSpecialBinding(var);
+            specialIndex = thread.bindSpecial(var, null);
           }
         else
           {
@@ -95,10 +95,10 @@ public final class dolist extends SpecialOperator
           }
         while (list != NIL)
           {
-            if (binding instanceof SpecialBinding)
-              ((SpecialBinding)binding).value = list.car();
+            if (binding == null)
+              thread.setSpecialValue(specialIndex, list.car());
             else
-              ((Binding)binding).value = list.car();
+              binding.value = list.car();
 
             processTagBody(bodyForm, localTags, ext);
 
@@ -106,10 +106,10 @@ public final class dolist extends SpecialOperator
             if (interrupted)
               handleInterrupt();
           }
-        if (binding instanceof SpecialBinding)
-          ((SpecialBinding)binding).value = NIL;
+        if (binding == null)
+          thread.setSpecialValue(specialIndex, NIL);
         else
-          ((Binding)binding).value = NIL;
+          binding.value = NIL;
         LispObject result = eval(resultForm, ext, thread);
         return result;
       }
@@ -52,7 +52,7 @@ public final class dotimes extends SpecialOperator
     LispObject countForm = args.cadr();
     final LispThread thread = LispThread.currentThread();
     LispObject resultForm = args.cdr().cdr().car();
-    final SpecialBindingsMark mark = thread.markSpecialBindings();
+    final int mark = thread.markSpecialBindings();
 
     LispObject bodyAndDecls = parseBody(bodyForm, false);
     LispObject specials = parseSpecials(bodyAndDecls.NTH(1));
@@ -69,17 +69,17 @@ public final class dotimes extends SpecialOperator
 
         LispObject result;
         // Establish a reusable binding.
-        final Object binding;
+        // A binding of var: in ext when lexical, else at specialIndex.
+        Binding binding = null;
+        int specialIndex = 0;
         if (specials != NIL && memq(var, specials))
           {
-            thread.bindSpecial(var, null);
-            binding = thread.getSpecialBinding(var);
+            specialIndex = thread.bindSpecial(var, null);
             ext.declareSpecial(var);
           }
         else if (var.isSpecialVariable())
           {
-            thread.bindSpecial(var, null);
-            binding = thread.getSpecialBinding(var);
+            specialIndex = thread.bindSpecial(var, null);
           }
         else
           {
@@ -97,20 +97,20 @@ public final class dotimes extends SpecialOperator
             int i;
             for (i = 0; i < count; i++)
               {
-                if (binding instanceof SpecialBinding)
-                  ((SpecialBinding)binding).value = Fixnum.getInstance(i);
+                if (binding == null)
+                  thread.setSpecialValue(specialIndex, Fixnum.getInstance(i));
                 else
-                  ((Binding)binding).value = Fixnum.getInstance(i);
+                  binding.value = Fixnum.getInstance(i);
 
                 processTagBody(bodyForm, localTags, ext);
 
                 if (interrupted)
                   handleInterrupt();
               }
-            if (binding instanceof SpecialBinding)
-              ((SpecialBinding)binding).value = Fixnum.getInstance(i);
+            if (binding == null)
+              thread.setSpecialValue(specialIndex, Fixnum.getInstance(i));
             else
-              ((Binding)binding).value = Fixnum.getInstance(i);
+              binding.value = Fixnum.getInstance(i);
             result = eval(resultForm, ext, thread);
           }
         else if (limit instanceof Bignum)
@@ -118,10 +118,10 @@ public final class dotimes extends SpecialOperator
             LispObject i = Fixnum.ZERO;
             while (i.isLessThan(limit))
               {
-                if (binding instanceof SpecialBinding)
-                  ((SpecialBinding)binding).value = i;
+                if (binding == null)
+                  thread.setSpecialValue(specialIndex, i);
                 else
-                  ((Binding)binding).value = i;
+                  binding.value = i;
 
                 processTagBody(bodyForm, localTags, ext);
 
@@ -129,10 +129,10 @@ public final class dotimes extends SpecialOperator
                 if (interrupted)
                   handleInterrupt();
               }
-            if (binding instanceof SpecialBinding)
-              ((SpecialBinding)binding).value = i;
+            if (binding == null)
+              thread.setSpecialValue(specialIndex, i);
             else
-              ((Binding)binding).value = i;
+              binding.value = i;
             result = eval(resultForm, ext, thread);
           }
         else
@@ -31,12 +31,16 @@
 
 (in-package "SYSTEM")
 
-(export '(dump-form dump-uninterned-symbol-index))
+(export '(dump-form dump-constant dump-uninterned-symbol-index))
 
 (declaim (special *circularity* *circle-counter* *instance-forms*))
 
+(defvar *instance-form-dumped* nil
+  "Set when an object is dumped as the forms MAKE-LOAD-FORM returns for
+it, which are evaluated when the dump is read.")
 
 (defun get-instance-form (object)
+  (setf *instance-form-dumped* t)
   (multiple-value-bind
         (value presence)
       (gethash object *instance-forms*)
@@ -167,10 +171,16 @@
   (write-string "#." stream)
   (dump-object (get-instance-form object) stream))
 
+(defvar *fasl-uninterned-symbols-frozen* nil
+  "When non-NIL, a catch tag thrown to instead of numbering an
+uninterned symbol not yet in *FASL-UNINTERNED-SYMBOLS*.")
+
 (declaim (ftype (function (symbol) integer) dump-uninterned-symbol-index))
 (defun dump-uninterned-symbol-index (symbol)
   (let ((index (cdr (assoc symbol *fasl-uninterned-symbols*))))
     (unless index
+      (when *fasl-uninterned-symbols-frozen*
+        (throw *fasl-uninterned-symbols-frozen* nil))
       (setq index (1+ (or (cdar *fasl-uninterned-symbols*) -1)))
       (setq *fasl-uninterned-symbols*
             (acons symbol index *fasl-uninterned-symbols*)))
@@ -273,4 +283,186 @@ being written to the FASL: the READTABLE-CASE setting influences symbol printing
       (df-check-object form))
     (dump-object form stream)))
 
+;;; Binary constant encoding
+;;;
+;;; DUMP-CONSTANT encodes a constant as a vector of octets which
+;;; ConstantDecoder.java turns back into the object when the compiled
+;;; class is loaded, without going through the Lisp reader.  Each object
+;;; starts with one of the tags below; the Java side must agree on them.
+
+(defconstant +constant-nil+ 0)
+(defconstant +constant-list+ 1)         ; count elements... tail
+(defconstant +constant-label+ 2)        ; index object
+(defconstant +constant-reference+ 3)    ; index
+(defconstant +constant-fixnum+ 4)       ; zigzag varint
+(defconstant +constant-bignum+ 5)       ; count bytes (two's complement)
+(defconstant +constant-ratio+ 6)        ; numerator denominator
+(defconstant +constant-single-float+ 7) ; 4 bytes
+(defconstant +constant-double-float+ 8) ; 8 bytes
+(defconstant +constant-complex+ 9)      ; realpart imagpart
+(defconstant +constant-character+ 10)   ; varint code
+(defconstant +constant-string+ 11)      ; string-data
+(defconstant +constant-symbol+ 12)      ; package-name-data name-data
+(defconstant +constant-keyword+ 13)     ; name-data
+(defconstant +constant-uninterned-symbol+ 14) ; varint index
+(defconstant +constant-vector+ 15)      ; count objects...
+(defconstant +constant-bit-vector+ 16)  ; count bytes...
+(defconstant +constant-package+ 17)     ; name-data
+(defconstant +constant-eval+ 18)        ; form
+
+(declaim (special *constant-octets*))
+
+(defun dc-octet (octet)
+  (vector-push-extend octet *constant-octets*))
+
+(defun dc-varint (n)
+  (declare (type (integer 0) n))
+  (loop
+     (when (< n #x80)
+       (dc-octet n)
+       (return))
+     (dc-octet (logior #x80 (logand n #x7F)))
+     (setf n (ash n -7))))
+
+(defun dc-int32 (n)
+  (dc-octet (ldb (byte 8 24) n))
+  (dc-octet (ldb (byte 8 16) n))
+  (dc-octet (ldb (byte 8 8) n))
+  (dc-octet (ldb (byte 8 0) n)))
+
+(defun dc-string-data (string)
+  (dc-varint (length string))
+  (dotimes (i (length string))
+    (dc-varint (char-code (char string i)))))
+
+(defun dc-shared-p (object)
+  (and (not *prevent-fasl-circle-detection*)
+       (let ((index (gethash object *circularity*)))
+         (or (eq index :circular) (integerp index)))))
+
+(defun dc-list (object)
+  (let ((elements (list (car object)))
+        (tail (cdr object)))
+    ;; A shared cons further down the list starts a list of its own
+    ;; so it can be labelled.
+    (loop while (and (consp tail) (not (dc-shared-p tail)))
+       do (push (car tail) elements)
+          (setf tail (cdr tail)))
+    (dc-octet +constant-list+)
+    (dc-varint (length elements))
+    (dolist (element (nreverse elements))
+      (dc-object element))
+    (dc-object tail)))
+
+(defun dc-integer (n)
+  (cond ((typep n '(signed-byte 32))
+         (dc-octet +constant-fixnum+)
+         (dc-varint (if (minusp n) (1- (* -2 n)) (* 2 n))))
+        (t
+         (let ((count (1+ (floor (integer-length n) 8))))
+           (dc-octet +constant-bignum+)
+           (dc-varint count)
+           (loop for i from (1- count) downto 0
+              do (dc-octet (ldb (byte 8 (* 8 i)) n)))))))
+
+(defun dc-object (object)
+  (when (null object)
+    (dc-octet +constant-nil+)
+    (return-from dc-object))
+  (when (or (consp object) (stringp object) (vectorp object)
+            (structure-object-p object) (standard-object-p object)
+            (java:java-object-p object))
+    (let ((index (and (not *prevent-fasl-circle-detection*)
+                      (gethash object *circularity*))))
+      (cond ((integerp index)
+             (dc-octet +constant-reference+)
+             (dc-varint index)
+             (return-from dc-object))
+            ((eq index :circular)
+             (setf index (incf *circle-counter*))
+             (setf (gethash object *circularity*) index)
+             (dc-octet +constant-label+)
+             (dc-varint index)))))
+  (cond ((consp object)
+         (dc-list object))
+        ((symbolp object)
+         (let ((package (symbol-package object)))
+           (cond ((null package)
+                  (dc-octet +constant-uninterned-symbol+)
+                  (dc-varint (dump-uninterned-symbol-index object)))
+                 ((eq package +keyword-package+)
+                  (dc-octet +constant-keyword+)
+                  (dc-string-data (symbol-name object)))
+                 (t
+                  (dc-octet +constant-symbol+)
+                  (dc-string-data (package-name package))
+                  (dc-string-data (symbol-name object))))))
+        ((integerp object)
+         (dc-integer object))
+        ((typep object 'ratio)
+         (dc-octet +constant-ratio+)
+         (dc-integer (numerator object))
+         (dc-integer (denominator object)))
+        ((typep object 'single-float)
+         (dc-octet +constant-single-float+)
+         (dc-int32 (single-float-bits object)))
+        ((typep object 'double-float)
+         (dc-octet +constant-double-float+)
+         (dc-int32 (double-float-high-bits object))
+         (dc-int32 (double-float-low-bits object)))
+        ((complexp object)
+         (dc-octet +constant-complex+)
+         (dc-object (realpart object))
+         (dc-object (imagpart object)))
+        ((characterp object)
+         (dc-octet +constant-character+)
+         (dc-varint (char-code object)))
+        ((stringp object)
+         (dc-octet +constant-string+)
+         (dc-string-data object))
+        ((bit-vector-p object)
+         (let ((length (length object)))
+           (dc-octet +constant-bit-vector+)
+           (dc-varint length)
+           (loop for start from 0 below length by 8
+              do (let ((octet 0))
+                   (loop for i from start below (min length (+ start 8))
+                      do (setf octet (logior octet
+                                             (ash (sbit object i)
+                                                  (- i start)))))
+                   (dc-octet octet)))))
+        ((vectorp object)
+         ;; Like DUMP-VECTOR, which writes #(...): restored as a
+         ;; simple vector.
+         (dc-octet +constant-vector+)
+         (dc-varint (length object))
+         (dotimes (i (length object))
+           (dc-object (aref object i))))
+        ((packagep object)
+         (dc-octet +constant-package+)
+         (dc-string-data (package-name object)))
+        ((or (structure-object-p object)
+             (standard-object-p object)
+             (java:java-object-p object))
+         (dc-octet +constant-eval+)
+         (dc-object (get-instance-form object)))
+        (t
+         ;; Pathnames, arrays of rank other than one, etc.
+         (throw 'dump-constant nil))))
+
+(defun dump-constant (object)
+  "Returns a vector of octets encoding OBJECT for ConstantDecoder, or NIL
+if OBJECT contains something which can only be dumped with DUMP-FORM."
+  (let ((*constant-octets*
+         (make-array 64 :element-type '(unsigned-byte 8)
+                        :fill-pointer 0 :adjustable t))
+        (*circularity* (make-hash-table :test #'eq))
+        (*instance-forms* (make-hash-table :test #'eq))
+        (*circle-counter* 0))
+    (unless *prevent-fasl-circle-detection*
+      (df-check-object object))
+    (catch 'dump-constant
+      (dc-object object)
+      *constant-octets*)))
+
 (provide 'dump-form)
@@ -57,7 +57,6 @@ import org.armedbear.lisp.Function;
 import org.armedbear.lisp.Interpreter;
 import org.armedbear.lisp.LispObject;
 import org.armedbear.lisp.LispThread;
-import org.armedbear.lisp.SpecialBindingsMark;
 import org.armedbear.lisp.Stream;
 import org.armedbear.lisp.Symbol;
 import org.armedbear.lisp.TwoWayStream;
@@ -267,7 +266,7 @@ public class REPLConsole extends DefaultStyledDocument {
     return new Function() {	
       @Override
       public LispObject execute() {
-        SpecialBindingsMark lastSpecialBinding = LispThread.currentThread().markSpecialBindings();
+        int lastSpecialBinding = LispThread.currentThread().markSpecialBindings();
         try {
           TwoWayStream ioStream = new TwoWayStream(in, out);
           LispThread.currentThread().bindSpecial(Symbol.DEBUGGER_HOOK, debuggerHook);
@@ -180,18 +180,39 @@ initialized from the `java-dotted-name'."
 (define-class-name +lisp-double-float+ "org.armedbear.lisp.DoubleFloat")
 (define-class-name +lisp-cons+ "org.armedbear.lisp.Cons")
 (define-class-name +lisp-load+ "org.armedbear.lisp.Load")
+(define-class-name +lisp-constant-decoder+
+    "org.armedbear.lisp.ConstantDecoder")
 (define-class-name +lisp-character+ "org.armedbear.lisp.LispCharacter")
 (defconstant +lisp-character-array+ (class-array +lisp-character+))
 (define-class-name +lisp-structure-object+ "org.armedbear.lisp.StructureObject")
+(define-class-name +lisp-slot-location-cache+
+    "org.armedbear.lisp.SlotLocationCache")
 (define-class-name +lisp-simple-vector+ "org.armedbear.lisp.SimpleVector")
 (define-class-name +lisp-abstract-string+ "org.armedbear.lisp.AbstractString")
 (define-class-name +lisp-abstract-vector+ "org.armedbear.lisp.AbstractVector")
 (define-class-name +lisp-abstract-bit-vector+
     "org.armedbear.lisp.AbstractBitVector")
+(define-class-name +lisp-basic-vector-unsigned-byte-8+
+    "org.armedbear.lisp.BasicVector_UnsignedByte8")
+(define-class-name +lisp-basic-vector-unsigned-byte-16+
+    "org.armedbear.lisp.BasicVector_UnsignedByte16")
+(define-class-name +lisp-basic-vector-unsigned-byte-32+
+    "org.armedbear.lisp.BasicVector_UnsignedByte32")
+(define-class-name +lisp-basic-vector-unsigned-byte-64+
+    "org.armedbear.lisp.BasicVector_UnsignedByte64")
+(define-class-name +lisp-basic-vector-signed-byte-8+
+    "org.armedbear.lisp.BasicVector_SignedByte8")
+(define-class-name +lisp-basic-vector-signed-byte-16+
+    "org.armedbear.lisp.BasicVector_SignedByte16")
+(define-class-name +lisp-basic-vector-signed-byte-32+
+    "org.armedbear.lisp.BasicVector_SignedByte32")
+(define-class-name +lisp-basic-vector-signed-byte-64+
+    "org.armedbear.lisp.BasicVector_SignedByte64")
+(define-class-name +lisp-basic-vector-double-float+
+    "org.armedbear.lisp.BasicVector_DoubleFloat")
+(define-class-name +lisp-basic-vector-single-float+
+    "org.armedbear.lisp.BasicVector_SingleFloat")
 (define-class-name +lisp-environment+ "org.armedbear.lisp.Environment")
-(define-class-name +lisp-special-binding+ "org.armedbear.lisp.SpecialBinding")
-(define-class-name +lisp-special-bindings-mark+
-    "org.armedbear.lisp.SpecialBindingsMark")
 (define-class-name +lisp-throw+ "org.armedbear.lisp.Throw")
 (define-class-name +lisp-return+ "org.armedbear.lisp.Return")
 (define-class-name +lisp-go+ "org.armedbear.lisp.Go")
@@ -31,7 +31,8 @@
 
 (in-package "JVM")
 
-(export '(compile-defun *catch-errors* derive-compiler-type))
+(export '(compile-defun *catch-errors* *call-site-dispatch*
+          derive-compiler-type))
 
 (require "JVM-CLASS-FILE")
 
@@ -247,14 +248,14 @@ of the compilands being processed (p1: so far; p2: in total).")
 ;;  4. if the variable is part of the outer scope of a function with a
 ;;     non-null lexical environment, the variable is to be looked up
 ;;     from a lexical environment object
-;;  5. the variable is a special variable and its binding has been looked
-;;     up and cached in a local register (binding-register)
+;;  5. the variable is a special variable and the index of its binding has been
+;;     cached in a local register (binding-register)
 
 ;; a variable can be either special-p *or* have a register *or*
 ;; have an index *or* a closure-index *or* an environment
 
   register      ; register number for a local variable
-  binding-register ; register number containing the binding reference
+  binding-register ; register number containing the binding's specials index
   index         ; index number for a variable in the argument array
   closure-index ; index number for a variable in the closure context array
   environment   ; the environment for the variable, if we're compiling in
@@ -33,22 +33,29 @@
 
 (defun make-hash-table (&key (test 'eql) (size 11) (rehash-size 1.5)
                              (rehash-threshold 0.75)
-                             (weakness nil))
+                             (weakness nil)
+                             (synchronized t))
   (setf test (coerce-to-function test))
   (unless (and (integerp size) (>= size 0))
     (error 'type-error :datum size :expected-type '(integer 0)))
+  (unless (member synchronized '(nil t :concurrent))
+    (error 'type-error :datum synchronized
+           :expected-type '(member nil t :concurrent)))
   (let ((size (max 11 (min size array-dimension-limit)))
         (weakness-types '(or (eql :key) (eql :value)
                              (eql :key-and-value)
                              (eql :key-or-value))))
     (if weakness
-        (if (not (typep weakness weakness-types))
-            (error 'type-error :datum weakness 
-                   :expected-type weakness-types)
-            (%make-weak-hash-table test size rehash-size 
-                                   rehash-threshold weakness))
-	(%make-hash-table test size 
-                          rehash-size rehash-threshold))))
+        (cond ((not (typep weakness weakness-types))
+               (error 'type-error :datum weakness
+                      :expected-type weakness-types))
+              ((eq synchronized :concurrent)
+               (error "Weak hash tables can't be :SYNCHRONIZED :CONCURRENT."))
+              (t
+               (%make-weak-hash-table test size rehash-size
+                                      rehash-threshold weakness)))
+	(%make-hash-table test size
+                          rehash-size rehash-threshold synchronized))))
 
     
   
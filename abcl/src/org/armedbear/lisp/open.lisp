@@ -105,7 +105,12 @@
 	     (element-type 'character)
 	     (if-exists nil if-exists-given)
 	     (if-does-not-exist nil if-does-not-exist-given)
-	     (external-format :default))
+	     (external-format :default)
+	     mapped
+	     buffer-size)
+  "Extensions: when MAPPED is true, an :INPUT file is read through a
+memory mapping of its contents; otherwise BUFFER-SIZE, when given, is the
+number of bytes buffered by the stream."
 ;  (declare (ignore external-format)) ; FIXME
   (setf element-type (case element-type
                        ((character base-char)
@@ -147,7 +152,8 @@
                    :pathname pathname
                    :format-control "The file ~S does not exist."
                    :format-arguments (list namestring)))))
-       (make-file-stream pathname namestring element-type :input nil external-format))
+       (make-file-stream pathname namestring element-type :input nil
+                         external-format mapped buffer-size))
       (:probe
        (case if-does-not-exist
          (:error
@@ -210,7 +216,8 @@
                  :format-control "Option not supported: ~S."
                  :format-arguments (list if-exists))))
        (let ((stream (make-file-stream pathname namestring element-type
-                                       direction if-exists external-format)))
+                                       direction if-exists external-format
+                                       mapped buffer-size)))
          (unless stream
            (error 'file-error
                   :pathname pathname
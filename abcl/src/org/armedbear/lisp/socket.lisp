@@ -34,7 +34,14 @@
 (export '(make-socket make-server-socket server-socket-close socket-accept
           socket-close get-socket-stream socket-peer-port socket-local-port
           socket-local-address socket-peer-address
-          read-timeout write-timeout))
+          read-timeout write-timeout
+          make-socket-channel make-server-socket-channel
+          socket-channel-accept socket-channel-read socket-channel-write
+          socket-channel-close socket-channel-local-port
+          make-socket-selector socket-selector-register
+          socket-selector-unregister socket-selector-count
+          socket-selector-poll socket-selector-wakeup socket-selector-close
+          run-socket-selector))
 
 
 (defun get-socket-stream (socket &key (element-type 'character) (external-format :default))
@@ -109,4 +116,89 @@ EXTERNAL-FORMAT must be of the same format as specified for OPEN."
 Timeouts for writes should be implemented by spawning a guardian
 to the thread perfoming the socket write"))
 
+;;; Non-blocking sockets
+
+(defun make-socket-channel (host port)
+  "Connect a TCP socket channel to HOST on PORT and return it in
+non-blocking mode.  The connection itself is established before
+returning, waiting for it if necessary."
+  (sys::%make-socket-channel host port))
+
+(defun make-server-socket-channel (port &key (backlog 1024))
+  "Create a non-blocking TCP server socket channel listening for clients
+on PORT, queueing up to BACKLOG connections not yet accepted."
+  (sys::%make-server-socket-channel port backlog))
+
+(defun socket-channel-accept (server-channel)
+  "Return a new non-blocking channel for the next pending connection to
+SERVER-CHANNEL, or NIL if there is none."
+  (sys::%socket-channel-accept server-channel))
+
+(defun socket-channel-read (channel vector &key (start 0) end)
+  "Read the bytes available on CHANNEL into the (UNSIGNED-BYTE 8) VECTOR
+from START up to END, without waiting for more.  Return the index of the
+first element not updated, or NIL when the peer has closed the connection."
+  (sys::%socket-channel-read channel vector start (or end (length vector))))
+
+(defun socket-channel-write (channel vectors)
+  "Write as much as CHANNEL accepts without waiting of VECTORS, an
+(UNSIGNED-BYTE 8) vector or a list of them written one after the other.
+Return the number of bytes written."
+  (sys::%socket-channel-write channel (if (listp vectors)
+                                           vectors
+                                           (list vectors))))
+
+(defun socket-channel-close (channel)
+  "Close CHANNEL, a socket channel or a server socket channel."
+  (sys::%socket-channel-close channel))
+
+(defun socket-channel-local-port (channel)
+  "Return the local port of CHANNEL, a socket channel or a server socket
+channel."
+  (sys::%socket-channel-local-port channel))
+
+(defun make-socket-selector ()
+  "Create a selector waiting for events on the channels registered with it."
+  (sys::%make-socket-selector))
+
+(defun socket-selector-register (selector channel &key on-accept on-read on-write)
+  "Register CHANNEL with SELECTOR, replacing any previous registration.
+ON-ACCEPT, ON-READ and ON-WRITE are called with CHANNEL when it has a
+connection to accept, bytes to read or room to write; a NIL callback
+means SELECTOR doesn't wait for that event.  Return CHANNEL."
+  (flet ((callback (function)
+           (and function (coerce function 'function))))
+    (sys::%socket-selector-register selector channel
+                                    (callback on-accept)
+                                    (callback on-read)
+                                    (callback on-write))))
+
+(defun socket-selector-unregister (selector channel)
+  "Stop waiting for events on CHANNEL with SELECTOR."
+  (sys::%socket-selector-unregister selector channel))
+
+(defun socket-selector-count (selector)
+  "Return the number of channels registered with SELECTOR."
+  (sys::%socket-selector-count selector))
+
+(defun socket-selector-poll (selector &optional timeout)
+  "Wait until some channels registered with SELECTOR have events, or at
+most TIMEOUT seconds when it is not NIL, and call their callbacks.
+Return the number of channels whose events were dispatched."
+  (sys::%socket-selector-poll selector timeout))
+
+(defun socket-selector-wakeup (selector)
+  "Make a SOCKET-SELECTOR-POLL waiting on SELECTOR in another thread return."
+  (sys::%socket-selector-wakeup selector))
+
+(defun socket-selector-close (selector)
+  "Close SELECTOR, unregistering its channels."
+  (sys::%socket-selector-close selector))
+
+(defun run-socket-selector (selector)
+  "Dispatch the events of the channels registered with SELECTOR until
+none is left."
+  (loop :while (plusp (socket-selector-count selector))
+        :do (socket-selector-poll selector)))
+
 (provide '#:socket)
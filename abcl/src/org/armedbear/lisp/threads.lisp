@@ -32,11 +32,14 @@
 
 (in-package #:threads)
 
-(export '(make-mailbox mailbox-send mailbox-empty-p
-          mailbox-read mailbox-peek
+(export '(make-mailbox mailbox-p mailbox-send mailbox-send-all
+          mailbox-empty-p mailbox-count mailbox-read mailbox-drain mailbox-peek
           make-thread-lock with-thread-lock
           current-thread yield
-          make-mutex get-mutex release-mutex with-mutex))
+          make-mutex mutex-p get-mutex release-mutex with-mutex
+          make-thread-pool thread-pool-p thread-pool-size thread-pool-shutdown
+          default-thread-pool submit future-p future-value future-done-p
+          future-cancel pmap preduce))
 ;;
 ;; MAKE-THREAD helper to establish restarts
 ;;
@@ -47,83 +50,60 @@
     (abort () :report "Abort thread.")))
 
 ;;
-;; Mailbox implementation
+;; Mailboxes and mutexes are implemented in Mailbox.java and Mutex.java
 ;;
 
-;; this export statement is also in autoloads.lisp
-(export '(make-mailbox mailbox-send mailbox-empty-p mailbox-read mailbox-peek))
-
-(defstruct mailbox
-  queue)
-
-(defun mailbox-send (mailbox item)
-  "Sends an item into the mailbox, notifying 1 waiter
-to wake up for retrieval of that object."
-  (threads:synchronized-on mailbox
-     (push item (mailbox-queue mailbox))
-     (threads:object-notify mailbox)))
-
-(defun mailbox-empty-p (mailbox)
-  "Returns non-NIL if the mailbox can be read from, NIL otherwise."
-  ;; Because we're just checking the value of an object reference,
-  ;; (which are atomically gotten and set) we don't need to lock
-  ;; the mailbox before operating on it.
-  (null (mailbox-queue mailbox)))
-
-(defun mailbox-read (mailbox)
-  "Blocks on the mailbox until an item is available for reading.
-When an item is available, it is returned."
-  (threads:synchronized-on mailbox
-     (loop
-        (unless (mailbox-empty-p mailbox)
-          (return))
-        (object-wait mailbox))
-     (pop (mailbox-queue mailbox))))
-
-(defun mailbox-peek (mailbox)
-  "Returns two values. The second returns non-NIL when the mailbox
-is empty. The first is the next item to be read from the mailbox.
-
-Note that due to multi-threading, the first value returned upon
-peek, may be different from the one returned upon next read in the
-calling thread."
-  (threads:synchronized-on mailbox
-     (values (car (mailbox-queue mailbox))
-             (null (mailbox-queue mailbox)))))
-
-
-
 ;;
-;; Mutex implementation
+;; Thread pools and futures are implemented in ThreadPool.java and Future.java
 ;;
 
-
-;; this export statement is also in autoloads.lisp
-(export '(make-mutex get-mutex release-mutex))
-
-(defstruct mutex
-  in-use)
-
-(defun get-mutex (mutex)
-  "Acquires a lock on the `mutex'."
-  (synchronized-on mutex
-    (loop
-       while (mutex-in-use mutex)
-       do (object-wait mutex))
-    (setf (mutex-in-use mutex) T)))
-
-(defun release-mutex (mutex)
-  "Releases a lock on the `mutex'."
-  (synchronized-on mutex
-    (setf (mutex-in-use mutex) NIL)
-    (object-notify mutex)))
-
-(defmacro with-mutex ((mutex) &body body)
+(defun future-function-wrapper (fun)
+  "Calls FUN on behalf of a future, returning (T . values) or, when FUN
+signals an error or runs out of stack, (NIL . condition) for
+FUTURE-VALUE to re-signal."
+  (handler-case
+      (cons t (multiple-value-list (funcall fun)))
+    ((or error storage-condition) (condition)
+      (cons nil condition))))
+
+(defun pmap (function list &key pool)
+  "Returns a list of the results of calling FUNCTION on each element of
+LIST, making the calls in parallel on the workers of `pool', or of the
+default thread pool."
+  (mapcar #'future-value
+          (mapcar (lambda (element)
+                    (submit (lambda () (funcall function element))
+                            :pool pool))
+                  list)))
+
+(defun preduce (function list &key pool (initial-value nil initial-value-p))
+  "Combines the elements of LIST using the associative FUNCTION, like
+REDUCE, reducing parts of the list in parallel on the workers of `pool',
+or of the default thread pool."
+  (let* ((pool (or pool (default-thread-pool)))
+         (chunk-size (max 1 (ceiling (length list) (thread-pool-size pool))))
+         (futures
+          (loop with tail = list
+                while tail
+                collect (let ((chunk (loop repeat chunk-size
+                                           while tail
+                                           collect (pop tail))))
+                          (submit (lambda () (reduce function chunk))
+                                  :pool pool))))
+         (partials (mapcar #'future-value futures)))
+    (if initial-value-p
+        (reduce function partials :initial-value initial-value)
+        (reduce function partials))))
+
+(defmacro with-mutex ((mutex &key timeout) &body body)
   "Acquires a lock on `mutex', executes the body
-and releases the lock."
+and releases the lock.
+
+With a `timeout', gives up waiting for the lock after `timeout' seconds,
+in which case the body isn't executed and NIL is returned."
   (let ((m (gensym)))
     `(let ((,m ,mutex))
-       (when (get-mutex ,m)
+       (when (get-mutex ,m ,@(when timeout (list timeout)))
          (unwind-protect
           (progn
             ,@body)
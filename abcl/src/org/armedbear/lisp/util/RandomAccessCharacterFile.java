@@ -44,6 +44,7 @@ import java.io.StringReader;
 import java.io.Writer;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
@@ -191,6 +192,10 @@ public class RandomAccessCharacterFile {
 
         @Override
         public final int read() throws IOException {
+            int c = RandomAccessCharacterFile.this.readSingleByte();
+            if (c >= 0)
+                return c;
+
             int n = this.read(read_buf);
 
             if (n == 1)
@@ -260,7 +265,11 @@ public class RandomAccessCharacterFile {
     }
 
 
-    final static int BUFSIZ = 4*1024; // setting this to a small value like 8 is helpful for testing.
+    public final static int BUFSIZ = 4*1024; // setting this to a small value like 8 is helpful for testing.
+
+    /** Size of the part of a file mapped at a time by mapped instances;
+     * files larger than this are remapped window by window. */
+    final static long MAP_WINDOW = 256*1024*1024;
 
     private RandomAccessWriter writer;
     private RandomAccessReader reader;
@@ -285,22 +294,54 @@ public class RandomAccessCharacterFile {
     private boolean bbufIsReadable; /* whether bbuf.remaining() contains readable content. */
     private long bbufpos; /* where the beginning of bbuf is pointing in the file now. */
 
+    /**
+     * When true, bbuf is a read-only window of the file mapped into
+     * memory instead of a copy of its content: reading and repositioning
+     * within the window don't touch the channel at all.
+     */
+    private final boolean mapped;
+
+    /* whether every byte is the code of the character it encodes. */
+    private boolean latin1;
+    /* whether bytes below 0x80 are the code of the character they encode,
+       independently of the bytes around them. */
+    private boolean asciiCompatible;
+
     public RandomAccessCharacterFile(RandomAccessFile raf, String encoding) throws IOException {
+        this(raf, encoding, false, BUFSIZ);
+    }
+
+    /**
+     * Creates a file which, when 'mapped' is true, reads through a
+     * read-only memory mapping of 'raf'; such a file can't be written to.
+     * Otherwise it is buffered by 'bufferSize' bytes.
+     */
+    public RandomAccessCharacterFile(RandomAccessFile raf, String encoding,
+                                     boolean mapped, int bufferSize)
+        throws IOException {
 
         fcn = raf.getChannel();
+        this.mapped = mapped;
 
         setEncoding(encoding);
-        bbuf = ByteBuffer.allocate(BUFSIZ);
+        if (mapped) {
+            long pos = fcn.position();
+            mapWindow(pos - pos % MAP_WINDOW, pos);
+        } else {
+            // the decoder needs room for a whole character.
+            bbuf = ByteBuffer.allocate(Math.max(bufferSize, 8));
 
-        // there is no readable data available in the buffers.
-        bbuf.flip();
+            // there is no readable data available in the buffers.
+            bbuf.flip();
+        }
 
         // there is no write pending data in the buffers.
         bbufIsDirty = false;
 
-        bbufIsReadable = false;
+        bbufIsReadable = mapped;
 
-        bbufpos = fcn.position();
+        if (! mapped)
+            bbufpos = fcn.position();
 
         reader = new RandomAccessReader();
         writer = new RandomAccessWriter();
@@ -318,6 +359,9 @@ public class RandomAccessCharacterFile {
           error(new SimpleError("Undefined encoding: " + encoding));
         }
       }
+      latin1 = cset.name().equals("ISO-8859-1");
+      asciiCompatible = latin1 || cset.name().equals("UTF-8")
+          || cset.name().equals("US-ASCII");
       cdec = cset.newDecoder();
       cdec.onMalformedInput(CodingErrorAction.REPLACE);
       cdec.onUnmappableCharacter(CodingErrorAction.REPLACE);
@@ -349,7 +393,36 @@ public class RandomAccessCharacterFile {
         internalFlush(false);
     }
 
+    /**
+     * Maps the part of the file starting at 'start' into bbuf and moves
+     * to 'newPosition' within it.
+     */
+    private final void mapWindow(long start, long newPosition) throws IOException {
+        long size = fcn.size();
+        if (newPosition > size)
+            start = newPosition;
+        long len = Math.min(MAP_WINDOW, Math.max(0, size - start));
+        bbuf = fcn.map(FileChannel.MapMode.READ_ONLY, start, len);
+        bbuf.position((int)(newPosition - start));
+        bbufpos = start;
+    }
+
+    private final boolean ensureReadMappedBbuf(boolean force) throws IOException {
+        if (bbuf.remaining() > 0 && ! force)
+            return true;
+        if (bbufpos + bbuf.limit() >= fcn.size())
+            return false;
+        // Either the window has been read entirely or it ends within
+        // a multi-byte character: continue with the next one.
+        long pos = bbufpos + bbuf.position();
+        mapWindow(pos, pos);
+        return true;
+    }
+
     private final boolean ensureReadBbuf(boolean force) throws IOException {
+        if (mapped)
+            return ensureReadMappedBbuf(force);
+
         boolean bufReady = true;
 
         if ((bbuf.remaining() == 0) || force || ! bbufIsReadable) {
@@ -376,7 +449,67 @@ public class RandomAccessCharacterFile {
         return bufReady;
     }
 
+    /**
+     * Returns the next character when it is encoded in a single byte
+     * already held by bbuf, or -1 when the decoder is needed.
+     */
+    final int readSingleByte() {
+        if (! asciiCompatible || ! bbufIsReadable || bbuf.remaining() == 0)
+            return -1;
+        final int p = bbuf.position();
+        final byte b = bbuf.get(p);
+        if (b < 0 && ! latin1)
+            return -1;
+        bbuf.position(p + 1);
+        return b & 0xff;
+    }
+
+    /**
+     * Copies single-byte characters straight out of bbuf into 'cb',
+     * stopping at the first byte which needs the decoder.
+     *
+     * @return the number of characters read, or -1 at end-of-file
+     */
+    private final int readSingleBytes(char[] cb, int off, int len) throws IOException {
+        int pos = off;
+        final int end = off + len;
+        while (pos < end) {
+            if (! ensureReadBbuf(false) || bbuf.remaining() == 0)
+                return (pos == off) ? -1 : pos - off;
+            final int p = bbuf.position();
+            final int n = Math.min(bbuf.remaining(), end - pos);
+            int i = 0;
+            if (latin1)
+                for (; i < n; i++)
+                    cb[pos + i] = (char) (bbuf.get(p + i) & 0xff);
+            else
+                for (; i < n; i++) {
+                    byte b = bbuf.get(p + i);
+                    if (b < 0)
+                        break;
+                    cb[pos + i] = (char) b;
+                }
+            bbuf.position(p + i);
+            pos += i;
+            if (i < n)
+                break;
+        }
+        return pos - off;
+    }
+
     final int read(char[] cb, int off, int len) throws IOException {
+        if (asciiCompatible) {
+            int n = readSingleBytes(cb, off, len);
+            if (n < 0 || n == len)
+                return n;
+            // stopped in front of a multi-byte character.
+            int m = decode(cb, off + n, len - n);
+            return (m < 0) ? n : n + m;
+        }
+        return decode(cb, off, len);
+    }
+
+    private final int decode(char[] cb, int off, int len) throws IOException {
         CharBuffer cbuf = CharBuffer.wrap(cb, off, len);
         boolean decodeWasUnderflow = false;
         boolean atEof = false;
@@ -450,6 +583,15 @@ public class RandomAccessCharacterFile {
     }
 
     public final void position(long newPosition) throws IOException {
+        // the decoder may have seen the end of the input.
+        cdec.reset();
+        if (mapped) {
+            if (newPosition >= bbufpos && newPosition <= bbufpos + bbuf.limit())
+                bbuf.position((int)(newPosition - bbufpos));
+            else
+                mapWindow(newPosition - newPosition % MAP_WINDOW, newPosition);
+            return;
+        }
         flushBbuf(true);
         long bbufend = bbufpos // in case bbuf is readable, its contents is valid
             + (bbufIsReadable ? bbuf.limit() : bbuf.position()); // beyond position()
@@ -505,13 +647,15 @@ public class RandomAccessCharacterFile {
         while (pos - off < len && ! atEof) {
 
             atEof = ! ensureReadBbuf(false);
-            int want = len - pos;
+            int want = len - (pos - off);
             if (want > bbuf.remaining()) {
                 want = bbuf.remaining();
             }
             bbuf.get(b, pos, want);
             pos += want;
         }
+        if (pos == off && len > 0)
+            return -1;
         return pos - off;
     }
 
@@ -536,6 +680,10 @@ public class RandomAccessCharacterFile {
         //  So we don't do the following.
         //  3. write the bytes.
         //  4. move the position back again.
+        if (latin1 || (asciiCompatible && c < 0x80)) {
+            position(position() - 1);
+            return;
+        }
         if (singleCharBuf == null) {
             singleCharBuf = CharBuffer.allocate(1);
             shortByteBuf = ByteBuffer.allocate((int)cenc.maxBytesPerChar());
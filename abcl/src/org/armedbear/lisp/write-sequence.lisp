@@ -47,12 +47,15 @@
   (let ((end (the fixnum end))
         (stream-element-type (expand-deftype (stream-element-type stream))))
     (cond ((eq stream-element-type 'character)
-           (if (stringp sequence)
-               (%write-string sequence stream start end)
-               (do* ((i start (1+ i)))
-                    ((>= i end) sequence)
-                 (declare (type index i))
-                 (write-char (elt sequence i) stream))))
+           (cond ((stringp sequence)
+                  (%write-string sequence stream start end))
+                 ((vectorp sequence)
+                  (write-vector-character sequence stream start end))
+                 (t
+                  (do* ((i start (1+ i)))
+                       ((>= i end) sequence)
+                    (declare (type index i))
+                    (write-char (elt sequence i) stream)))))
           ((equal stream-element-type '(unsigned-byte 8))
            (if (and (vectorp sequence)
                     (equal (array-element-type sequence) '(unsigned-byte 8)))
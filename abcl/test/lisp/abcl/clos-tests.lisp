@@ -521,3 +521,38 @@
     (dmc-test-args-with-optional.4c T)
   nil
   nil)
+
+;; Dispatch through the positional EMF cache, past its inline entries
+;; and with both eql and class specializers.
+(defgeneric emf-cache-test.1 (a b)
+  (:method ((a t) (b t)) (list :t (type-of a)))
+  (:method ((a integer) (b t)) (list* :integer (call-next-method)))
+  (:method ((a (eql :k)) (b symbol)) (list :eql b)))
+
+(deftest emf-cache-test.1
+    (loop repeat 3
+          collect (mapcar (lambda (x) (first (emf-cache-test.1 x 'y)))
+                          (list 1 "a" #\c 'b 1.0 '(1) :k (make-hash-table))))
+  ((:integer :t :t :t :t :t :eql :t)
+   (:integer :t :t :t :t :t :eql :t)
+   (:integer :t :t :t :t :t :eql :t)))
+
+;; Slot locations cached by accessors and compiled STD-SLOT-VALUE
+;; forms must follow instances through class redefinition.
+(defclass slot-location-test.1 ()
+  ((a :initarg :a :accessor slot-location-test.1-a)))
+
+(deftest slot-location-cache.1
+    (let ((instance (make-instance 'slot-location-test.1 :a 1))
+          (reader (compile nil '(lambda (x) (sys:std-slot-value x 'a)))))
+      (list (slot-location-test.1-a instance)
+            (funcall reader instance)
+            (progn
+              (defclass slot-location-test.1 ()
+                ((b :initform 2)
+                 (a :initarg :a :accessor slot-location-test.1-a)))
+              (setf (slot-location-test.1-a instance) 3)
+              (slot-location-test.1-a instance))
+            (funcall reader instance)
+            (slot-value instance 'b)))
+  (1 1 3 3 2))
@@ -443,6 +443,53 @@
   :args (#.most-positive-java-long #.most-negative-java-long)
   :results #.most-positive-java-long)
 
+(define-compiler-test aref.double-float.1
+  (lambda (v)
+    (declare (type (simple-array double-float (*)) v))
+    (let ((sum 0d0))
+      (declare (type double-float sum))
+      (dotimes (i (length v) sum)
+        (setf sum (+ sum (aref v i))))))
+  :args ((make-array 4 :element-type 'double-float :initial-element 1.5d0))
+  :results 6d0)
+
+(define-compiler-test aset.double-float.1
+  (lambda (v x)
+    (declare (type (simple-array double-float (*)) v)
+             (type double-float x))
+    (setf (aref v 1) (* x 2d0)))
+  :args ((make-array 2 :element-type 'double-float) 1.25d0)
+  :results 2.5d0)
+
+(define-compiler-test aset.single-float.1
+  (lambda (v x)
+    (declare (type (simple-array single-float (*)) v)
+             (type single-float x))
+    (setf (aref v 0) x)
+    (aref v 0))
+  :args ((make-array 1 :element-type 'single-float) 3.5f0)
+  :results 3.5f0)
+
+(define-compiler-test aref.signed-byte-16.1
+  (lambda (v)
+    (declare (type (simple-array (signed-byte 16) (*)) v))
+    (let ((sum 0))
+      (declare (type fixnum sum))
+      (dotimes (i (length v) sum)
+        (setf sum (+ sum (aref v i))))))
+  :args ((make-array 3 :element-type '(signed-byte 16)
+                       :initial-contents '(-300 2 1000)))
+  :results 702)
+
+(define-compiler-test aset.signed-byte-64.1
+  (lambda (v x)
+    (declare (type (simple-array (signed-byte 64) (*)) v)
+             (type (signed-byte 64) x))
+    (setf (aref v 0) x)
+    (aref v 0))
+  :args ((make-array 1 :element-type '(signed-byte 64)) #.(expt 2 40))
+  :results #.(expt 2 40))
+
 ;;; ticket #147
 #+abcl
 (deftest compiler.1 
@@ -475,6 +522,182 @@
   t)
 
 
+;;; Constants of compiled files restored by ConstantDecoder
+#+abcl
+(deftest compiler.binary-constants.1
+    (let ((tmpfile (ext::make-temp-file))
+          (line "(in-package #:abcl.test.lisp)
+                 (defun binary-constants.1 ()
+                   '(1 -2 3/4 1.5 2.5d0 #c(1 2) #\\a \"x\" :k car #:g
+                     #(1 #*101) 123456789012345678901234567890
+                     #1=(a . #1#) (#2=\"s\" #2#)))"))
+      (with-open-file (s tmpfile :direction :output)
+        (format s "~A" line))
+      (let ((fasl (compile-file tmpfile)))
+        (delete-file tmpfile)
+        (load fasl)
+        (delete-file fasl))
+      (let ((c (funcall 'binary-constants.1)))
+        (list (subseq c 0 10)
+              (symbol-package (nth 10 c))
+              (nth 11 c)
+              (nth 12 c)
+              (eq (nth 13 c) (cdr (nth 13 c)))
+              (eq (first (nth 14 c)) (second (nth 14 c))))))
+  ((1 -2 3/4 1.5 2.5d0 #c(1 2) #\a "x" :k car)
+   nil #(1 #*101) 123456789012345678901234567890 t t))
+
+(deftest compiler.parallel-compile-file.1
+    (let ((tmpfile (ext::make-temp-file))
+          (pool (threads:make-thread-pool :size 2)))
+      (with-open-file (s tmpfile :direction :output)
+        (format s "~S~%~S~%~S~%~S~%"
+                '(defun parallel-compile-file.1a (x)
+                  (flet ((f (y) (list y '#:g)))
+                    (f (parallel-compile-file.1b x))))
+                '(defun parallel-compile-file.1b (x) (* 2 x))
+                '(defvar *parallel-compile-file.1* 3)
+                '(defun parallel-compile-file.1c ()
+                  (parallel-compile-file.1a *parallel-compile-file.1*))))
+      (unwind-protect
+           (let ((fasl (let ((sys:*compile-file-parallel* pool))
+                         (compile-file tmpfile))))
+             (delete-file tmpfile)
+             (load fasl)
+             (delete-file fasl))
+        (threads:thread-pool-shutdown pool))
+      (let ((result (funcall 'parallel-compile-file.1c)))
+        (list (first result)
+              (symbol-package (second result))
+              (compiled-function-p #'parallel-compile-file.1a))))
+  (6 nil t))
+
+;;; Pool workers have smaller stacks than the interpreter thread: a
+;;; body too deeply nested for a worker is compiled again serially.
+(deftest compiler.parallel-compile-file.2
+    (let ((tmpfile (ext::make-temp-file))
+          (pool (threads:make-thread-pool :size 2)))
+      (with-open-file (s tmpfile :direction :output)
+        (format s "~S~%"
+                `(defun parallel-compile-file.2 (x)
+                   ,(let ((form 'x))
+                      (dotimes (i 600 form)
+                        (setf form `(1+ ,form)))))))
+      (unwind-protect
+           (let ((fasl (let ((sys:*compile-file-parallel* pool))
+                         (compile-file tmpfile))))
+             (delete-file tmpfile)
+             (load fasl)
+             (delete-file fasl))
+        (threads:thread-pool-shutdown pool))
+      (list (parallel-compile-file.2 0)
+            (compiled-function-p #'parallel-compile-file.2)))
+  (600 t))
+
+;;; Only the class files of local functions are packed into the FASL
+;;; and deleted: a neighbouring file named like them is left alone.
+(deftest compiler.compile-file-neighbours.1
+    (let* ((tmpfile (ext::make-temp-file))
+           (neighbour (make-pathname :name (format nil "~A_1_x"
+                                                   (pathname-name tmpfile))
+                                     :type "lisp"
+                                     :defaults tmpfile))
+           (pool (threads:make-thread-pool :size 2)))
+      (with-open-file (s tmpfile :direction :output)
+        ;; The string is too large for the class file, so it is
+        ;; written next to it as <name>_1_0.clc.
+        (format s "~S~%"
+                `(defun compile-file-neighbours.1 (x)
+                   (flet ((f (y) (list y y)))
+                     (list (f x)
+                           (length ,(make-string 70000 :initial-element #\a)))))))
+      (with-open-file (s neighbour :direction :output)
+        (write-line "(print :neighbour)" s))
+      (unwind-protect
+           (list (let ((fasl (compile-file tmpfile)))
+                   (load fasl)
+                   (delete-file fasl)
+                   (compile-file-neighbours.1 1))
+                 (not (null (probe-file neighbour)))
+                 (let ((fasl (let ((sys:*compile-file-parallel* pool))
+                               (compile-file tmpfile))))
+                   (load fasl)
+                   (delete-file fasl)
+                   (compile-file-neighbours.1 2))
+                 (not (null (probe-file neighbour))))
+        (threads:thread-pool-shutdown pool)
+        (delete-file tmpfile)
+        (when (probe-file neighbour)
+          (delete-file neighbour))))
+  (((1 1) 70000) t ((2 2) 70000) t))
+
+
+(deftest compiler.lazy-fasl-functions.1
+    (let ((tmpfile (ext::make-temp-file)))
+      (with-open-file (s tmpfile :direction :output)
+        (format s "~S~%~S~%"
+                '(defun lazy-fasl-functions.1a (x)
+                  "Doubles X."
+                  (flet ((f (y) (list y '#:g)))
+                    (f (* 2 x))))
+                '(defun lazy-fasl-functions.1b ()
+                  (load-time-value (list 1)))))
+      (let ((fasl (compile-file tmpfile)))
+        (delete-file tmpfile)
+        ;; The classes are read from the FASL on the first call.
+        (unwind-protect
+             (progn
+               (let ((sys:*lazy-fasl-functions* t))
+                 (load fasl))
+               (let* ((stub (fdefinition 'lazy-fasl-functions.1a))
+                      (eager (fdefinition 'lazy-fasl-functions.1b))
+                      (result (funcall 'lazy-fasl-functions.1a 3)))
+                 (list (first result)
+                       (symbol-package (second result))
+                       (eq stub (fdefinition 'lazy-fasl-functions.1a))
+                       (first (funcall stub 1))
+                       (documentation 'lazy-fasl-functions.1a 'function)
+                       (eq eager (fdefinition 'lazy-fasl-functions.1b)))))
+          (delete-file fasl))))
+  (6 nil nil 2 "Doubles X." t))
+
+(defvar *lazy-fasl-functions-made* 0)
+
+;;; The creation form of a constant is evaluated when the FASL is loaded,
+;;; so its function isn't made lazy.
+(deftest compiler.lazy-fasl-functions.2
+    (let ((tmpfile (ext::make-temp-file)))
+      (with-open-file (s tmpfile :direction :output)
+        (format s "~S~%~S~%~S~%"
+                '(in-package :abcl.test.lisp)
+                '(eval-when (:compile-toplevel :load-toplevel :execute)
+                  (defstruct lazy-fasl-functions-point x)
+                  (defmethod make-load-form ((p lazy-fasl-functions-point)
+                                             &optional env)
+                    (declare (ignore env))
+                    `(progn
+                       (incf *lazy-fasl-functions-made*)
+                       (make-lazy-fasl-functions-point
+                        :x ,(lazy-fasl-functions-point-x p))))
+                  (defmacro lazy-fasl-functions-point-constant ()
+                    (make-lazy-fasl-functions-point :x 1)))
+                '(defun lazy-fasl-functions.2 ()
+                  (lazy-fasl-functions-point-constant))))
+      (let ((fasl (compile-file tmpfile)))
+        (delete-file tmpfile)
+        (unwind-protect
+             (progn
+               (setf *lazy-fasl-functions-made* 0)
+               (let ((sys:*lazy-fasl-functions* t))
+                 (load fasl))
+               (list *lazy-fasl-functions-made*
+                     (funcall 'lazy-fasl-functions-point-x
+                              (funcall 'lazy-fasl-functions.2))
+                     *lazy-fasl-functions-made*))
+          (delete-file fasl))))
+  (1 1 1))
+
+
 ;;; ticket #189
 (deftest compiler.3
     (eql (funcall (compile nil (lambda (a)
@@ -501,3 +724,72 @@
           (compile nil '(lambda (&key args &optional x))))
       (typep error 'program-error))
   t)
+
+(defvar *compiler-special-binding* :global)
+
+(deftest compiler.special-binding.1
+    (funcall (compile nil
+                      '(lambda (x)
+                        (flet ((outer () *compiler-special-binding*))
+                          (let ((*compiler-special-binding* x))
+                            (setq *compiler-special-binding*
+                                  (1+ *compiler-special-binding*))
+                            (list *compiler-special-binding*
+                                  (outer)
+                                  (let ((*compiler-special-binding* :inner))
+                                    (outer))
+                                  (outer)
+                                  (progv '(*compiler-special-binding*) ()
+                                    (boundp '*compiler-special-binding*)))))))
+             1)
+  (2 2 :inner 2 nil))
+
+(deftest compiler.direct-call.1
+    (progn
+      (setf (symbol-function 'compiler-direct-call-target)
+            (lambda (x) (+ x 1)))
+      (let ((caller (let ((jvm:*call-site-dispatch* t))
+                      (compile nil
+                               '(lambda (x)
+                                 (declare (optimize (speed 3) (debug 0)))
+                                 (compiler-direct-call-target x))))))
+        (list (funcall caller 1)
+              (progn
+                (setf (symbol-function 'compiler-direct-call-target)
+                      (lambda (x) (* x 10)))
+                (funcall caller 2))
+              (progn
+                (fmakunbound 'compiler-direct-call-target)
+                (handler-case (funcall caller 3)
+                  (undefined-function (c) (cell-error-name c)))))))
+  (2 20 compiler-direct-call-target))
+
+(deftest compiler.unboxed-double.1
+    (let ((fn (compile nil
+                       '(lambda (n x)
+                         (declare (optimize (speed 3) (safety 1))
+                                  (type fixnum n) (type double-float x))
+                         (let ((acc 0d0))
+                           (declare (type double-float acc))
+                           (dotimes (i n)
+                             (let ((y (* x 0.5d0)))
+                               (setq acc (+ acc (* y y)
+                                            (the double-float (- x 1d0))))))
+                           acc)))))
+      (list (funcall fn 4 3d0)
+            (handler-case (funcall fn 4 3)
+              (type-error (c) (type-error-expected-type c)))))
+  (17d0 double-float))
+
+;;; A declared type isn't checked, so it doesn't make THE's check redundant.
+(deftest compiler.unboxed-double.2
+    (loop :for safety :in '(1 3)
+          :collect (let ((fn (compile nil
+                                      `(lambda (x)
+                                         (declare (optimize (safety ,safety))
+                                                  (double-float x))
+                                         (list (lambda () x)
+                                               (the double-float x))))))
+                     (handler-case (second (funcall fn 1))
+                       (type-error () :type-error))))
+  (:type-error :type-error))
@@ -108,4 +108,608 @@
                            (setf (values (mystruct-slot struct)
                                          x)
                                  (values 42 2))))))
-  42 2)
\ No newline at end of file
+  42 2)
+
+(deftest array.double-float.1
+  (let ((v (make-array 3 :element-type 'double-float :initial-element 1d0)))
+    (setf (aref v 1) 2d0)
+    (values (array-element-type v)
+            (typep v '(simple-array double-float (3)))
+            (aref v 1)
+            (reduce #'+ v)))
+  double-float t 2d0 4d0)
+
+(deftest array.double-float.2
+  (let ((a (make-array '(2 2) :element-type 'double-float
+                              :initial-contents '((1d0 2d0) (3d0 4d0)))))
+    (values (array-element-type a)
+            (aref a 1 0)
+            (aref (adjust-array a '(3 3) :initial-element 0d0) 1 1)))
+  double-float 3d0 4d0)
+
+(deftest array.single-float.1
+  (let ((v (make-array 1 :element-type 'single-float
+                         :adjustable t :fill-pointer 0)))
+    (vector-push-extend 1f0 v)
+    (vector-push-extend 2f0 v)
+    (values (upgraded-array-element-type 'single-float)
+            (array-element-type v)
+            (coerce v 'list)))
+  single-float single-float (1f0 2f0))
+
+(deftest array.single-float.2
+  (handler-case
+      (setf (aref (make-array 1 :element-type 'single-float) 0) 1)
+    (type-error () :type-error))
+  :type-error)
+
+(deftest array.signed-byte.1
+  (mapcar #'upgraded-array-element-type
+          '((signed-byte 8) (integer -1 1) (signed-byte 16) fixnum
+            (signed-byte 64) (unsigned-byte 64) (mod 256) (signed-byte 65)))
+  ((signed-byte 8) (signed-byte 8) (signed-byte 16) (signed-byte 32)
+   (signed-byte 64) (unsigned-byte 64) (unsigned-byte 8) t))
+
+(deftest array.signed-byte.2
+  (let ((v (make-array 3 :element-type '(signed-byte 8)
+                         :initial-contents '(-128 0 127))))
+    (values (array-element-type v)
+            (coerce (reverse v) 'list)
+            (handler-case (setf (aref v 0) 128)
+              (type-error () :type-error))))
+  (signed-byte 8) (127 0 -128) :type-error)
+
+(deftest array.signed-byte.3
+  (let ((a (make-array '(2 2) :element-type '(signed-byte 64)
+                              :initial-element most-negative-fixnum)))
+    (setf (aref a 1 1) (- (expt 2 63)))
+    (values (array-element-type a)
+            (aref a 0 0)
+            (aref a 1 1)))
+  (signed-byte 64) #.most-negative-fixnum #.(- (expt 2 63)))
+
+(deftest array.unsigned-byte-64.1
+  (let ((v (make-array 2 :element-type '(unsigned-byte 64))))
+    (setf (aref v 1) (1- (expt 2 64)))
+    (values (array-element-type v)
+            (aref v 0)
+            (aref v 1)
+            (handler-case (setf (aref v 0) -1)
+              (type-error () :type-error))))
+  (unsigned-byte 64) 0 #.(1- (expt 2 64)) :type-error)
+
+(deftest array.signed-byte.4
+  (let ((v (make-array 3 :element-type '(signed-byte 8)
+                         :adjustable t :fill-pointer 0)))
+    (dolist (n '(-1 2 -3))
+      (vector-push-extend n v))
+    (let ((w (adjust-array v 6 :fill-pointer 6 :initial-element 7))
+          (d (make-array 2 :element-type '(signed-byte 16)
+                           :displaced-to (make-array 4 :element-type
+                                                     '(signed-byte 16)
+                                                     :initial-contents
+                                                     '(1 -2 3 -4))
+                           :displaced-index-offset 1)))
+      (values (array-element-type v)
+              (typep v '(vector (signed-byte 8)))
+              (handler-case (setf (aref v 0) 1000)
+                (type-error () :type-error))
+              (coerce (reverse w) 'list)
+              (array-element-type d)
+              (coerce d 'list))))
+  (signed-byte 8) t :type-error (7 7 7 -3 2 -1) (signed-byte 16) (-2 3))
+
+(deftest array.unsigned-byte-64.2
+  (let ((v (make-array 1 :element-type '(unsigned-byte 64)
+                         :fill-pointer 0 :adjustable t)))
+    (vector-push-extend (1- (expt 2 64)) v)
+    (vector-push-extend 1 v)
+    (values (array-element-type v)
+            (coerce (subseq v 0) 'list)
+            (array-element-type (adjust-array v 4))
+            (handler-case (vector-push-extend -1 v)
+              (type-error () :type-error))))
+  (unsigned-byte 64) (#.(1- (expt 2 64)) 1) (unsigned-byte 64) :type-error)
+
+(deftest hash-table.concurrent.1
+  (let ((ht (make-hash-table :test 'equal :synchronized :concurrent)))
+    (dotimes (i 1000)
+      (setf (gethash (list i) ht) i))
+    (dotimes (i 500)
+      (remhash (list (* 2 i)) ht))
+    (let ((sum 0))
+      (maphash (lambda (k v)
+                 (assert (= (car k) v))
+                 (incf sum v)
+                 (remhash k ht))
+               ht)
+      (values (hash-table-test ht)
+              sum
+              (hash-table-count ht)
+              (gethash '(1) ht))))
+  equal 250000 0 nil)
+
+#+abcl
+(deftest hash-table.concurrent.2
+  (let* ((ht (make-hash-table :synchronized :concurrent))
+         (threads (loop for n below 8
+                        collect (let ((n n))
+                                  (threads:make-thread
+                                   (lambda ()
+                                     (dotimes (i 2000)
+                                       (setf (gethash (+ (* n 2000) i) ht)
+                                             n))))))))
+    (mapc #'threads:thread-join threads)
+    (values (hash-table-count ht)
+            (gethash 15999 ht)))
+  16000 7)
+
+(deftest hash-table.eql.1
+  (let ((ht (make-hash-table :test 'eql :size 1)))
+    ;; Interleave insertions and removals, forcing several rehashes
+    ;; that both grow the table and reclaim removed slots.
+    (dotimes (i 10000)
+      (setf (gethash (* i 1.0d0) ht) i)
+      (when (oddp i)
+        (remhash (* (1- i) 1.0d0) ht)))
+    (let ((sum 0))
+      (maphash (lambda (k v)
+                 (assert (= k v))
+                 (incf sum v))
+               ht)
+      (values (hash-table-count ht)
+              sum
+              (gethash 9999d0 ht)
+              (gethash 9998d0 ht)
+              (length (sys::hash-table-entries ht)))))
+  5000 25000000 9999 nil 5000)
+
+(deftest hash-table.eq.1
+  (let ((ht (make-hash-table :test 'eq))
+        (keys (loop repeat 100 collect (make-symbol "K"))))
+    (loop for k in keys for i from 0 do (setf (gethash k ht) i))
+    (maphash (lambda (k v)
+               (if (evenp v)
+                   (remhash k ht)
+                   (setf (gethash k ht) (- v))))
+             ht)
+    (values (hash-table-count ht)
+            (gethash (second keys) ht)
+            (gethash (first keys) ht)
+            (progn (clrhash ht) (hash-table-count ht))))
+  50 -1 nil 0)
+
+#+abcl
+(deftest threads.mailbox.1
+  (let ((mailbox (threads:make-mailbox)))
+    (threads:mailbox-send mailbox 1)
+    (threads:mailbox-send-all mailbox '(2 3 4))
+    (values (threads:mailbox-count mailbox)
+            (threads:mailbox-read mailbox)
+            (threads:mailbox-peek mailbox)
+            (threads:mailbox-drain mailbox 2)
+            (threads:mailbox-drain mailbox)
+            (multiple-value-list (threads:mailbox-read mailbox 0.01))
+            (threads:mailbox-empty-p mailbox)))
+  4 1 2 (2 3) (4) (nil nil) t)
+
+#+abcl
+(deftest threads.mailbox.2
+  (let* ((mailbox (threads:make-mailbox :capacity 2))
+         (consumer (threads:make-thread
+                    (lambda ()
+                      (loop for item = (threads:mailbox-read mailbox)
+                            until (eq item :done)
+                            sum item)))))
+    (values (threads:mailbox-p mailbox)
+            (progn
+              (dotimes (i 1000)
+                (threads:mailbox-send mailbox i))
+              (threads:mailbox-send mailbox :done))
+            (threads:thread-join consumer)))
+  t t 499500)
+
+#+abcl
+(deftest threads.mutex.1
+  (let* ((mutex (threads:make-mutex))
+         (other (progn
+                  (threads:get-mutex mutex)
+                  (threads:make-thread
+                   (lambda ()
+                     (list (threads:get-mutex mutex 0)
+                           (threads:with-mutex (mutex :timeout 0.01) :ran)))))))
+    (multiple-value-prog1
+        (values (threads:mutex-p mutex)
+                (threads:thread-join other)
+                (threads:with-mutex (mutex) :ran))
+      (threads:release-mutex mutex)))
+  t (nil nil) :ran)
+
+#+abcl
+(deftest threads.make-thread.virtual.1
+  (let* ((symbol (gensym))
+         (threads (loop for i below 100
+                        collect (let ((i i))
+                                  (threads:make-thread
+                                   (lambda ()
+                                     (progv (list symbol) (list i)
+                                       (symbol-value symbol)))
+                                   :name "virtual"
+                                   :virtual t)))))
+    (values (threads:thread-name (first threads))
+            (reduce #'+ (mapcar #'threads:thread-join threads))
+            (boundp symbol)))
+  "virtual" 4950 nil)
+
+#+abcl
+(deftest threads.future.1
+  (let ((pool (threads:make-thread-pool :size 2)))
+    (unwind-protect
+         (values (threads:thread-pool-size pool)
+                 (let ((*print-base* 16))
+                   (multiple-value-list
+                    (threads:future-value
+                     (threads:submit (lambda () (values *print-base* :ok))
+                                     :pool pool))))
+                 (handler-case
+                     (threads:future-value
+                      (threads:submit (lambda () (error 'type-error
+                                                        :datum 1
+                                                        :expected-type 'string))
+                                      :pool pool))
+                   (type-error (c) (type-error-datum c)))
+                 (threads:future-value
+                  (threads:submit (lambda () (sleep 10)) :pool pool)
+                  0.01 :timeout))
+      (threads:thread-pool-shutdown pool)))
+  2 (16 :ok) 1 :timeout)
+
+#+abcl
+(deftest threads.pmap.1
+  (values (threads:pmap #'1+ '(1 2 3 4))
+          (threads:preduce #'+ (loop for i below 1000 collect i))
+          (threads:preduce #'+ '() :initial-value 3))
+  (2 3 4 5) 499500 3)
+
+#+abcl
+(deftest boot-snapshot.1
+  (let ((file (ext:make-temp-file)))
+    (unwind-protect
+         (values (pathnamep (sys:write-boot-snapshot file))
+                 (with-open-file (s file :element-type '(unsigned-byte 8))
+                   (> (file-length s) 0)))
+      (delete-file file)))
+  t t)
+
+#+abcl
+(defun boot-snapshot-child (snapshot)
+  "Run a child ABCL booting from SNAPSHOT and return what it printed:
+whether it used SNAPSHOT, and the result of compiling and calling a
+function."
+  (flet ((property (name)
+           (java:jstatic "getProperty" "java.lang.System" name)))
+    (let* ((home (property "abcl.home"))
+           (process
+            (sys:run-program
+             (format nil "~A/bin/java" (property "java.home"))
+             `("-cp" ,(property "java.class.path")
+               ,@(when home (list (format nil "-Dabcl.home=~A" home)))
+               ,(format nil "-Dabcl.boot.snapshot=~A" (namestring snapshot))
+               "org.armedbear.lisp.Main" "--noinit" "--batch"
+               "--eval" "(format t \"~&RESULT ~S~%\" (list (not (null sys::*boot-snapshot*)) (funcall (compile nil '(lambda (n) (loop :for i :below n :sum i))) 10)))"))))
+      (loop :for line := (read-line (sys:process-output process) nil)
+            :while line
+            :when (and (> (length line) 7) (string= "RESULT " line :end2 7))
+              :return (subseq line 7)))))
+
+#+abcl
+(deftest boot-snapshot.2
+  (let ((file (ext:make-temp-file))
+        (container (probe-file (make-pathname :name "early-defuns" :type "abcl"
+                                              :defaults ext:*lisp-home*))))
+    (unwind-protect
+         (list (progn
+                 (sys:write-boot-snapshot file)
+                 (boot-snapshot-child file))
+               (if (and container (not (ext:pathname-jar-p container)))
+                   (let* ((f (java:jnew "java.io.File" (namestring container)))
+                          (modified (java:jcall "lastModified" f))
+                          (set-modified (java:jmethod "java.io.File"
+                                                      "setLastModified" "long")))
+                     (unwind-protect
+                          (progn
+                            (java:jcall set-modified f (+ modified 2000))
+                            (boot-snapshot-child file))
+                       (java:jcall set-modified f modified)))
+                   ;; Booted from a jar, whose entries can't be touched.
+                   "(NIL 45)"))
+      (delete-file file)))
+  ("(T 45)" "(NIL 45)"))
+
+(defvar *closure-direct-call-special* :global)
+
+(deftest closure.direct-call.1
+  (let ((f (eval '(lambda (a &optional (b 10 b-p) (c 'x))
+                   (list a b b-p c))))
+        (g (eval '(lambda (*closure-direct-call-special*)
+                   (symbol-value '*closure-direct-call-special*))))
+        (k (eval '(let ((n 0)) (lambda () (incf n))))))
+    (list (funcall f 1) (funcall f 1 2) (funcall f 1 2 3)
+          (funcall g :dynamic) *closure-direct-call-special*
+          (funcall k) (funcall k)
+          (handler-case (funcall f) (program-error () :error))
+          (handler-case (funcall f 1 2 3 4) (program-error () :error))))
+  ((1 10 nil x) (1 2 t x) (1 2 t 3) :dynamic :global 1 2 :error :error))
+
+(defmacro macroexpansion-cache.1-macro (x) `(list :old ,x))
+
+(defvar *macroexpansion-cache.1-expansions*)
+
+;;; The hook is compiled: an interpreted hook would macroexpand its
+;;; own body through itself.
+(defparameter *macroexpansion-cache.1-hook*
+  (compile nil '(lambda (expander form env)
+                 (incf *macroexpansion-cache.1-expansions*)
+                 (funcall expander form env))))
+
+#+abcl
+(deftest macroexpansion-cache.1
+  (let ((ext:*cache-macroexpansions* t)
+        (form (list 'macroexpansion-cache.1-macro 1))
+        (*macroexpansion-cache.1-expansions* 0))
+    (list (eval form)
+          (eval form)
+          (progn
+            (eval '(defmacro macroexpansion-cache.1-macro (x)
+                    `(list :new ,x)))
+            (eval form))
+          (let ((*macroexpand-hook* *macroexpansion-cache.1-hook*))
+            (eval form)
+            (eval form)
+            *macroexpansion-cache.1-expansions*)))
+  ((:old 1) (:old 1) (:new 1) 2))
+
+;;; The expansion of INCF depends on the expansion of the inner place,
+;;; which is looked up only while INCF itself is expanded.
+(defvar *macroexpansion-cache.2-x* 0)
+(defvar *macroexpansion-cache.2-y* 0)
+(defmacro macroexpansion-cache.2-place () '*macroexpansion-cache.2-x*)
+
+#+abcl
+(deftest macroexpansion-cache.2
+  (let ((ext:*cache-macroexpansions* t)
+        (form '(incf (macroexpansion-cache.2-place))))
+    (setf *macroexpansion-cache.2-x* 0
+          *macroexpansion-cache.2-y* 0)
+    (eval form)
+    (eval '(defmacro macroexpansion-cache.2-place ()
+            '*macroexpansion-cache.2-y*))
+    (eval form)
+    (list *macroexpansion-cache.2-x* *macroexpansion-cache.2-y*))
+  (1 1))
+
+(defmacro macroexpansion-cache.3-macro (&environment env)
+  `',(macroexpand 'macroexpansion-cache.3-sm env))
+
+#+abcl
+(deftest macroexpansion-cache.3
+  (let* ((ext:*cache-macroexpansions* t)
+         (form (list 'macroexpansion-cache.3-macro)))
+    (list (eval `(symbol-macrolet ((macroexpansion-cache.3-sm :a)) ,form))
+          (eval `(symbol-macrolet ((macroexpansion-cache.3-sm :b)) ,form))
+          (progn
+            (eval '(define-symbol-macro macroexpansion-cache.3-sm :c))
+            (eval form))
+          (progn
+            (eval '(define-symbol-macro macroexpansion-cache.3-sm :d))
+            (eval form))))
+  (:a :b :c :d))
+
+(defvar *macroexpansion-cache.4-expansions* 0)
+
+(defmacro macroexpansion-cache.4-macro (x)
+  (incf *macroexpansion-cache.4-expansions*)
+  `(1+ ,x))
+
+;;; Ordinary variable bindings don't stop loop bodies from reusing
+;;; their expansions.
+#+abcl
+(deftest macroexpansion-cache.4
+  (let ((ext:*cache-macroexpansions* t))
+    (setf *macroexpansion-cache.4-expansions* 0)
+    (eval '(dotimes (i 1000) (macroexpansion-cache.4-macro i)))
+    (eval '(funcall (lambda (n)
+                      (dotimes (i n) (macroexpansion-cache.4-macro n)))
+                    1000))
+    *macroexpansion-cache.4-expansions*)
+  2)
+
+#+abcl
+(deftest read-sequence.character.1
+  (let ((path (ext::make-temp-file)))
+    (unwind-protect
+         (progn
+           (with-open-file (s path :direction :output :if-exists :supersede
+                                   :external-format '(:iso-8859-1 :eol-style :crlf))
+             (write-sequence (vector #\a #\b #\Newline #\c #\Newline) s)
+             (write-string "de" s))
+           (with-open-file (s path :external-format '(:iso-8859-1 :eol-style :crlf))
+             (let ((string (make-string 10 :initial-element #\.))
+                   (vector (make-array 3 :initial-element nil)))
+               (list (read-sequence vector s)
+                     (coerce vector 'string)
+                     (read-sequence string s :start 1)
+                     string
+                     (sys::stream-line-number s)))))
+      (delete-file path)))
+  (3 "ab
+" 5 ".c
+de....." 3))
+
+#+abcl
+(deftest write-string.eol-style.1
+  (let ((path (ext::make-temp-file)))
+    (unwind-protect
+         (loop :for eol-style :in '(:crlf :cr)
+               :collect (progn
+                          (with-open-file (s path :direction :output
+                                                  :if-exists :supersede
+                                                  :external-format
+                                                  (list :iso-8859-1 :eol-style eol-style))
+                            (write-string (format nil "ab~%cd") s)
+                            (fresh-line s)
+                            (fresh-line s)
+                            (write-string (format nil "x~%") s)
+                            (fresh-line s)
+                            (write-string "y" s))
+                          (with-open-file (s path :element-type '(unsigned-byte 8))
+                            (let ((octets (make-array (file-length s))))
+                              (read-sequence octets s)
+                              (map 'string #'code-char octets)))))
+      (delete-file path)))
+  #.(list (coerce '(#\a #\b #\Return #\Newline #\c #\d #\Return #\Newline
+                    #\x #\Return #\Newline #\y)
+                  'string)
+          (coerce '(#\a #\b #\Return #\c #\d #\Return #\x #\Return #\y)
+                  'string)))
+
+#+abcl
+(deftest open.mapped.1
+  (let ((path (ext::make-temp-file)))
+    (unwind-protect
+         (progn
+           (with-open-file (s path :direction :output :if-exists :supersede
+                                   :element-type '(unsigned-byte 8))
+             (dotimes (i 1000)
+               (write-byte (mod i 256) s)))
+           (list
+            (with-open-file (s path :element-type '(unsigned-byte 8) :mapped t)
+              (let ((vector (make-array 4 :element-type '(unsigned-byte 8))))
+                (list (file-length s)
+                      (file-position s 998)
+                      (read-sequence vector s)
+                      (coerce vector 'list)
+                      (file-position s 300)
+                      (read-byte s)
+                      (file-position s)
+                      (read-byte (progn (file-position s :end) s) nil :eof))))
+            (with-open-file (s path :mapped t :external-format :iso-8859-1)
+              (file-position s 65)
+              (list (read-char s) (read-char s) (file-position s)))
+            (handler-case (open path :direction :output :if-exists :append
+                                     :mapped t)
+              (file-error () :error))))
+      (delete-file path)))
+  ((1000 t 2 (230 231 0 0) t 44 301 :eof) (#\A #\B 67) :error))
+
+#+abcl
+(deftest open.buffer-size.1
+  (let ((path (ext::make-temp-file))
+        (text (coerce (list #\a (code-char 233) #\b (code-char 9731) #\Newline
+                            #\c (code-char 255) #\d)
+                      'string)))
+    (unwind-protect
+         (flet ((contents (external-format buffer-size)
+                  (with-open-file (s path :external-format external-format
+                                          :buffer-size buffer-size)
+                    (list (read-char s)
+                          (read-char s)
+                          (unread-char (code-char 233) s)
+                          (read-line s)
+                          (read-char s)
+                          (unread-char #\c s)
+                          (read-line s)))))
+           (loop :for external-format :in '(:utf-8 :iso-8859-1)
+                 :always (progn
+                           (with-open-file (s path :direction :output
+                                                   :if-exists :supersede
+                                                   :external-format :utf-8)
+                             (write-string text s))
+                           (loop :for buffer-size :from 8 :to 12
+                                 :always (equal (contents external-format
+                                                          buffer-size)
+                                                (contents external-format
+                                                          nil))))))
+      (delete-file path)))
+  t)
+
+#+abcl
+(deftest socket-selector.1
+  (let* ((selector (ext:make-socket-selector))
+         (server (ext:make-server-socket-channel 0))
+         (port (ext:socket-channel-local-port server))
+         (buffer (make-array 16 :element-type '(unsigned-byte 8)))
+         (closed 0))
+    (flet ((on-read (channel)
+             (let ((end (ext:socket-channel-read channel buffer)))
+               (if end
+                   (ext:socket-channel-write channel
+                                             (list (subseq buffer 0 1)
+                                                   (subseq buffer 1 end)))
+                   (progn
+                     (incf closed)
+                     (ext:socket-channel-close channel))))))
+      (ext:socket-selector-register
+       selector server
+       :on-accept (lambda (server)
+                    (loop :for channel := (ext:socket-channel-accept server)
+                          :while channel
+                          :do (ext:socket-selector-register selector channel
+                                                            :on-read #'on-read))))
+      (let* ((clients (loop :repeat 3
+                            :collect (ext:make-socket-channel "127.0.0.1" port)))
+             (result
+              (list (ext:socket-channel-read (first clients) buffer :start 2)
+                    (loop :for client :in clients
+                          :for i :from 1
+                          :sum (ext:socket-channel-write
+                                client
+                                (make-array i :element-type '(unsigned-byte 8)
+                                              :initial-element i)))
+                    (loop :for client :in clients
+                          :for i :from 1
+                          :collect (let ((in (make-array i :element-type '(unsigned-byte 8))))
+                                     (loop :for end := 0
+                                             :then (ext:socket-channel-read client in :start end)
+                                           :until (eql end i)
+                                           :do (ext:socket-selector-poll selector 1))
+                                     (coerce in 'list))))))
+        (mapc #'ext:socket-channel-close clients)
+        (loop :while (< closed 3)
+              :do (ext:socket-selector-poll selector 1))
+        (ext:socket-selector-unregister selector server)
+        (ext:run-socket-selector selector)
+        (prog1 (append result (list (ext:socket-selector-count selector)))
+          (ext:socket-channel-close server)
+          (ext:socket-selector-close selector)))))
+  (2 6 ((1) (2 2) (3 3 3)) 0))
+
+;;; Pausing and resuming a channel: its cancelled key lingers in the
+;;; selector until the next poll.
+#+abcl
+(deftest socket-selector.2
+  (let* ((selector (ext:make-socket-selector))
+         (server (ext:make-server-socket-channel 0))
+         (accepted nil))
+    (flet ((on-accept (server)
+             (loop :for channel := (ext:socket-channel-accept server)
+                   :while channel
+                   :do (push channel accepted))))
+      (ext:socket-selector-register selector server :on-accept #'on-accept)
+      (ext:socket-selector-unregister selector server)
+      (ext:socket-selector-register selector server :on-accept #'on-accept)
+      (let ((client (ext:make-socket-channel
+                     "127.0.0.1" (ext:socket-channel-local-port server))))
+        (loop :repeat 100
+              :until accepted
+              :do (ext:socket-selector-poll selector 1))
+        (mapc #'ext:socket-channel-close accepted)
+        (ext:socket-channel-close client))
+      (ext:socket-channel-close server)
+      (ext:socket-selector-close selector)
+      (list (length accepted)
+            (handler-case (ext:socket-selector-poll selector 0)
+              (error () :error))
+            (handler-case (ext:socket-selector-count selector)
+              (error () :error)))))
+  (1 :error :error))
@@ -0,0 +1,64 @@
+;;; Micro-benchmarks for DOUBLE-FLOAT arithmetic.
+;;;
+;;; Each kernel comes in a fully declared variant, whose intermediate
+;;; values the compiler keeps in unboxed JVM doubles, and a generic
+;;; variant which allocates a DoubleFloat for every intermediate value.
+;;; Compile this file and call RUN-FLOAT-BENCHMARKS.
+
+(declaim (optimize (speed 3) (safety 1) (debug 0)))
+
+(defvar *outer-times* 3)
+(defvar *inner-times* 50000000)
+
+(defmacro test (&body body)
+  `(dotimes (i *outer-times*)
+     (time (progn ,@body))))
+
+(defun sum-declared (n)
+  (declare (type fixnum n))
+  (let ((acc 0d0)
+        (x 0d0))
+    (declare (type double-float acc x))
+    (dotimes (i n acc)
+      (let ((y (* x 0.5d0)))
+        (setq acc (+ acc (* y y) (the double-float (- x 1d0))))
+        (setq x (+ x 1d-3))))))
+
+(defun sum-generic (n)
+  (let ((acc 0d0)
+        (x 0d0))
+    (dotimes (i n acc)
+      (let ((y (* x 0.5d0)))
+        (setq acc (+ acc (* y y) (- x 1d0)))
+        (setq x (+ x 1d-3))))))
+
+(defun horner-declared (n)
+  (declare (type fixnum n))
+  (let ((acc 0d0)
+        (x 0d0))
+    (declare (type double-float acc x))
+    (dotimes (i n acc)
+      (let* ((p (+ (* x 0.25d0) 0.5d0))
+             (q (+ (* p x) 1d0)))
+        (setq acc (+ acc (* q x)))
+        (setq x (- 1d0 (* x 0.999d0)))))))
+
+(defun horner-generic (n)
+  (let ((acc 0d0)
+        (x 0d0))
+    (dotimes (i n acc)
+      (let* ((p (+ (* x 0.25d0) 0.5d0))
+             (q (+ (* p x) 1d0)))
+        (setq acc (+ acc (* q x)))
+        (setq x (- 1d0 (* x 0.999d0)))))))
+
+(defun sum-declared-test () (test (sum-declared *inner-times*)))
+(defun sum-generic-test () (test (sum-generic *inner-times*)))
+(defun horner-declared-test () (test (horner-declared *inner-times*)))
+(defun horner-generic-test () (test (horner-generic *inner-times*)))
+
+(defun run-float-benchmarks ()
+  (dolist (test '(sum-declared-test sum-generic-test
+                  horner-declared-test horner-generic-test))
+    (format t "~&~A~%" test)
+    (funcall test)))